@@ -0,0 +1,514 @@
+package model;
+
+import model.exception.OverlappingSessionException;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// Represents a study tracker that keeps its sessions in parallel arrays of primitive columns instead of as Session
+// objects: start and end as UTC epoch seconds and nanoseconds, and activity, timer settings and pomodoro minutes as
+// int ids and values, with each activity and timer settings held once in a dictionary. Session lists are views that
+// build a new Session from the columns each time an element is accessed, so changes to a returned session are not
+// kept; remove the session and add it again instead. Sessions are found by start through an array of rows sorted by
+// start, and overlapping sessions through a tree over that array that holds the latest end of each range of it;
+// other queries scan the columns, and removing a session shifts the rows after it.
+public class ColumnarStudyTracker extends StudyTracker {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size;
+    private long[] startSeconds;
+    private int[] startNanos;
+    private long[] endSeconds;
+    private int[] endNanos;
+    private int[] activityIds;          // ids in activityDictionary, 0 for sessions with no activity
+    private int[] settingsIds;          // ids in settingsDictionary, -1 for sessions that are not pomodoro sessions
+    private int[] pomodoroMinutes;
+    private String[] details;
+    private int[] byStart;              // rows in chronological order of start, rows with the same start in order added
+    private int[] latestEnding;         // tree over positions in byStart: node leaves + p holds the row at position p,
+                                        // or -1 past the last row, and node i < leaves the later ending of the rows
+                                        // in nodes 2i and 2i + 1, or -1 if both are -1
+    private int leaves;                 // number of leaves of latestEnding, a power of two at least the capacity
+    private int removals;               // number of sessions removed, to detect views of rows that have moved
+    private List<Activity> activityDictionary;
+    private Map<String, Integer> activityIdsByName;
+    private List<PomodoroTimerSettings> settingsDictionary;
+    private Map<PomodoroTimerSettings, Integer> settingsIdsBySettings;
+
+    // EFFECTS: constructs study tracker with empty list of activities and sessions and default pomodoro timer settings
+    public ColumnarStudyTracker() {
+        startSeconds = new long[INITIAL_CAPACITY];
+        startNanos = new int[INITIAL_CAPACITY];
+        endSeconds = new long[INITIAL_CAPACITY];
+        endNanos = new int[INITIAL_CAPACITY];
+        activityIds = new int[INITIAL_CAPACITY];
+        settingsIds = new int[INITIAL_CAPACITY];
+        pomodoroMinutes = new int[INITIAL_CAPACITY];
+        details = new String[INITIAL_CAPACITY];
+        byStart = new int[INITIAL_CAPACITY];
+        leaves = INITIAL_CAPACITY;
+        latestEnding = new int[2 * leaves];
+        Arrays.fill(latestEnding, -1);
+        activityDictionary = new ArrayList<>();
+        activityDictionary.add(null);
+        activityIdsByName = new HashMap<>();
+        settingsDictionary = new ArrayList<>();
+        settingsIdsBySettings = new HashMap<>();
+    }
+
+    // EFFECTS: constructs study tracker with the timer settings, activities and sessions of source
+    public ColumnarStudyTracker(StudyTracker source) {
+        this();
+        setTimerSettings(source.getTimerSettings());
+        for (Activity a : source.getActivities()) {
+            addActivity(a);
+        }
+        for (Session s : source.getSessionsWithoutLogging()) {
+            addSession(s);
+        }
+        setRejectOverlappingSessions(source.isRejectingOverlappingSessions());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds a row holding the values of given session s,
+    //          if rejecting overlapping sessions and s overlaps an existing session,
+    //          throws OverlappingSessionException
+    @Override
+    public void addSession(Session s) throws OverlappingSessionException {
+        if (isRejectingOverlappingSessions() && hasOverlappingRow(s.getStart(), s.getEnd())) {
+            throw new OverlappingSessionException();
+        }
+        String session = s instanceof PomodoroSession ? "Pomodoro session" : "Session";
+        EventLog.getInstance().logEvent(new Event(session + " added to study tracker"));
+        ensureCapacity(size + 1);
+        int row = size++;
+        setRow(row, s);
+        int position = searchByStart(startSeconds[row], startNanos[row], false, row);
+        System.arraycopy(byStart, position, byStart, position + 1, row - position);
+        byStart[position] = row;
+        updateLatestEnding(position, size);
+        notifySessionAdded(s);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes the row of the first session added with the same details, interval and activity as s
+    @Override
+    public void removeSession(Session s) {
+        EventLog.getInstance().logEvent(new Event("Session removed from study tracker"));
+        int position = findPosition(s);
+        if (position >= 0) {
+            int row = byStart[position];
+            Session removed = sessionAt(row);
+            removeRow(position, row);
+            notifySessionRemoved(removed, row);
+        }
+    }
+
+    // EFFECTS: returns unmodifiable view of sessions filtered by given activity, in the order they were added;
+    //          the view must not be used after a session is removed from this study tracker
+    @Override
+    public List<Session> filterSessionsByActivity(Activity activity) {
+        EventLog.getInstance().logReadEvent("Viewed sessions filtered by activity");
+        int id = activity == null ? 0 : activityIdsByName.getOrDefault(activity.getName(), -1);
+        int[] rows = new int[size];
+        int found = 0;
+        for (int i = 0; id >= 0 && i < size; i++) {
+            if (activityIds[i] == id) {
+                rows[found++] = i;
+            }
+        }
+        return new RowView(Arrays.copyOf(rows, found));
+    }
+
+    // REQUIRES: from is not after to
+    // EFFECTS: returns unmodifiable view of sessions starting at or after from and before to, in chronological
+    //          order of start; the view must not be used after a session is removed from this study tracker
+    @Override
+    public List<Session> getSessionsBetween(LocalDateTime from, LocalDateTime to) {
+        EventLog.getInstance().logReadEvent("Viewed sessions in a date range");
+        int lo = searchByStart(toEpochSecond(from), from.getNano(), true, size);
+        int hi = searchByStart(toEpochSecond(to), to.getNano(), true, size);
+        return new RowView(Arrays.copyOfRange(byStart, lo, hi));
+    }
+
+    // EFFECTS: returns sessions in reverse chronological order of start, sessions with the same start in the order
+    //          they were added; sessions are built lazily, so stopping after the k most recent does not build the rest
+    @Override
+    public Iterable<Session> getSessionsNewestFirst() {
+        EventLog.getInstance().logReadEvent("Viewed sessions newest first");
+        return NewestFirstIterator::new;
+    }
+
+    // EFFECTS: returns sessions whose interval overlaps the interval of s in chronological order of start,
+    //          other than sessions with the same details, interval and activity as s
+    @Override
+    public List<Session> findOverlapping(Session s) {
+        return new ArrayList<>(new RowView(findOverlappingRows(s.getStart(), s.getEnd(), s)));
+    }
+
+    // EFFECTS: returns total duration in minutes of all sessions, summed from the start and end columns
+    @Override
+    public long getTotalMinutes() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += durationAt(i);
+        }
+        return total;
+    }
+
+    // EFFECTS: returns total duration in minutes of sessions of given activity, or of sessions with no activity
+    //          if activity is null, summed from the columns
+    @Override
+    public long getTotalMinutes(Activity activity) {
+        int id = activity == null ? 0 : activityIdsByName.getOrDefault(activity.getName(), -1);
+        long total = 0;
+        for (int i = 0; id >= 0 && i < size; i++) {
+            if (activityIds[i] == id) {
+                total += durationAt(i);
+            }
+        }
+        return total;
+    }
+
+    // EFFECTS: returns unmodifiable live view of all sessions in the order they were added,
+    //          without logging a read event
+    @Override
+    public List<Session> getSessionsWithoutLogging() {
+        return new AbstractList<Session>() {
+            @Override
+            public Session get(int index) {
+                checkIndex(index, size);
+                return sessionAt(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the columns of given row to the values of s
+    private void setRow(int row, Session s) {
+        startSeconds[row] = toEpochSecond(s.getStart());
+        startNanos[row] = s.getStart().getNano();
+        endSeconds[row] = toEpochSecond(s.getEnd());
+        endNanos[row] = s.getEnd().getNano();
+        activityIds[row] = activityId(s.getActivity());
+        details[row] = s.getDetails();
+        if (s instanceof PomodoroSession) {
+            PomodoroSession pomodoro = (PomodoroSession) s;
+            settingsIds[row] = settingsId(pomodoro.getTimerSettings());
+            pomodoroMinutes[row] = pomodoro.getPomodoroMinutes();
+        } else {
+            settingsIds[row] = -1;
+            pomodoroMinutes[row] = 0;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes given row, found at given position in start order, and shifts the rows after it
+    private void removeRow(int position, int row) {
+        System.arraycopy(byStart, position + 1, byStart, position, size - position - 1);
+        int last = size - 1;
+        for (int i = 0; i < last; i++) {
+            if (byStart[i] > row) {
+                byStart[i]--;
+            }
+        }
+        int moved = last - row;
+        System.arraycopy(startSeconds, row + 1, startSeconds, row, moved);
+        System.arraycopy(startNanos, row + 1, startNanos, row, moved);
+        System.arraycopy(endSeconds, row + 1, endSeconds, row, moved);
+        System.arraycopy(endNanos, row + 1, endNanos, row, moved);
+        System.arraycopy(activityIds, row + 1, activityIds, row, moved);
+        System.arraycopy(settingsIds, row + 1, settingsIds, row, moved);
+        System.arraycopy(pomodoroMinutes, row + 1, pomodoroMinutes, row, moved);
+        System.arraycopy(details, row + 1, details, row, moved);
+        details[last] = null;
+        size = last;
+        updateLatestEnding(0, last + 1);
+        removals++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: grows the columns so they hold at least given number of rows
+    private void ensureCapacity(int capacity) {
+        if (capacity <= startSeconds.length) {
+            return;
+        }
+        int grown = Math.max(capacity, startSeconds.length * 2);
+        startSeconds = Arrays.copyOf(startSeconds, grown);
+        startNanos = Arrays.copyOf(startNanos, grown);
+        endSeconds = Arrays.copyOf(endSeconds, grown);
+        endNanos = Arrays.copyOf(endNanos, grown);
+        activityIds = Arrays.copyOf(activityIds, grown);
+        settingsIds = Arrays.copyOf(settingsIds, grown);
+        pomodoroMinutes = Arrays.copyOf(pomodoroMinutes, grown);
+        details = Arrays.copyOf(details, grown);
+        byStart = Arrays.copyOf(byStart, grown);
+        while (leaves < grown) {
+            leaves *= 2;
+        }
+        latestEnding = new int[2 * leaves];
+        Arrays.fill(latestEnding, -1);
+        updateLatestEnding(0, size);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: sets the leaves of latestEnding for positions [from, to) in start order to the rows now at those
+    //          positions, or -1 past the last row, and recomputes their ancestors
+    private void updateLatestEnding(int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        for (int p = from; p < to; p++) {
+            latestEnding[leaves + p] = p < size ? byStart[p] : -1;
+        }
+        for (int lo = (leaves + from) / 2, hi = (leaves + to - 1) / 2; lo >= 1; lo /= 2, hi /= 2) {
+            for (int i = lo; i <= hi; i++) {
+                latestEnding[i] = laterEnding(latestEnding[2 * i], latestEnding[2 * i + 1]);
+            }
+        }
+    }
+
+    // EFFECTS: returns whichever of given rows ends later, or the other one if a row is -1
+    private int laterEnding(int row, int other) {
+        if (row < 0 || other < 0) {
+            return row < 0 ? other : row;
+        }
+        return endsAfter(other, endSeconds[row], endNanos[row]) ? other : row;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns id of given activity in the activity dictionary, adding it under its name if no activity with
+    //          that name is in the dictionary yet; returns 0 if activity is null
+    private int activityId(Activity activity) {
+        if (activity == null) {
+            return 0;
+        }
+        Integer id = activityIdsByName.get(activity.getName());
+        if (id == null) {
+            id = activityDictionary.size();
+            activityDictionary.add(activity);
+            activityIdsByName.put(activity.getName(), id);
+        }
+        return id;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns id of given timer settings in the settings dictionary, adding them if they are not in it yet
+    private int settingsId(PomodoroTimerSettings settings) {
+        Integer id = settingsIdsBySettings.get(settings);
+        if (id == null) {
+            id = settingsDictionary.size();
+            settingsDictionary.add(PomodoroTimerSettings.intern(settings));
+            settingsIdsBySettings.put(settings, id);
+        }
+        return id;
+    }
+
+    // EFFECTS: builds the session in given row of the columns
+    private Session sessionAt(int row) {
+        LocalDateTime start = LocalDateTime.ofEpochSecond(startSeconds[row], startNanos[row], ZoneOffset.UTC);
+        LocalDateTime end = LocalDateTime.ofEpochSecond(endSeconds[row], endNanos[row], ZoneOffset.UTC);
+        Activity activity = activityDictionary.get(activityIds[row]);
+        if (settingsIds[row] >= 0) {
+            return new PomodoroSession(details[row], start, end, settingsDictionary.get(settingsIds[row]),
+                    pomodoroMinutes[row], activity);
+        }
+        return new Session(details[row], start, end, activity);
+    }
+
+    // EFFECTS: returns position in start order of the first session added with the same details, interval and
+    //          activity as s, or -1 if there is none
+    private int findPosition(Session s) {
+        long seconds = toEpochSecond(s.getStart());
+        int nanos = s.getStart().getNano();
+        for (int p = searchByStart(seconds, nanos, true, size); p < size; p++) {
+            int row = byStart[p];
+            if (compareStart(row, seconds, nanos) != 0) {
+                break;
+            }
+            if (isSame(row, s)) {
+                return p;
+            }
+        }
+        return -1;
+    }
+
+    // EFFECTS: returns true if any session overlaps [start, end], by checking the latest end of the O(log n) ranges
+    //          of latestEnding that make up the sessions starting before end
+    private boolean hasOverlappingRow(LocalDateTime start, LocalDateTime end) {
+        long startSecond = toEpochSecond(start);
+        int lo = leaves;
+        int hi = leaves + searchByStart(toEpochSecond(end), end.getNano(), true, size);
+        for (; lo < hi; lo /= 2, hi /= 2) {
+            if (lo % 2 == 1 && endsAfter(latestEnding[lo++], startSecond, start.getNano())) {
+                return true;
+            }
+            if (hi % 2 == 1 && endsAfter(latestEnding[--hi], startSecond, start.getNano())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // EFFECTS: returns rows of sessions overlapping [start, end] in chronological order of start,
+    //          other than those with the same details, interval and activity as excluded
+    private int[] findOverlappingRows(LocalDateTime start, LocalDateTime end, Session excluded) {
+        int hi = searchByStart(toEpochSecond(end), end.getNano(), true, size);
+        List<Integer> rows = new ArrayList<>();
+        collectOverlappingRows(1, 0, leaves, hi, start, rows);
+        return rows.stream().filter(row -> !isSame(row, excluded)).mapToInt(Integer::intValue).toArray();
+    }
+
+    // MODIFIES: rows
+    // EFFECTS: adds to rows, in order of position, the rows at positions [nodeFrom, nodeTo) of given node of
+    //          latestEnding that are before position hi and end after start, skipping nodes that end before it
+    private void collectOverlappingRows(int node, int nodeFrom, int nodeTo, int hi, LocalDateTime start,
+                                        List<Integer> rows) {
+        int row = latestEnding[node];
+        if (nodeFrom >= hi || row < 0 || !endsAfter(row, toEpochSecond(start), start.getNano())) {
+            return;
+        }
+        if (node >= leaves) {
+            rows.add(row);
+            return;
+        }
+        int mid = (nodeFrom + nodeTo) / 2;
+        collectOverlappingRows(2 * node, nodeFrom, mid, hi, start, rows);
+        collectOverlappingRows(2 * node + 1, mid, nodeTo, hi, start, rows);
+    }
+
+    // EFFECTS: returns true if there is a session in given row, not -1, and it ends after given epoch second and
+    //          nanosecond
+    private boolean endsAfter(int row, long seconds, int nanos) {
+        if (row < 0) {
+            return false;
+        }
+        int cmp = Long.compare(endSeconds[row], seconds);
+        return cmp > 0 || cmp == 0 && endNanos[row] > nanos;
+    }
+
+    // EFFECTS: returns true if the session in given row has the same details, interval and activity as s
+    private boolean isSame(int row, Session s) {
+        Activity activity = activityDictionary.get(activityIds[row]);
+        String activityName = activity == null ? "" : activity.getName();
+        return compareStart(row, toEpochSecond(s.getStart()), s.getStart().getNano()) == 0
+                && endSeconds[row] == toEpochSecond(s.getEnd()) && endNanos[row] == s.getEnd().getNano()
+                && activityName.equals(s.getActivityName()) && details[row].equals(s.getDetails());
+    }
+
+    // EFFECTS: returns the first position, among the first count positions in start order, whose session starts after
+    //          given epoch second and nanosecond, or at them too if inclusive; returns count if there is none
+    private int searchByStart(long seconds, int nanos, boolean inclusive, int count) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compareStart(byStart[mid], seconds, nanos);
+            if (cmp < 0 || cmp == 0 && !inclusive) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // EFFECTS: returns negative, zero or positive if the session in given row starts before, at, or after
+    //          given epoch second and nanosecond
+    private int compareStart(int row, long seconds, int nanos) {
+        int cmp = Long.compare(startSeconds[row], seconds);
+        return cmp != 0 ? cmp : Integer.compare(startNanos[row], nanos);
+    }
+
+    // EFFECTS: returns duration in minutes of the session in given row
+    private long durationAt(int row) {
+        long seconds = endSeconds[row] - startSeconds[row];
+        if (endNanos[row] < startNanos[row]) {
+            seconds--;
+        }
+        return seconds / 60;
+    }
+
+    // EFFECTS: returns given date time as UTC epoch seconds
+    private static long toEpochSecond(LocalDateTime t) {
+        return t.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    // EFFECTS: throws IndexOutOfBoundsException unless 0 <= index < size
+    private static void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    // Represents an unmodifiable view of the sessions in given rows of the columns, which can no longer be used
+    // once a session has been removed, as rows after the removed one have moved
+    private class RowView extends AbstractList<Session> {
+        private final int[] rows;
+        private final int expectedRemovals;
+
+        RowView(int[] rows) {
+            this.rows = rows;
+            this.expectedRemovals = removals;
+        }
+
+        @Override
+        public Session get(int index) {
+            checkIndex(index, rows.length);
+            if (removals != expectedRemovals) {
+                throw new ConcurrentModificationException();
+            }
+            return sessionAt(rows[index]);
+        }
+
+        @Override
+        public int size() {
+            return rows.length;
+        }
+    }
+
+    // Represents an iterator over sessions from the latest start to the earliest, visiting sessions with the same
+    // start, which are positions [groupStart, groupEnd) in start order, in the order they were added
+    private class NewestFirstIterator implements Iterator<Session> {
+        private final int expectedRemovals = removals;
+        private int groupStart = size;
+        private int groupEnd = size;
+        private int next = size;
+
+        @Override
+        public boolean hasNext() {
+            return next < groupEnd || groupStart > 0;
+        }
+
+        @Override
+        public Session next() {
+            if (removals != expectedRemovals) {
+                throw new ConcurrentModificationException();
+            }
+            if (next == groupEnd) {
+                if (groupStart == 0) {
+                    throw new NoSuchElementException();
+                }
+                groupEnd = groupStart;
+                int last = byStart[groupEnd - 1];
+                groupStart = searchByStart(startSeconds[last], startNanos[last], true, groupEnd);
+                next = groupStart;
+            }
+            return sessionAt(byStart[next++]);
+        }
+    }
+}
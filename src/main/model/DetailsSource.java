@@ -0,0 +1,9 @@
+package model;
+
+// Represents a source that session details text is fetched from on demand, so it need not be kept on the heap
+public interface DetailsSource {
+
+    // EFFECTS: returns the details text stored under given reference;
+    //          throws java.io.UncheckedIOException if it cannot be read
+    String fetchDetails(long ref);
+}
@@ -1,34 +1,90 @@
 package model;
 
-import java.util.Calendar;
+import java.time.Clock;
+import java.time.Instant;
 import java.util.Date;
 
 // reference: Event class in https://github.students.cs.ubc.ca/CPSC210/AlarmSystem
 /**
  * Represents a study tracker event.
+ * The time stamp is taken from a pluggable clock and kept as epoch
+ * milliseconds, so creating an event does not allocate a Calendar.
  */
 public class Event {
     private static final int HASH_CONSTANT = 13;
-    private Date dateLogged;
+    private static volatile Clock clock = Clock.systemUTC();
+    private final long timestamp;   // epoch milliseconds
+    private Date dateLogged;        // created from timestamp on first call to getDate
     private String description;
 
     /**
      * Creates an event with the given description
-     * and the current date/time stamp.
+     * and the current date/time stamp of the event clock.
      *
      * @param description a description of the event
      */
     public Event(String description) {
-        dateLogged = Calendar.getInstance().getTime();
+        this(description, clock.millis());
+    }
+
+    /**
+     * Creates an event with the given description and time stamp.
+     *
+     * @param description a description of the event
+     * @param timestamp the time of the event in milliseconds since the epoch
+     */
+    public Event(String description, long timestamp) {
+        this.timestamp = timestamp;
         this.description = description;
     }
 
+    /**
+     * Gets the clock used to time stamp new events.
+     *
+     * @return the event clock
+     */
+    public static Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * Sets the clock used to time stamp new events, e.g. a fixed
+     * clock so tests and benchmarks control time.
+     *
+     * @param eventClock the clock to use from now on
+     */
+    public static void setClock(Clock eventClock) {
+        clock = eventClock;
+    }
+
+    /**
+     * Gets the time stamp of this event.
+     *
+     * @return the time of the event in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Gets the time stamp of this event as an instant.
+     *
+     * @return the instant of the event
+     */
+    public Instant getInstant() {
+        return Instant.ofEpochMilli(timestamp);
+    }
+
     /**
      * Gets the date of this event (includes time).
+     * The date is created the first time it is requested.
      *
      * @return the date of the event
      */
     public Date getDate() {
+        if (dateLogged == null) {
+            dateLogged = new Date(timestamp);
+        }
         return dateLogged;
     }
 
@@ -53,17 +109,17 @@ public class Event {
 
         Event otherEvent = (Event) other;
 
-        return (this.dateLogged.equals(otherEvent.dateLogged)
+        return (this.timestamp == otherEvent.timestamp
                 && this.description.equals(otherEvent.description));
     }
 
     @Override
     public int hashCode() {
-        return (HASH_CONSTANT * dateLogged.hashCode() + description.hashCode());
+        return (HASH_CONSTANT * Long.hashCode(timestamp) + description.hashCode());
     }
 
     @Override
     public String toString() {
-        return dateLogged.toString() + "\n" + description;
+        return getDate().toString() + "\n" + description;
     }
 }
@@ -1,8 +1,10 @@
 package model;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import java.io.IOException;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 // reference: EventLog class in https://github.students.cs.ubc.ca/CPSC210/AlarmSystem
 /**
@@ -10,18 +12,48 @@ import java.util.Iterator;
  * We use the Singleton Design Pattern to ensure that there is only
  * one EventLog in the system and that the system has global access
  * to the single instance of the EventLog.
+ * Mutation events are always logged; read events (e.g. viewing
+ * sessions) are logged according to the read event policy.
+ * Events are held in a bounded lock-free ring buffer, so logging
+ * is safe from any thread, never blocks, and keeps only the most
+ * recent events. Every logged event is also passed to the
+ * registered event sinks, e.g. to keep an audit trail on disk.
  */
 public class EventLog implements Iterable<Event> {
-    /** the only EventLog in the system (Singleton Design Pattern) */
-    private static EventLog theLog;
-    private Collection<Event> events;
+    /**
+     * Policy for read events: log all of them, log one in every
+     * read sample interval, or drop all of them.
+     */
+    public enum ReadEventPolicy { LOG_ALL, SAMPLE, DROP }
+
+    /** default number of most recent events kept by the log */
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    private volatile EventRingBuffer events;
+    private volatile ReadEventPolicy readEventPolicy;
+    private volatile int readSampleInterval;
+    private final AtomicLong readEventCount;
+    private final List<EventSink> sinks;
+
+    /**
+     * Holds the only EventLog in the system, created when first used.
+     * Class initialization makes the creation thread-safe.
+     * (Singleton Design Pattern)
+     */
+    private static class Holder {
+        private static final EventLog THE_LOG = new EventLog();
+    }
 
     /**
      * Prevent external construction.
      * (Singleton Design Pattern).
      */
     private EventLog() {
-        events = new ArrayList<Event>();
+        events = new EventRingBuffer(DEFAULT_CAPACITY, EventRingBuffer.OverflowPolicy.OVERWRITE);
+        readEventPolicy = ReadEventPolicy.LOG_ALL;
+        readSampleInterval = 1;
+        readEventCount = new AtomicLong(0);
+        sinks = new CopyOnWriteArrayList<>();
     }
 
     /**
@@ -31,19 +63,131 @@ public class EventLog implements Iterable<Event> {
      * @return  instance of EventLog
      */
     public static EventLog getInstance() {
-        if (theLog == null) {
-            theLog = new EventLog();
-        }
-
-        return theLog;
+        return Holder.THE_LOG;
     }
 
     /**
-     * Adds an event to the event log.
+     * Adds an event to the event log. If the log is full, the
+     * oldest event is overwritten or the new event is dropped,
+     * depending on the overflow policy.
      * @param e the event to be added
      */
     public void logEvent(Event e) {
-        events.add(e);
+        events.append(e);
+        for (EventSink sink : sinks) {
+            sink.accept(e);
+        }
+    }
+
+    /**
+     * Registers a sink that receives every event logged from now on.
+     * @param sink the event sink to add
+     */
+    public void addSink(EventSink sink) {
+        sinks.add(sink);
+    }
+
+    /**
+     * Unregisters the given sink without closing it.
+     * @param sink the event sink to remove
+     */
+    public void removeSink(EventSink sink) {
+        sinks.remove(sink);
+    }
+
+    /**
+     * Closes and unregisters all sinks, so each one writes out the
+     * events it has received. All sinks are closed even if one fails.
+     * @throws IOException if any sink could not write its events
+     */
+    public void closeSinks() throws IOException {
+        IOException failure = null;
+        for (EventSink sink : sinks) {
+            sinks.remove(sink);
+            try {
+                sink.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Replaces the event buffer with an empty one of the given
+     * capacity and overflow policy. Events logged so far are discarded.
+     * REQUIRES: capacity >= 1
+     * @param capacity the maximum number of events kept
+     * @param policy what to do with new events when the log is full
+     */
+    public void configure(int capacity, EventRingBuffer.OverflowPolicy policy) {
+        events = new EventRingBuffer(capacity, policy);
+    }
+
+    public int getCapacity() {
+        return events.getCapacity();
+    }
+
+    public EventRingBuffer.OverflowPolicy getOverflowPolicy() {
+        return events.getOverflowPolicy();
+    }
+
+    /**
+     * Gets the number of events dropped because the log was full.
+     * @return the number of dropped events
+     */
+    public long getDroppedCount() {
+        return events.getDroppedCount();
+    }
+
+    /**
+     * Logs a read event with the given description if the read
+     * event policy keeps it. The event is only created if it is kept.
+     * @param description the description of the read event
+     */
+    public void logReadEvent(String description) {
+        switch (readEventPolicy) {
+            case LOG_ALL:
+                logEvent(new Event(description));
+                break;
+            case SAMPLE:
+                if (readEventCount.getAndIncrement() % readSampleInterval == 0) {
+                    logEvent(new Event(description));
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    public ReadEventPolicy getReadEventPolicy() {
+        return readEventPolicy;
+    }
+
+    /**
+     * Sets the policy applied to read events logged from now on.
+     * @param policy the read event policy
+     */
+    public void setReadEventPolicy(ReadEventPolicy policy) {
+        readEventPolicy = policy;
+        readEventCount.set(0);
+    }
+
+    public int getReadSampleInterval() {
+        return readSampleInterval;
+    }
+
+    /**
+     * Sets how many read events are seen per read event logged
+     * when sampling, e.g. 10 logs the 1st, 11th, 21st, ... read event.
+     * REQUIRES: interval >= 1
+     * @param interval the read sample interval
+     */
+    public void setReadSampleInterval(int interval) {
+        readSampleInterval = interval;
+        readEventCount.set(0);
     }
 
     /**
@@ -54,6 +198,11 @@ public class EventLog implements Iterable<Event> {
         logEvent(new Event("Event log cleared."));
     }
 
+    /**
+     * Gets an iterator over a snapshot of the logged events, oldest
+     * first; it is safe to use while other threads keep logging.
+     * @return iterator over the logged events
+     */
     @Override
     public Iterator<Event> iterator() {
         return events.iterator();
@@ -0,0 +1,130 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// References:
+//  sequence-numbered ring buffer slots: https://lmax-exchange.github.io/disruptor/disruptor.html
+
+// Represents a fixed-capacity buffer of the most recent events that many threads can append to without locking.
+// Each append claims the next sequence number and publishes the event into slot (sequence % capacity).
+// When full, new events either overwrite the oldest events or are dropped, depending on the overflow policy.
+public class EventRingBuffer implements Iterable<Event> {
+    public enum OverflowPolicy { OVERWRITE, DROP }
+
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final AtomicReferenceArray<Slot> slots;
+    private final AtomicLong next;      // sequence number claimed by the next append
+    private final AtomicLong first;     // sequence number of the first event not cleared
+    private final AtomicLong dropped;   // number of events dropped because the buffer was full
+
+    // REQUIRES: capacity >= 1
+    // EFFECTS: constructs empty ring buffer holding at most capacity events with given overflow policy
+    public EventRingBuffer(int capacity, OverflowPolicy policy) {
+        this.capacity = capacity;
+        this.policy = policy;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.next = new AtomicLong(0);
+        this.first = new AtomicLong(0);
+        this.dropped = new AtomicLong(0);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return policy;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    // EFFECTS: returns number of events currently held, at most capacity
+    public int size() {
+        return (int) Math.min(next.get() - first.get(), capacity);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends e to this buffer and returns true; if buffer is full, overwrites the oldest event
+    //          under OVERWRITE, or drops e and returns false under DROP. Never blocks.
+    public boolean append(Event e) {
+        long sequence;
+        if (policy == OverflowPolicy.DROP) {
+            do {
+                sequence = next.get();
+                if (sequence - first.get() >= capacity) {
+                    dropped.incrementAndGet();
+                    return false;
+                }
+            } while (!next.compareAndSet(sequence, sequence + 1));
+        } else {
+            sequence = next.getAndIncrement();
+        }
+        publish(new Slot(sequence, e));
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: discards all events appended so far
+    public void clear() {
+        first.set(next.get());
+    }
+
+    // EFFECTS: returns the events currently held, oldest first; events still being appended by other threads,
+    //          or overwritten while the snapshot is taken, are left out
+    public List<Event> snapshot() {
+        long end = next.get();
+        long start = Math.max(first.get(), end - capacity);
+        List<Event> events = new ArrayList<>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            Slot slot = slots.get(indexOf(sequence));
+            if (slot != null && slot.sequence == sequence) {
+                events.add(slot.event);
+            }
+        }
+        return events;
+    }
+
+    // EFFECTS: returns iterator over a snapshot of the events currently held, oldest first
+    @Override
+    public Iterator<Event> iterator() {
+        return Collections.unmodifiableList(snapshot()).iterator();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stores slot in its position unless a newer slot has already been published there
+    //          by a producer that lapped this one
+    private void publish(Slot slot) {
+        int index = indexOf(slot.sequence);
+        Slot current = slots.get(index);
+        while (current == null || current.sequence < slot.sequence) {
+            if (slots.compareAndSet(index, current, slot)) {
+                return;
+            }
+            current = slots.get(index);
+        }
+    }
+
+    // EFFECTS: returns index of the slot for given sequence number
+    private int indexOf(long sequence) {
+        return (int) (sequence % capacity);
+    }
+
+    // Represents an event published into the buffer with the sequence number it was appended with
+    private static class Slot {
+        private final long sequence;
+        private final Event event;
+
+        private Slot(long sequence, Event event) {
+            this.sequence = sequence;
+            this.event = event;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package model;
+
+import java.io.IOException;
+
+// Represents a destination that receives every event logged to the EventLog, e.g. a file on disk
+public interface EventSink {
+
+    // EFFECTS: receives e; called on the logging thread, so must return quickly
+    void accept(Event e);
+
+    // MODIFIES: this
+    // EFFECTS: writes out all events received so far and releases resources;
+    //          events received after closing are ignored.
+    //          throws IOException if events could not be written
+    void close() throws IOException;
+}
@@ -0,0 +1,15 @@
+package model;
+
+import java.util.concurrent.Future;
+
+// Represents the source of time for pomodoro timers and the means of waking them up later.
+// Timers read the time only through their clock, so a virtual clock can move them through hours of intervals at once.
+public interface PomodoroClock {
+
+    // EFFECTS: returns the current time in nanoseconds, measured from an arbitrary fixed origin
+    long nanoTime();
+
+    // EFFECTS: arranges for given task to run once, after given delay in nanoseconds has passed on this clock,
+    //          and returns a future that can be cancelled to stop it from running
+    Future<?> schedule(Runnable task, long delayNanos);
+}
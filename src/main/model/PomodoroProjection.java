@@ -0,0 +1,34 @@
+package model;
+
+// Represents what a pomodoro timer with given settings is projected to complete in a simulated run
+public final class PomodoroProjection {
+    private final PomodoroTimerSettings settings;
+    private final int pomodoros;        // pomodoro intervals fully completed
+    private final int cycles;           // cycles fully completed
+    private final int pomodoroMinutes;  // pomodoro minutes completed, including a partially completed pomodoro
+
+    // EFFECTS: constructs projection for timer with given settings that completed given pomodoros, cycles
+    //          and pomodoro minutes
+    PomodoroProjection(PomodoroTimerSettings settings, int pomodoros, int cycles, int pomodoroMinutes) {
+        this.settings = settings;
+        this.pomodoros = pomodoros;
+        this.cycles = cycles;
+        this.pomodoroMinutes = pomodoroMinutes;
+    }
+
+    public PomodoroTimerSettings getSettings() {
+        return settings;
+    }
+
+    public int getPomodoros() {
+        return pomodoros;
+    }
+
+    public int getCycles() {
+        return cycles;
+    }
+
+    public int getPomodoroMinutes() {
+        return pomodoroMinutes;
+    }
+}
@@ -37,6 +37,7 @@ public class PomodoroSession extends Session {
     @Override
     public JSONObject toJson() {
         JSONObject json = super.toJson();
+        json.put("type", "pomodoro");
         json.put("timerSettings", getTimerSettings().toJson());
         json.put("pomodoroMinutes", getPomodoroMinutes());
         return json;
@@ -0,0 +1,61 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Represents a simulator that projects how many pomodoros and cycles timers with different settings complete in a
+// given time. All timers run together on one virtual clock, which wakes each of them only when its intervals end,
+// so simulating thousands of schedules over a whole day takes about as long as stepping through their intervals.
+public class PomodoroSimulator {
+    private final VirtualPomodoroClock clock;
+    private final List<PomodoroTimer> timers;
+    private final List<PomodoroTimerSettings> schedules;
+
+    // EFFECTS: constructs simulator with no schedules, at time 0 of a new virtual clock
+    public PomodoroSimulator() {
+        clock = new VirtualPomodoroClock();
+        timers = new ArrayList<>();
+        schedules = new ArrayList<>();
+    }
+
+    // EFFECTS: returns projections of running timers with each of given schedules for given minutes,
+    //          in the order of given schedules
+    public static List<PomodoroProjection> simulate(List<PomodoroTimerSettings> schedules, long minutes) {
+        PomodoroSimulator simulator = new PomodoroSimulator();
+        for (PomodoroTimerSettings settings : schedules) {
+            simulator.addSchedule(settings);
+        }
+        simulator.advance(minutes);
+        return simulator.getProjections();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts a timer with given settings at the simulator's current time
+    public void addSchedule(PomodoroTimerSettings settings) {
+        PomodoroTimer timer = new PomodoroTimer(settings, clock);
+        timer.start(null);
+        timers.add(timer);
+        schedules.add(settings);
+    }
+
+    // REQUIRES: minutes >= 0
+    // MODIFIES: this
+    // EFFECTS: runs all timers for given minutes and returns number of times a timer was woken up
+    public int advance(long minutes) {
+        return clock.advance(minutes, TimeUnit.MINUTES);
+    }
+
+    // EFFECTS: returns projection of each timer at the simulator's current time, in the order its schedule was added
+    public List<PomodoroProjection> getProjections() {
+        List<PomodoroProjection> projections = new ArrayList<>(timers.size());
+        for (int i = 0; i < timers.size(); i++) {
+            PomodoroTimer timer = timers.get(i);
+            PomodoroTimerState state = timer.getState();
+            int pomodoros = state.getTotalPomodoroIntervals();
+            projections.add(new PomodoroProjection(schedules.get(i), pomodoros, pomodoros / timer.getPomodoroRepeats(),
+                    timer.getTotalPomodoroMinutes()));
+        }
+        return projections;
+    }
+}
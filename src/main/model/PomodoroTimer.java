@@ -1,85 +1,135 @@
 package model;
 
 import java.time.LocalDateTime;
-import java.util.Timer;
+import java.util.List;
 import java.util.TimerTask;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
-// Represents a pomodoro timer (units in seconds) with given pomodoro timer settings
-public class PomodoroTimer extends Timer {
+// Represents a pomodoro timer (units in seconds) with given pomodoro timer settings.
+// The timer's state is computed from how long it has been running, measured with its clock, rather than from
+// counted ticks, so late or missed ticks do not make it fall behind, and any number of intervals is skipped at once.
+// Whether the timer is running and how long it has run are held in one immutable object that is replaced atomically,
+// so the timer can be read and controlled from any thread without locks, and getState never sees a torn state.
+// Only reporting interval changes to listeners takes a lock, so that they are reported in the order they happened.
+// Listeners are told about interval changes and pauses as they happen; a running timer wakes up every second only
+// if it has a timer task or tick listeners, and otherwise only when its current interval ends. A RuntimeException
+// thrown by a listener or the timer task is passed to the uncaught exception handler of the thread that notified it,
+// and does not stop other listeners from being notified or the timer from being ticked again.
+// Running timers are ticked by their clock rather than by a thread of their own; unless given another one, all timers
+// share one clock whose scheduler has SHARED_SCHEDULER_THREADS daemon threads, so thousands of timers can run at once.
+// A timer given a VirtualPomodoroClock runs only as that clock is advanced, so hours of it can be simulated instantly.
+public class PomodoroTimer {
     public static final String POMODORO_INTERVAL = "pomodoro";
     public static final String SHORT_BREAK_INTERVAL = "short break";
     public static final String LONG_BREAK_INTERVAL = "long break";
+    public static final int SHARED_SCHEDULER_THREADS = 2;
 
-    private boolean running;
-    private LocalDateTime start;
-    private LocalDateTime end;
+    private static final PomodoroClock SHARED_CLOCK = new SystemPomodoroClock(newSharedScheduler());
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final PomodoroClock clock;
+    private Future<?> ticks;           // next tick scheduled, or null if none has been scheduled yet
+    private volatile long tickGeneration;  // incremented each time a tick is scheduled, so replaced ticks do nothing
+    private volatile TimerTask tickTask;   // task given to start, or null
+    private final List<PomodoroTimerListener> listeners;
+    private final List<PomodoroTimerTickListener> tickListeners;
+    private final AtomicReference<Progress> progress;
+    private final Object publishing;              // held while interval changes are reported to listeners
+    private long publishedIntervals;              // number of interval changes reported to listeners
     private final int pomodoroDuration;
     private final int shortBreakDuration;
     private final int longBreakDuration;
     private final int pomodoroRepeats;
-    private String currentIntervalName;
-    private int intervalTimeRemaining; // time remaining in current interval
-    private int repeatsRemaining;      // pomodoro intervals remaining until long break
-    private int totalPomodoroIntervals;
 
     // EFFECTS: Constructs pomodoro timer using given timer settings after conversion to seconds,
     //          and sets up timer at first pomodoro interval.
-    //          Initially, total pomodoro intervals is 0, start and end are null, and timer is not running
+    //          Initially, total pomodoro intervals is 0, start and end are null, and timer is not running.
+    //          The timer is ticked by the clock shared by all timers
     public PomodoroTimer(PomodoroTimerSettings settings) {
+        this(settings, SHARED_CLOCK);
+    }
+
+    // EFFECTS: Constructs pomodoro timer like PomodoroTimer(settings), ticked in real time by given scheduler
+    public PomodoroTimer(PomodoroTimerSettings settings, ScheduledExecutorService scheduler) {
+        this(settings, new SystemPomodoroClock(scheduler));
+    }
+
+    // EFFECTS: Constructs pomodoro timer like PomodoroTimer(settings) that tells time and is ticked by given clock
+    public PomodoroTimer(PomodoroTimerSettings settings, PomodoroClock clock) {
+        this.clock = clock;
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.tickListeners = new CopyOnWriteArrayList<>();
+        this.progress = new AtomicReference<>(Progress.INITIAL);
+        this.publishing = new Object();
         pomodoroDuration = settings.getPomodoro() * 60;
         shortBreakDuration = settings.getShortBreak() * 60;
         longBreakDuration = settings.getLongBreak() * 60;
         pomodoroRepeats = settings.getPomodoroRepeats();
-        totalPomodoroIntervals = 0;
-        start = null;
-        end = null;
-        running = false;
-        setUp();
     }
 
     // MODIFIES: this
-    // EFFECTS: if timer is running, decreases current interval time by one second.
-    //          if current interval time remaining == 0, starts next interval
-    public void decrement() {
-        if (isRunning()) {
-            this.intervalTimeRemaining--;
+    // EFFECTS: adds given listener to be notified of interval changes, pauses and resumes from now on
+    public void addListener(PomodoroTimerListener listener) {
+        listeners.add(listener);
+    }
 
-            if (this.getTimeRemaining() == 0) {
-                nextInterval();
-            }
+    // MODIFIES: this
+    // EFFECTS: removes given listener so it is no longer notified
+    public void removeListener(PomodoroTimerListener listener) {
+        listeners.remove(listener);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds given listener to be notified each time the timer reaches a whole second from now on
+    public void addTickListener(PomodoroTimerTickListener listener) {
+        tickListeners.add(listener);
+        scheduleNextTick();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes given tick listener so it is no longer notified
+    public void removeTickListener(PomodoroTimerTickListener listener) {
+        tickListeners.remove(listener);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: if timer is running, skips one second ahead, starting the next interval if the current one ends
+    public void decrement() {
+        if (update(p -> p.running ? p.skipped(NANOS_PER_SECOND) : p).running) {
+            publishTransitions();
+            scheduleNextTick();
         }
     }
 
     // MODIFIES: this
-    // EFFECTS: runs the timer with given timer task; sets start to current timestamp
+    // EFFECTS: runs the timer, running given timer task, if not null, each time the timer reaches a whole second;
+    //          sets start to current timestamp. Ticks only run the task and notify listeners, so a late tick does not
+    //          delay the timer. Throws IllegalStateException if timer was already started or cancelled
     public void start(TimerTask task) {
-        running = true;
-        start = LocalDateTime.now();
-
-        TimerTask t = new TimerTask() {
-            @Override
-            public void run() {
-                decrement();
-                if (task != null) {
-                    task.run();
-                }
-            }
-        };
-
-        this.scheduleAtFixedRate(t, 1000, 1000);
+        LocalDateTime start = LocalDateTime.now();
+        update(p -> p.started(now(), start));
+        tickTask = task;
+        scheduleNextTick();
     }
 
     // MODIFIES: this
-    // EFFECTS: cancels the timer, sets running to false and end to current timestamp
-    @Override
+    // EFFECTS: cancels the timer so it is no longer ticked, stops it and sets end to current timestamp
     public void cancel() {
-        end = LocalDateTime.now();
-        running = false;
-        super.cancel();
+        LocalDateTime end = LocalDateTime.now();
+        if (update(p -> p.cancelled(now(), end)).running) {
+            notifyPaused();
+        }
+        scheduleNextTick();
     }
 
     // MODIFIES: this
-    // EFFECTS: initializes next interval, updates repeats remaining and total cycles if required.
+    // EFFECTS: skips the rest of the current interval, so the timer is at the start of the next one:
     //          if completed interval is pomodoro,
     //             - decrements repeats remaining and increments total pomodoro intervals
     //             - if repeatsRemaining == 0, sets interval to long break,
@@ -87,41 +137,54 @@ public class PomodoroTimer extends Timer {
     //          if completed interval is short break, sets interval to pomodoro
     //          if completed interval is long break, resets timer to start a new cycle
     public void nextInterval() {
-        String completedInterval = this.getCurrentInterval();
-
-        if (completedInterval.equals(POMODORO_INTERVAL)) {
-            this.repeatsRemaining--;
-            this.totalPomodoroIntervals++;
-            if (this.getRepeatsRemaining() == 0) {
-                initLongBreakInterval();
-            } else {
-                initShortBreakInterval();
-            }
-        } else if (completedInterval.equals(SHORT_BREAK_INTERVAL)) {
-            initPomodoroInterval();
-        } else { // (completedInterval.equals(LONG_BREAK_INTERVAL))
-            setUp();
-        }
+        update(p -> {
+            long nanos = p.elapsedNanos(now());
+            int remaining = locate(nanos / NANOS_PER_SECOND, p.running).getTimeRemaining();
+            return p.skipped(remaining * NANOS_PER_SECOND - nanos % NANOS_PER_SECOND);
+        });
+        publishTransitions();
+        scheduleNextTick();
     }
 
+    // MODIFIES: this
+    // EFFECTS: stops the timer at its current time and notifies listeners; does nothing if timer is not running
     public void pause() {
-        running = false;
+        if (update(p -> p.paused(now())).running) {
+            notifyPaused();
+            scheduleNextTick();
+        }
     }
 
+    // MODIFIES: this
+    // EFFECTS: runs the timer on from its current time and notifies listeners; does nothing if timer is running or
+    //          cancelled
     public void resume() {
-        running = true;
+        Progress previous = update(p -> p.resumed(now()));
+        if (!previous.running && !previous.cancelled) {
+            for (PomodoroTimerListener listener : listeners) {
+                runReporting(() -> listener.onResumed(this));
+            }
+            scheduleNextTick();
+        }
+    }
+
+    // EFFECTS: returns where the timer is now: its interval, time remaining in it, repeats remaining, total pomodoro
+    //          intervals and whether it is running, all taken at the same moment
+    public PomodoroTimerState getState() {
+        Progress p = progress.get();
+        return locate(p.elapsedNanos(now()) / NANOS_PER_SECOND, p.running);
     }
 
     public boolean isRunning() {
-        return this.running;
+        return progress.get().running;
     }
 
     public LocalDateTime getEnd() {
-        return this.end;
+        return progress.get().end;
     }
 
     public LocalDateTime getStart() {
-        return this.start;
+        return progress.get().start;
     }
 
     public int getPomodoroDuration() {
@@ -141,19 +204,19 @@ public class PomodoroTimer extends Timer {
     }
 
     public String getCurrentInterval() {
-        return this.currentIntervalName;
+        return getState().getInterval();
     }
 
     public int getTimeRemaining() {
-        return this.intervalTimeRemaining;
+        return getState().getTimeRemaining();
     }
 
     public int getRepeatsRemaining() {
-        return this.repeatsRemaining;
+        return getState().getRepeatsRemaining();
     }
 
     public int getTotalPomodoroIntervals() {
-        return this.totalPomodoroIntervals;
+        return getState().getTotalPomodoroIntervals();
     }
 
     // EFFECTS: calculates then returns total number of timer cycles fully completed so far
@@ -164,42 +227,239 @@ public class PomodoroTimer extends Timer {
     // EFFECTS: calculates and returns total pomodoro minutes completed so far
     // including partially completed pomodoro intervals
     public int getTotalPomodoroMinutes() {
-        int seconds = getTotalPomodoroIntervals() * getPomodoroDuration();
-        if (currentIntervalName.equals(POMODORO_INTERVAL)) {
-            seconds += getPomodoroDuration() - getTimeRemaining();
+        PomodoroTimerState state = getState();
+        int seconds = state.getTotalPomodoroIntervals() * pomodoroDuration;
+        if (state.getInterval().equals(POMODORO_INTERVAL)) {
+            seconds += pomodoroDuration - state.getTimeRemaining();
         }
         return seconds / 60;
     }
 
+    // EFFECTS: returns a scheduler whose daemon threads tick the timers that are not given a clock,
+    //          and which drops the ticks of cancelled timers from its queue
+    private static ScheduledExecutorService newSharedScheduler() {
+        AtomicInteger threads = new AtomicInteger();
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(SHARED_SCHEDULER_THREADS, r -> {
+            Thread thread = new Thread(r, "pomodoro-timer-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    // EFFECTS: returns the current time in nanoseconds, as measured by the timer's clock
+    private long now() {
+        return clock.nanoTime();
+    }
+
     // MODIFIES: this
-    // EFFECTS: set/reset timer cycle by initializing current interval to pomodoro interval
-    //          and repeats remaining to initial pomodoro repeats
-    private void setUp() {
-        initPomodoroInterval();
-        this.repeatsRemaining = this.getPomodoroRepeats();
+    // EFFECTS: atomically replaces the timer's progress with the result of applying given change to it, retrying if
+    //          another thread replaced it first, and returns the progress it replaced. Given change must not have
+    //          side effects, as it may be applied more than once
+    private Progress update(UnaryOperator<Progress> change) {
+        while (true) {
+            Progress previous = progress.get();
+            if (progress.compareAndSet(previous, change.apply(previous))) {
+                return previous;
+            }
+        }
+    }
+
+    // EFFECTS: notifies listeners that the timer was paused
+    private void notifyPaused() {
+        for (PomodoroTimerListener listener : listeners) {
+            runReporting(() -> listener.onPaused(this));
+        }
     }
 
     // MODIFIES: this
-    // EFFECTS: sets current interval to pomodoro interval
-    //          and resets time remaining to pomodoro duration
-    private void initPomodoroInterval() {
-        this.currentIntervalName = POMODORO_INTERVAL;
-        this.intervalTimeRemaining = pomodoroDuration;
+    // EFFECTS: unless the tick of given generation has been replaced, reports interval changes to listeners, runs the
+    //          timer task and notifies tick listeners, then schedules the next tick if they did not schedule one,
+    //          even if something they ran threw
+    private void tick(long generation) {
+        if (generation != tickGeneration) {
+            return;
+        }
+        try {
+            publishTransitions();
+            TimerTask task = tickTask;
+            if (task != null) {
+                runReporting(task);
+            }
+            for (PomodoroTimerTickListener listener : tickListeners) {
+                runReporting(() -> listener.onTick(this));
+            }
+        } finally {
+            if (generation == tickGeneration) {
+                scheduleNextTick();
+            }
+        }
+    }
+
+    // EFFECTS: runs given listener notification or timer task; if it throws a RuntimeException, passes it to the
+    //          current thread's uncaught exception handler instead
+    private static void runReporting(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
     }
 
     // MODIFIES: this
-    // EFFECTS: sets current interval to short break interval
-    //          and resets time remaining to short break duration
-    private void initShortBreakInterval() {
-        this.currentIntervalName = SHORT_BREAK_INTERVAL;
-        this.intervalTimeRemaining = shortBreakDuration;
+    // EFFECTS: replaces the scheduled tick, if any. If the timer has a timer task or tick listeners, schedules the
+    //          next tick for when the timer reaches its next whole second, or in a second if it is paused; otherwise,
+    //          if the timer is running, schedules it for the end of the current interval.
+    //          Schedules nothing if timer is not started or is cancelled
+    private synchronized void scheduleNextTick() {
+        long generation = ++tickGeneration;
+        if (ticks != null) {
+            ticks.cancel(false);
+        }
+        Progress p = progress.get();
+        boolean ticking = tickTask != null || !tickListeners.isEmpty();
+        if (!p.started || p.cancelled || !ticking && !p.running) {
+            return;
+        }
+        long nanos = p.elapsedNanos(now());
+        long delay = p.running ? NANOS_PER_SECOND - nanos % NANOS_PER_SECOND : NANOS_PER_SECOND;
+        if (!ticking) {
+            delay += (locate(nanos / NANOS_PER_SECOND, true).getTimeRemaining() - 1) * NANOS_PER_SECOND;
+        }
+        ticks = clock.schedule(() -> tick(generation), delay);
     }
 
     // MODIFIES: this
-    // EFFECTS: sets current interval to long break interval
-    //          and resets time remaining to long break duration
-    private void initLongBreakInterval() {
-        this.currentIntervalName = LONG_BREAK_INTERVAL;
-        this.intervalTimeRemaining = longBreakDuration;
+    // EFFECTS: reports each interval change since the last one reported to listeners, in order; changes are reported
+    //          by one thread at a time, so each is reported once, and after every change before it, even if several
+    //          threads report at the same time
+    private void publishTransitions() {
+        synchronized (publishing) {
+            long intervalNumber = getState().getIntervalNumber();
+            while (publishedIntervals < intervalNumber) {
+                publishedIntervals++;
+                publishTransition(publishedIntervals);
+            }
+        }
+    }
+
+    // EFFECTS: notifies listeners that the interval before the one with given number completed and, if given interval
+    //          is a long break, that a cycle completed, then that given interval started
+    private void publishTransition(long number) {
+        String completed = intervalName(number - 1);
+        for (PomodoroTimerListener listener : listeners) {
+            runReporting(() -> listener.onIntervalCompleted(this, completed));
+        }
+        if (intervalName(number).equals(LONG_BREAK_INTERVAL)) {
+            int cycles = (int) (number / (2L * pomodoroRepeats)) + 1;
+            for (PomodoroTimerListener listener : listeners) {
+                runReporting(() -> listener.onCycleCompleted(this, cycles));
+            }
+        }
+        String started = intervalName(number);
+        for (PomodoroTimerListener listener : listeners) {
+            runReporting(() -> listener.onIntervalStarted(this, started));
+        }
+    }
+
+    // EFFECTS: returns name of the interval with given number, counting intervals from 0 at the first pomodoro
+    private String intervalName(long number) {
+        long inCycle = number % (2L * pomodoroRepeats);
+        if (inCycle % 2 == 0) {
+            return POMODORO_INTERVAL;
+        }
+        return inCycle == 2L * pomodoroRepeats - 1 ? LONG_BREAK_INTERVAL : SHORT_BREAK_INTERVAL;
+    }
+
+    // EFFECTS: returns the state of the timer after running for given seconds from the start of its first cycle,
+    //          with given running flag, computed in constant time
+    private PomodoroTimerState locate(long seconds, boolean running) {
+        int pair = pomodoroDuration + shortBreakDuration;
+        long cycleLength = (long) pomodoroRepeats * pair - shortBreakDuration + longBreakDuration;
+        long inCycle = seconds % cycleLength;
+        int pairsDone = (int) Math.min(inCycle / pair, pomodoroRepeats - 1);
+        long inPair = inCycle - (long) pairsDone * pair;
+        boolean inPomodoro = inPair < pomodoroDuration;
+        int pomodorosDone = inPomodoro ? pairsDone : pairsDone + 1;
+        String interval = POMODORO_INTERVAL;
+        long remaining = pomodoroDuration - inPair;
+        if (!inPomodoro && pomodorosDone < pomodoroRepeats) {
+            interval = SHORT_BREAK_INTERVAL;
+            remaining = pair - inPair;
+        } else if (!inPomodoro) {
+            interval = LONG_BREAK_INTERVAL;
+            remaining = pomodoroDuration + longBreakDuration - inPair;
+        }
+        int totalPomodoros = (int) (seconds / cycleLength * pomodoroRepeats + pomodorosDone);
+        long intervalNumber = (seconds / cycleLength * pomodoroRepeats + pairsDone) * 2 + (inPomodoro ? 0 : 1);
+        return new PomodoroTimerState(interval, (int) remaining, pomodoroRepeats - pomodorosDone, totalPomodoros,
+                intervalNumber, running);
+    }
+
+    // Represents how long a timer has run and whether it is running, started or cancelled, at one moment.
+    // Progress is immutable: each change to the timer builds a new one, so it is always read whole
+    private static final class Progress {
+        static final Progress INITIAL = new Progress(false, false, false, 0, 0, null, null);
+
+        final boolean started;
+        final boolean cancelled;
+        final boolean running;
+        final long bankedNanos;  // time run before the timer was last resumed, plus time skipped
+        final long resumedAt;    // clock time when the timer was last started or resumed
+        final LocalDateTime start;
+        final LocalDateTime end;
+
+        Progress(boolean started, boolean cancelled, boolean running, long bankedNanos, long resumedAt,
+                 LocalDateTime start, LocalDateTime end) {
+            this.started = started;
+            this.cancelled = cancelled;
+            this.running = running;
+            this.bankedNanos = bankedNanos;
+            this.resumedAt = resumedAt;
+            this.start = start;
+            this.end = end;
+        }
+
+        // EFFECTS: returns nanoseconds the timer has run for at given time, plus time skipped
+        long elapsedNanos(long now) {
+            return running ? bankedNanos + (now - resumedAt) : bankedNanos;
+        }
+
+        // EFFECTS: returns this progress started at given time and timestamp;
+        //          throws IllegalStateException if already started or cancelled
+        Progress started(long now, LocalDateTime timestamp) {
+            if (cancelled || started) {
+                throw new IllegalStateException(cancelled ? "Timer already cancelled." : "Timer already started.");
+            }
+            return new Progress(true, false, true, bankedNanos, now, timestamp, end);
+        }
+
+        // EFFECTS: returns this progress paused at given time and cancelled at given timestamp
+        Progress cancelled(long now, LocalDateTime timestamp) {
+            return new Progress(started, true, false, elapsedNanos(now), resumedAt, start, timestamp);
+        }
+
+        // EFFECTS: returns this progress paused at given time, or this if not running or cancelled
+        Progress paused(long now) {
+            if (!running || cancelled) {
+                return this;
+            }
+            return new Progress(started, false, false, elapsedNanos(now), resumedAt, start, end);
+        }
+
+        // EFFECTS: returns this progress resumed at given time, or this if already running or cancelled
+        Progress resumed(long now) {
+            if (running || cancelled) {
+                return this;
+            }
+            return new Progress(started, false, true, bankedNanos, now, start, end);
+        }
+
+        // EFFECTS: returns this progress with given nanoseconds skipped
+        Progress skipped(long nanos) {
+            return new Progress(started, cancelled, running, bankedNanos + nanos, resumedAt, start, end);
+        }
     }
 }
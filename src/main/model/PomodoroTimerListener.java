@@ -0,0 +1,23 @@
+package model;
+
+// Represents a listener that is notified when a pomodoro timer it listens to moves from one interval to the next,
+// or is paused or resumed. It is notified on the thread that ticks the timer, or on the thread that skipped time.
+// If time was skipped past several intervals, each interval is reported in order, so the timer's own state may
+// already be ahead of the interval being reported.
+public interface PomodoroTimerListener {
+
+    // EFFECTS: reacts to timer starting an interval with given name
+    void onIntervalStarted(PomodoroTimer timer, String interval);
+
+    // EFFECTS: reacts to timer completing an interval with given name
+    void onIntervalCompleted(PomodoroTimer timer, String interval);
+
+    // EFFECTS: reacts to timer completing its cycles-th cycle, when the last pomodoro before a long break completes
+    void onCycleCompleted(PomodoroTimer timer, int cycles);
+
+    // EFFECTS: reacts to timer being paused
+    void onPaused(PomodoroTimer timer);
+
+    // EFFECTS: reacts to timer being resumed
+    void onResumed(PomodoroTimer timer);
+}
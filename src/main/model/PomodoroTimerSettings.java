@@ -4,20 +4,24 @@ import model.exception.NonPositiveValueException;
 import org.json.JSONObject;
 import persistence.Writable;
 
-import java.util.Objects;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-// Represents settings for a pomodoro timer with a pomodoro duration, short break duration
-// long break duration and number of pomodoro repeats
-public class PomodoroTimerSettings implements Writable {
+// Represents immutable settings for a pomodoro timer with a pomodoro duration, short break duration
+// long break duration and number of pomodoro repeats. Settings with the same values are interchangeable, so
+// of and the with methods return a canonical instance from a pool shared by all trackers and sessions.
+public final class PomodoroTimerSettings implements Writable {
     public static final int DEFAULT_POMODORO = 25;
     public static final int DEFAULT_SHORT_BREAK = 5;
     public static final int DEFAULT_LONG_BREAK = 25;
     public static final int DEFAULT_REPEATS = 4;
 
-    private int pomodoro;       // duration of pomodoro/work interval in minutes
-    private int shortBreak;     // duration of short break interval in minutes
-    private int longBreak;      // duration of long break interval in minutes
-    private int pomodoroRepeats;        // number of pomodoro repeats before long break
+    private static final Map<PomodoroTimerSettings, PomodoroTimerSettings> POOL = new ConcurrentHashMap<>();
+
+    private final int pomodoro;       // duration of pomodoro/work interval in minutes
+    private final int shortBreak;     // duration of short break interval in minutes
+    private final int longBreak;      // duration of long break interval in minutes
+    private final int pomodoroRepeats;        // number of pomodoro repeats before long break
 
     // REQUIRES: pomodoro, shortBreak, longBreak, repeats >= 1
     //           and longBreak >= shortBreak
@@ -25,10 +29,10 @@ public class PomodoroTimerSettings implements Writable {
     //          short break duration (min), long break duration (min), and number of pomodoro repeats
     public PomodoroTimerSettings(int pomodoro, int shortBreak, int longBreak, int pomodoroRepeats)
             throws NonPositiveValueException {
-        setPomodoro(pomodoro);
-        setShortBreak(shortBreak);
-        setLongBreak(longBreak);
-        setPomodoroRepeats(pomodoroRepeats);
+        this.pomodoro = checkPositiveValue(pomodoro);
+        this.shortBreak = checkPositiveValue(shortBreak);
+        this.longBreak = checkPositiveValue(longBreak);
+        this.pomodoroRepeats = checkPositiveValue(pomodoroRepeats);
     }
 
     // EFFECTS: constructs pomodoro timer settings with default timer settings
@@ -39,6 +43,20 @@ public class PomodoroTimerSettings implements Writable {
         this.pomodoroRepeats = DEFAULT_REPEATS;
     }
 
+    // EFFECTS: returns the canonical pomodoro timer settings with given pomodoro duration (min), short break
+    //          duration (min), long break duration (min), and number of pomodoro repeats;
+    //          throws NonPositiveValueException if any of them is not positive
+    public static PomodoroTimerSettings of(int pomodoro, int shortBreak, int longBreak, int pomodoroRepeats)
+            throws NonPositiveValueException {
+        return intern(new PomodoroTimerSettings(pomodoro, shortBreak, longBreak, pomodoroRepeats));
+    }
+
+    // EFFECTS: returns the canonical pomodoro timer settings equal to settings
+    public static PomodoroTimerSettings intern(PomodoroTimerSettings settings) {
+        PomodoroTimerSettings canonical = POOL.putIfAbsent(settings, settings);
+        return canonical == null ? settings : canonical;
+    }
+
     public int getPomodoro() {
         return this.pomodoro;
     }
@@ -55,32 +73,28 @@ public class PomodoroTimerSettings implements Writable {
         return this.pomodoroRepeats;
     }
 
-    // MODIFIES: this
-    // EFFECTS: if given value is positive, sets pomodoro to it
-    public void setPomodoro(int minutes) throws NonPositiveValueException {
-        checkPositiveValue(minutes);
-        this.pomodoro = minutes;
+    // EFFECTS: returns the canonical settings equal to these but with given pomodoro duration;
+    //          throws NonPositiveValueException if minutes is not positive
+    public PomodoroTimerSettings withPomodoro(int minutes) throws NonPositiveValueException {
+        return of(minutes, shortBreak, longBreak, pomodoroRepeats);
     }
 
-    // MODIFIES: this
-    // EFFECTS: if given value is positive, sets shortBreak to it
-    public void setShortBreak(int minutes) throws NonPositiveValueException {
-        checkPositiveValue(minutes);
-        this.shortBreak = minutes;
+    // EFFECTS: returns the canonical settings equal to these but with given short break duration;
+    //          throws NonPositiveValueException if minutes is not positive
+    public PomodoroTimerSettings withShortBreak(int minutes) throws NonPositiveValueException {
+        return of(pomodoro, minutes, longBreak, pomodoroRepeats);
     }
 
-    // MODIFIES: this
-    // EFFECTS: if given value is positive, sets longBreak to it
-    public void setLongBreak(int minutes) throws NonPositiveValueException {
-        checkPositiveValue(minutes);
-        this.longBreak = minutes;
+    // EFFECTS: returns the canonical settings equal to these but with given long break duration;
+    //          throws NonPositiveValueException if minutes is not positive
+    public PomodoroTimerSettings withLongBreak(int minutes) throws NonPositiveValueException {
+        return of(pomodoro, shortBreak, minutes, pomodoroRepeats);
     }
 
-    // MODIFIES: this
-    // EFFECTS: if given value is positive, sets pomodoroRepeats to it
-    public void setPomodoroRepeats(int pomodoroRepeats) throws NonPositiveValueException {
-        checkPositiveValue(pomodoroRepeats);
-        this.pomodoroRepeats = pomodoroRepeats;
+    // EFFECTS: returns the canonical settings equal to these but with given number of pomodoro repeats;
+    //          throws NonPositiveValueException if pomodoroRepeats is not positive
+    public PomodoroTimerSettings withPomodoroRepeats(int pomodoroRepeats) throws NonPositiveValueException {
+        return of(pomodoro, shortBreak, longBreak, pomodoroRepeats);
     }
 
     @Override
@@ -92,12 +106,16 @@ public class PomodoroTimerSettings implements Writable {
             return false;
         }
         PomodoroTimerSettings settings = (PomodoroTimerSettings) o;
-        return this.toString().equals(settings.toString());
+        return pomodoro == settings.pomodoro && shortBreak == settings.shortBreak
+                && longBreak == settings.longBreak && pomodoroRepeats == settings.pomodoroRepeats;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(pomodoro, shortBreak, longBreak, pomodoroRepeats);
+        int result = pomodoro;
+        result = 31 * result + shortBreak;
+        result = 31 * result + longBreak;
+        return 31 * result + pomodoroRepeats;
     }
 
     // EFFECTS: returns timer settings in format: pomodoro: 25 min, short: 5m in, long: 25 min, pomodoro repeats: 4
@@ -118,10 +136,11 @@ public class PomodoroTimerSettings implements Writable {
         return json;
     }
 
-    // EFFECTS: if given value is non-positive, throws a NonPositiveValueException
-    private void checkPositiveValue(int value) throws NonPositiveValueException {
+    // EFFECTS: returns given value; if it is non-positive, throws a NonPositiveValueException
+    private static int checkPositiveValue(int value) throws NonPositiveValueException {
         if (value <= 0) {
             throw new NonPositiveValueException();
         }
+        return value;
     }
 }
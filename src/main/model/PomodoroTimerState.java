@@ -0,0 +1,48 @@
+package model;
+
+// Represents an immutable snapshot of a pomodoro timer's state at one moment (units in seconds),
+// so the interval and the time remaining in it are always read together
+public final class PomodoroTimerState {
+    private final String interval;
+    private final int timeRemaining;        // time remaining in interval
+    private final int repeatsRemaining;     // pomodoro intervals remaining until long break
+    private final int totalPomodoroIntervals;
+    private final long intervalNumber;      // number of intervals started before interval
+    private final boolean running;
+
+    // EFFECTS: constructs snapshot of timer in given interval with given time remaining, repeats remaining,
+    //          total pomodoro intervals completed, number of intervals started before, and whether it is running
+    PomodoroTimerState(String interval, int timeRemaining, int repeatsRemaining, int totalPomodoroIntervals,
+                       long intervalNumber, boolean running) {
+        this.interval = interval;
+        this.timeRemaining = timeRemaining;
+        this.repeatsRemaining = repeatsRemaining;
+        this.totalPomodoroIntervals = totalPomodoroIntervals;
+        this.intervalNumber = intervalNumber;
+        this.running = running;
+    }
+
+    public String getInterval() {
+        return interval;
+    }
+
+    public int getTimeRemaining() {
+        return timeRemaining;
+    }
+
+    public int getRepeatsRemaining() {
+        return repeatsRemaining;
+    }
+
+    public int getTotalPomodoroIntervals() {
+        return totalPomodoroIntervals;
+    }
+
+    public long getIntervalNumber() {
+        return intervalNumber;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+}
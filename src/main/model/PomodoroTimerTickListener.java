@@ -0,0 +1,9 @@
+package model;
+
+// Represents a listener that is notified each time a running pomodoro timer it listens to reaches a whole second.
+// A timer with no tick listeners and no timer task only wakes up when an interval ends.
+public interface PomodoroTimerTickListener {
+
+    // EFFECTS: reacts to timer reaching a whole second, on the thread that ticks the timer
+    void onTick(PomodoroTimer timer);
+}
@@ -6,6 +6,8 @@ import persistence.Writable;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 // Represents a study session entry with session details, date, start time, and end time
 public class Session implements Writable {
@@ -13,6 +15,9 @@ public class Session implements Writable {
     private LocalDateTime start;
     private LocalDateTime end;
     private Activity activity;
+    private DetailsSource detailsSource;    // source details are fetched from, or null if details are held here
+    private long detailsRef;
+    private List<SessionObserver> observers;   // null until first observer is added
 
     // REQUIRES: details is non-empty string, and end is later than start
     // EFFECTS: constructs study session with given details, start and end, and given activity
@@ -27,8 +32,9 @@ public class Session implements Writable {
         this.activity = activity;
     }
 
+    // EFFECTS: returns details, fetching them from the details source if they are not held by this session
     public String getDetails() {
-        return this.details;
+        return detailsSource == null ? this.details : detailsSource.fetchDetails(detailsRef);
     }
 
     public LocalDateTime getStart() {
@@ -39,25 +45,88 @@ public class Session implements Writable {
         return this.end;
     }
 
+    public Activity getActivity() {
+        return this.activity;
+    }
+
     // EFFECTS: returns activity title if activity is not null, else ""
     public String getActivityName() {
         return activity == null ? "" : this.activity.getName();
     }
 
+    // MODIFIES: this
+    // EFFECTS: sets details to given details, held by this session from now on, and notifies observers of the change
     public void setDetails(String details) {
         this.details = details;
+        this.detailsSource = null;
+        if (observers != null) {
+            for (SessionObserver o : new ArrayList<>(observers)) {
+                o.detailsChanged(this);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: drops the details held by this session; from now on they are fetched from source under given
+    //          reference each time they are needed, until details are set again
+    public void setDetailsSource(DetailsSource source, long ref) {
+        this.details = null;
+        this.detailsSource = source;
+        this.detailsRef = ref;
     }
 
+    // MODIFIES: this
+    // EFFECTS: sets start to given start and notifies observers of the change
     public void setStart(LocalDateTime start) {
+        LocalDateTime previous = this.start;
         this.start = start;
+        notifyIntervalChanged(previous, this.end);
     }
 
+    // MODIFIES: this
+    // EFFECTS: sets end to given end and notifies observers of the change
     public void setEnd(LocalDateTime end) {
+        LocalDateTime previous = this.end;
         this.end = end;
+        notifyIntervalChanged(this.start, previous);
     }
 
+    // MODIFIES: this
+    // EFFECTS: sets activity to given activity and notifies observers of the change
     public void setActivity(Activity activity) {
+        Activity previous = this.activity;
         this.activity = activity;
+        if (observers != null) {
+            for (SessionObserver o : new ArrayList<>(observers)) {
+                o.activityChanged(this, previous);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds given observer to be notified of changes to this session
+    void addObserver(SessionObserver o) {
+        if (observers == null) {
+            observers = new ArrayList<>(1);
+        }
+        observers.add(o);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes given observer so it is no longer notified of changes to this session
+    void removeObserver(SessionObserver o) {
+        if (observers != null) {
+            observers.remove(o);
+        }
+    }
+
+    // EFFECTS: notifies observers that interval changed from [previousStart, previousEnd]
+    private void notifyIntervalChanged(LocalDateTime previousStart, LocalDateTime previousEnd) {
+        if (observers != null) {
+            for (SessionObserver o : new ArrayList<>(observers)) {
+                o.intervalChanged(this, previousStart, previousEnd);
+            }
+        }
     }
 
     // EFFECTS: returns duration of session in minutes
@@ -69,6 +138,7 @@ public class Session implements Writable {
     @Override
     public JSONObject toJson() {
         JSONObject json = new JSONObject();
+        json.put("type", "session");
         json.put("details", getDetails());
         json.put("start", getStart().toString());
         json.put("end", getEnd().toString());
@@ -0,0 +1,237 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// References:
+//  augmented interval tree: Cormen et al., Introduction to Algorithms, section 14.3
+//  AVL rotations: https://en.wikipedia.org/wiki/AVL_tree
+
+// Represents an interval tree over the [start, end] of sessions, balanced as an AVL tree ordered by start then end.
+// Each node holds all sessions with the same start and end, and the latest end in its subtree, so overlap queries
+// skip subtrees that end before the query interval begins.
+// Two intervals overlap if each starts before the other ends; intervals that only touch do not overlap.
+public class SessionIntervalTree {
+    private Node root;
+    private int size;
+
+    // EFFECTS: constructs empty interval tree
+    public SessionIntervalTree() {
+        root = null;
+        size = 0;
+    }
+
+    // EFFECTS: returns number of sessions in this tree
+    public int size() {
+        return size;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds s to this tree under its current start and end
+    public void add(Session s) {
+        root = insert(root, s.getStart(), s.getEnd(), s);
+        size++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes s from this tree, where s was added with given start and end;
+    //          returns true if s was found and removed
+    public boolean remove(Session s, LocalDateTime start, LocalDateTime end) {
+        int before = size;
+        root = delete(root, start, end, s);
+        return size < before;
+    }
+
+    // EFFECTS: returns true if any session in this tree overlaps [start, end]
+    public boolean hasOverlap(LocalDateTime start, LocalDateTime end) {
+        Node node = root;
+        while (node != null) {
+            if (overlaps(node, start, end)) {
+                return true;
+            }
+            if (node.left != null && node.left.maxEnd.isAfter(start)) {
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return false;
+    }
+
+    // EFFECTS: returns sessions in this tree that overlap [start, end], in order of start then end
+    public List<Session> findOverlapping(LocalDateTime start, LocalDateTime end) {
+        List<Session> found = new ArrayList<>();
+        collectOverlapping(root, start, end, found);
+        return found;
+    }
+
+    // MODIFIES: found
+    // EFFECTS: adds sessions in subtree at node that overlap [start, end] to found
+    private void collectOverlapping(Node node, LocalDateTime start, LocalDateTime end, List<Session> found) {
+        if (node == null || !node.maxEnd.isAfter(start)) {
+            return;
+        }
+        collectOverlapping(node.left, start, end, found);
+        if (node.start.isBefore(end)) {
+            if (overlaps(node, start, end)) {
+                found.addAll(node.sessions);
+            }
+            collectOverlapping(node.right, start, end, found);
+        }
+    }
+
+    // EFFECTS: returns true if interval of node overlaps [start, end]
+    private boolean overlaps(Node node, LocalDateTime start, LocalDateTime end) {
+        return node.start.isBefore(end) && start.isBefore(node.end);
+    }
+
+    // EFFECTS: returns negative, zero or positive if [start, end] orders before, same as, or after node
+    private int compare(LocalDateTime start, LocalDateTime end, Node node) {
+        int byStart = start.compareTo(node.start);
+        return byStart != 0 ? byStart : end.compareTo(node.end);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: inserts s with interval [start, end] into subtree at node and returns the rebalanced subtree
+    private Node insert(Node node, LocalDateTime start, LocalDateTime end, Session s) {
+        if (node == null) {
+            return new Node(start, end, s);
+        }
+        int cmp = compare(start, end, node);
+        if (cmp == 0) {
+            node.sessions.add(s);
+            return node;
+        } else if (cmp < 0) {
+            node.left = insert(node.left, start, end, s);
+        } else {
+            node.right = insert(node.right, start, end, s);
+        }
+        return rebalance(node);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes s with interval [start, end] from subtree at node and returns the rebalanced subtree
+    private Node delete(Node node, LocalDateTime start, LocalDateTime end, Session s) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, end, node);
+        if (cmp < 0) {
+            node.left = delete(node.left, start, end, s);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, start, end, s);
+        } else {
+            if (!node.sessions.remove(s)) {
+                return node;
+            }
+            size--;
+            if (!node.sessions.isEmpty()) {
+                return node;
+            }
+            if (node.left == null || node.right == null) {
+                return node.left == null ? node.right : node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            node.right = removeMin(node.right);
+            successor.left = node.left;
+            successor.right = node.right;
+            return rebalance(successor);
+        }
+        return rebalance(node);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: detaches the leftmost node of subtree at node and returns the rebalanced remaining subtree
+    private Node removeMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return rebalance(node);
+    }
+
+    // MODIFIES: node
+    // EFFECTS: restores AVL balance at node, updates height and max end, and returns the new subtree root
+    private Node rebalance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    // MODIFIES: node
+    // EFFECTS: rotates subtree at node to the right and returns the new subtree root
+    private Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    // MODIFIES: node
+    // EFFECTS: rotates subtree at node to the left and returns the new subtree root
+    private Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    // MODIFIES: node
+    // EFFECTS: recomputes height and max end of node from its children
+    private void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(node.maxEnd)) {
+            node.maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(node.maxEnd)) {
+            node.maxEnd = node.right.maxEnd;
+        }
+    }
+
+    // EFFECTS: returns height of node, or 0 if node is null
+    private int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    // Represents a tree node holding the sessions that share one interval
+    private static class Node {
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final List<Session> sessions;
+        private LocalDateTime maxEnd;   // latest end of any interval in this subtree
+        private int height;
+        private Node left;
+        private Node right;
+
+        // EFFECTS: constructs leaf node for interval [start, end] holding session s
+        private Node(LocalDateTime start, LocalDateTime end, Session s) {
+            this.start = start;
+            this.end = end;
+            this.sessions = new ArrayList<>(1);
+            this.sessions.add(s);
+            this.maxEnd = end;
+            this.height = 1;
+        }
+    }
+}
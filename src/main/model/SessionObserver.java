@@ -0,0 +1,17 @@
+package model;
+
+import java.time.LocalDateTime;
+
+// Represents an observer that is notified when a session it observes is changed
+public interface SessionObserver {
+
+    // EFFECTS: reacts to session s having its details set
+    void detailsChanged(Session s);
+
+    // EFFECTS: reacts to session s changing its activity from previous to s.getActivity()
+    void activityChanged(Session s, Activity previous);
+
+    // EFFECTS: reacts to session s changing its interval from [previousStart, previousEnd]
+    //          to [s.getStart(), s.getEnd()]
+    void intervalChanged(Session s, LocalDateTime previousStart, LocalDateTime previousEnd);
+}
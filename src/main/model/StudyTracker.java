@@ -1,14 +1,21 @@
 package model;
 
 import model.exception.DuplicateActivityException;
+import model.exception.OverlappingSessionException;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import persistence.Writable;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
 // References:
 //  toJson method: https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo
@@ -16,53 +23,161 @@ import java.util.stream.Collectors;
 // Represents a study session tracker with activities to track and pomodoro timer settings
 public class StudyTracker implements Writable {
     private List<Activity> activities;
+    private Map<String, Activity> activityIndex;    // activities keyed by name
     private List<Session> sessions;
+    private Map<String, List<Session>> sessionsByActivity;  // sessions keyed by activity name ("" if no activity)
+    private Map<String, List<Session>> filteredViews;       // unmodifiable views of sessionsByActivity lists
+    private NavigableMap<LocalDateTime, List<Session>> sessionsByStart;   // sessions keyed by start datetime
+    private SessionIntervalTree sessionIntervals;
+    private boolean rejectOverlappingSessions;
+    private SessionObserver indexUpdater;
+    private List<StudyTrackerObserver> observers;   // null until first observer is added
     private PomodoroTimerSettings timerSettings;
 
     // EFFECTS: constructs study tracker with empty list of activities and sessions and default pomodoro timer settings
     public StudyTracker() {
         activities = new ArrayList<>();
+        activityIndex = new HashMap<>();
         sessions = new ArrayList<>();
-        timerSettings = new PomodoroTimerSettings();
+        sessionsByActivity = new HashMap<>();
+        filteredViews = new HashMap<>();
+        sessionsByStart = new TreeMap<>();
+        sessionIntervals = new SessionIntervalTree();
+        rejectOverlappingSessions = false;
+        indexUpdater = new SessionIndexUpdater();
+        timerSettings = PomodoroTimerSettings.intern(new PomodoroTimerSettings());
     }
 
     // MODIFIES: this
     // EFFECTS: adds given activity to list of activities,
     //          if activity with same name already exists, throws DuplicateActivityException
     public void addActivity(Activity a) throws DuplicateActivityException {
-        for (Activity next : activities) {
-            if (a.getName().equals(next.getName())) {
-                throw new DuplicateActivityException("Activity with name '" + a.getName() + "' already exists.");
-            }
+        if (activityIndex.containsKey(a.getName())) {
+            throw new DuplicateActivityException("Activity with name '" + a.getName() + "' already exists.");
         }
         EventLog.getInstance().logEvent(new Event("Activity added to study tracker"));
+        indexActivity(a);
+        if (observers != null) {
+            for (StudyTrackerObserver o : new ArrayList<>(observers)) {
+                o.activityAdded(a);
+            }
+        }
+    }
+
+    // REQUIRES: no activity with the same name as a is in this study tracker
+    // MODIFIES: this
+    // EFFECTS: adds given activity to list of activities without logging an event or notifying observers,
+    //          for subclasses that load activities which were added before
+    protected void indexActivity(Activity a) {
         this.activities.add(a);
+        this.activityIndex.put(a.getName(), a);
+    }
+
+    // EFFECTS: returns activity with given name, or null if no such activity is in this study tracker
+    public Activity findActivity(String name) {
+        return activityIndex.get(name);
     }
 
     // MODIFIES: this
-    // EFFECTS: adds given session s to study tracker's list of sessions
-    public void addSession(Session s) {
+    // EFFECTS: adds given session s to study tracker's list of sessions,
+    //          if rejecting overlapping sessions and s overlaps an existing session,
+    //          throws OverlappingSessionException
+    public void addSession(Session s) throws OverlappingSessionException {
+        if (rejectOverlappingSessions && sessionIntervals.hasOverlap(s.getStart(), s.getEnd())) {
+            throw new OverlappingSessionException();
+        }
         String session = s instanceof PomodoroSession ? "Pomodoro session" : "Session";
         EventLog.getInstance().logEvent(new Event(session + " added to study tracker"));
         this.sessions.add(s);
+        indexSession(s, s.getActivityName());
+        indexStart(s, s.getStart());
+        sessionIntervals.add(s);
+        s.addObserver(indexUpdater);
+        notifySessionAdded(s);
     }
 
     // MODIFIES: this
     // EFFECTS: removes given session s from study tracker's list of sessions
     public void removeSession(Session s) {
         EventLog.getInstance().logEvent(new Event("Session removed from study tracker"));
-        this.sessions.remove(s);
+        int index = this.sessions.indexOf(s);
+        if (index >= 0) {
+            this.sessions.remove(index);
+            unindexSession(s, s.getActivityName());
+            unindexStart(s, s.getStart());
+            sessionIntervals.remove(s, s.getStart(), s.getEnd());
+            s.removeObserver(indexUpdater);
+            notifySessionRemoved(s, index);
+        }
     }
 
-    // EFFECTS: returns unmodifiable list of sessions filtered by given activity
+    // EFFECTS: returns unmodifiable live view of sessions filtered by given activity,
+    //          in the order they were assigned to the activity
     public List<Session> filterSessionsByActivity(Activity activity) {
-        EventLog.getInstance().logEvent(new Event("Viewed sessions filtered by activity"));
-        List<Session> filtered = sessions
+        EventLog.getInstance().logReadEvent("Viewed sessions filtered by activity");
+        List<Session> filtered = filteredViews.get(activity == null ? "" : activity.getName());
+        return filtered == null ? Collections.emptyList() : filtered;
+    }
+
+    // REQUIRES: from is not after to
+    // EFFECTS: returns unmodifiable list of sessions starting at or after from and before to,
+    //          in chronological order of start
+    public List<Session> getSessionsBetween(LocalDateTime from, LocalDateTime to) {
+        EventLog.getInstance().logReadEvent("Viewed sessions in a date range");
+        return Collections.unmodifiableList(flatten(sessionsByStart.subMap(from, true, to, false).values()));
+    }
+
+    // EFFECTS: returns unmodifiable list of sessions starting on given date, in chronological order of start
+    public List<Session> getSessionsOn(LocalDate date) {
+        return getSessionsBetween(date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+    }
+
+    // EFFECTS: returns sessions in reverse chronological order of start; sessions are visited lazily,
+    //          so stopping after the k most recent sessions does not visit the rest
+    public Iterable<Session> getSessionsNewestFirst() {
+        EventLog.getInstance().logReadEvent("Viewed sessions newest first");
+        return () -> sessionsByStart.descendingMap()
+                .values()
                 .stream()
-                .filter(s -> s.getActivityName().equals(activity == null ? "" : activity.getName()))
-                .collect(Collectors.toList());
+                .flatMap(List::stream)
+                .iterator();
+    }
+
+    // EFFECTS: returns sessions in this study tracker, other than s itself, whose interval overlaps the interval of s
+    public List<Session> findOverlapping(Session s) {
+        List<Session> overlapping = sessionIntervals.findOverlapping(s.getStart(), s.getEnd());
+        overlapping.remove(s);
+        return overlapping;
+    }
+
+    // EFFECTS: returns total duration in minutes of all sessions
+    public long getTotalMinutes() {
+        long total = 0;
+        for (Session s : sessions) {
+            total += s.getDuration();
+        }
+        return total;
+    }
+
+    // EFFECTS: returns total duration in minutes of sessions of given activity, or of sessions with no activity
+    //          if activity is null
+    public long getTotalMinutes(Activity activity) {
+        long total = 0;
+        for (Session s : filterSessionsByActivity(activity)) {
+            total += s.getDuration();
+        }
+        return total;
+    }
 
-        return Collections.unmodifiableList(filtered);
+    public boolean isRejectingOverlappingSessions() {
+        return rejectOverlappingSessions;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: if reject is true, addSession rejects sessions that overlap existing sessions from now on,
+    //          otherwise overlapping sessions are allowed; sessions already added are not checked
+    public void setRejectOverlappingSessions(boolean reject) {
+        this.rejectOverlappingSessions = reject;
     }
 
     // EFFECTS: returns unmodifiable list of activities
@@ -72,7 +187,13 @@ public class StudyTracker implements Writable {
 
     // EFFECTS: returns unmodifiable list of sessions
     public List<Session> getSessions() {
-        EventLog.getInstance().logEvent(new Event("Viewed all sessions"));
+        EventLog.getInstance().logReadEvent("Viewed all sessions");
+        return getSessionsWithoutLogging();
+    }
+
+    // EFFECTS: returns unmodifiable list of sessions without logging a read event;
+    //          for internal reads such as saving, which are not user views of the sessions
+    public List<Session> getSessionsWithoutLogging() {
         return Collections.unmodifiableList(sessions);
     }
 
@@ -80,8 +201,142 @@ public class StudyTracker implements Writable {
         return this.timerSettings;
     }
 
+    // MODIFIES: this
+    // EFFECTS: sets timer settings to given settings and notifies observers of the change
     public void setTimerSettings(PomodoroTimerSettings settings) {
         this.timerSettings = settings;
+        if (observers != null) {
+            for (StudyTrackerObserver o : new ArrayList<>(observers)) {
+                o.timerSettingsChanged(settings);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds given observer to be notified of activities and sessions added, sessions removed or changed,
+    //          and timer settings set from now on
+    public void addObserver(StudyTrackerObserver o) {
+        if (observers == null) {
+            observers = new ArrayList<>(1);
+        }
+        observers.add(o);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes given observer so it is no longer notified of changes to this study tracker
+    public void removeObserver(StudyTrackerObserver o) {
+        if (observers != null) {
+            observers.remove(o);
+        }
+    }
+
+    // EFFECTS: notifies observers that s was added
+    protected void notifySessionAdded(Session s) {
+        if (observers != null) {
+            for (StudyTrackerObserver o : new ArrayList<>(observers)) {
+                o.sessionAdded(s);
+            }
+        }
+    }
+
+    // EFFECTS: notifies observers that s was removed from given index of the list of sessions
+    protected void notifySessionRemoved(Session s, int index) {
+        if (observers != null) {
+            for (StudyTrackerObserver o : new ArrayList<>(observers)) {
+                o.sessionRemoved(s, index);
+            }
+        }
+    }
+
+    // EFFECTS: notifies observers that s, which is in the list of sessions, was changed
+    protected void notifySessionChanged(Session s) {
+        if (observers != null) {
+            int index = sessions.indexOf(s);
+            for (StudyTrackerObserver o : new ArrayList<>(observers)) {
+                o.sessionChanged(s, index);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds s to the list of sessions indexed under given activity name
+    private void indexSession(Session s, String activityName) {
+        List<Session> indexed = sessionsByActivity.get(activityName);
+        if (indexed == null) {
+            indexed = new ArrayList<>();
+            sessionsByActivity.put(activityName, indexed);
+            filteredViews.put(activityName, Collections.unmodifiableList(indexed));
+        }
+        indexed.add(s);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes s from the list of sessions indexed under given activity name
+    private void unindexSession(Session s, String activityName) {
+        List<Session> indexed = sessionsByActivity.get(activityName);
+        if (indexed != null) {
+            indexed.remove(s);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds s to the list of sessions indexed under given start
+    private void indexStart(Session s, LocalDateTime start) {
+        sessionsByStart.computeIfAbsent(start, k -> new ArrayList<>(1)).add(s);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes s from the list of sessions indexed under given start,
+    //          and drops the entry for start if no sessions are left under it
+    private void unindexStart(Session s, LocalDateTime start) {
+        List<Session> indexed = sessionsByStart.get(start);
+        if (indexed != null && indexed.remove(s) && indexed.isEmpty()) {
+            sessionsByStart.remove(start);
+        }
+    }
+
+    // EFFECTS: returns all sessions in given lists, in order, as a single list
+    private List<Session> flatten(Collection<List<Session>> lists) {
+        List<Session> flattened = new ArrayList<>();
+        for (List<Session> next : lists) {
+            flattened.addAll(next);
+        }
+        return flattened;
+    }
+
+    // Represents an observer that keeps the session indexes up to date when a session changes,
+    // and passes the change on to the study tracker's observers
+    private class SessionIndexUpdater implements SessionObserver {
+
+        // EFFECTS: notifies observers that s was changed
+        @Override
+        public void detailsChanged(Session s) {
+            notifySessionChanged(s);
+        }
+
+        // MODIFIES: StudyTracker.this
+        // EFFECTS: moves s from the index of its previous activity to the index of its current activity
+        //          and notifies observers that s was changed
+        @Override
+        public void activityChanged(Session s, Activity previous) {
+            unindexSession(s, previous == null ? "" : previous.getName());
+            indexSession(s, s.getActivityName());
+            notifySessionChanged(s);
+        }
+
+        // MODIFIES: StudyTracker.this
+        // EFFECTS: moves s from the indexes of its previous interval to the indexes of its current interval
+        //          and notifies observers that s was changed
+        @Override
+        public void intervalChanged(Session s, LocalDateTime previousStart, LocalDateTime previousEnd) {
+            if (!previousStart.equals(s.getStart())) {
+                unindexStart(s, previousStart);
+                indexStart(s, s.getStart());
+            }
+            sessionIntervals.remove(s, previousStart, previousEnd);
+            sessionIntervals.add(s);
+            notifySessionChanged(s);
+        }
     }
 
     // referenced toJson and thingiesToJson method in WorkRoom class for the following two methods
@@ -107,7 +362,7 @@ public class StudyTracker implements Writable {
     // EFFECTS: returns sessions of this activity as a JSON array
     private JSONArray sessionsToJson() {
         JSONArray jsonArray = new JSONArray();
-        for (Session s : getSessions()) {
+        for (Session s : getSessionsWithoutLogging()) {
             jsonArray.put(s.toJson());
         }
         return jsonArray;
@@ -0,0 +1,21 @@
+package model;
+
+// Represents an observer that is notified after a study tracker it observes is changed
+public interface StudyTrackerObserver {
+
+    // EFFECTS: reacts to activity a being added to the study tracker
+    void activityAdded(Activity a);
+
+    // EFFECTS: reacts to session s being added to the end of the study tracker's sessions
+    void sessionAdded(Session s);
+
+    // EFFECTS: reacts to session s being removed from given index of the study tracker's sessions
+    void sessionRemoved(Session s, int index);
+
+    // EFFECTS: reacts to the details, interval or activity of session s, at given index of the study tracker's
+    //          sessions, being changed
+    void sessionChanged(Session s, int index);
+
+    // EFFECTS: reacts to the study tracker's timer settings being set to given settings
+    void timerSettingsChanged(PomodoroTimerSettings settings);
+}
@@ -0,0 +1,25 @@
+package model;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Represents a pomodoro clock that tells real time with System.nanoTime and runs tasks on a scheduler's threads
+public class SystemPomodoroClock implements PomodoroClock {
+    private final ScheduledExecutorService scheduler;
+
+    // EFFECTS: constructs clock that runs scheduled tasks on given scheduler
+    public SystemPomodoroClock(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public Future<?> schedule(Runnable task, long delayNanos) {
+        return scheduler.schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+    }
+}
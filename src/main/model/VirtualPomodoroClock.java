@@ -0,0 +1,107 @@
+package model;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// Represents a pomodoro clock whose time only moves when it is advanced. Scheduled tasks run on the thread that
+// advances the clock, in order of when they are due (then of when they were scheduled), with the clock set to the
+// time each one is due, so timers run on it move through hours of intervals instantly and always the same way.
+// Tasks run directly rather than through their future, so what a task throws, such as a failed assertion in a test,
+// is thrown by advance.
+public class VirtualPomodoroClock implements PomodoroClock {
+    private final PriorityQueue<Scheduled> queue;
+    private long now;
+    private long scheduledCount;    // number of tasks ever scheduled, used to order tasks due at the same time
+
+    // EFFECTS: constructs clock at time 0 with no tasks scheduled
+    public VirtualPomodoroClock() {
+        queue = new PriorityQueue<>();
+        now = 0;
+        scheduledCount = 0;
+    }
+
+    @Override
+    public synchronized long nanoTime() {
+        return now;
+    }
+
+    @Override
+    public synchronized Future<?> schedule(Runnable task, long delayNanos) {
+        Scheduled scheduled = new Scheduled(now + Math.max(0, delayNanos), scheduledCount++, task);
+        queue.add(scheduled);
+        return scheduled.future;
+    }
+
+    // REQUIRES: amount >= 0
+    // MODIFIES: this
+    // EFFECTS: moves time forward by given amount, running each task that falls due on the way, including tasks they
+    //          schedule, at the time it is due; tasks that were cancelled are dropped.
+    //          Returns the number of tasks run. If a task throws, throws what it threw, with time left at when the
+    //          task was due and the tasks due after it still scheduled
+    public int advance(long amount, TimeUnit unit) {
+        long target = nanoTime() + unit.toNanos(amount);
+        int run = 0;
+        Scheduled next = nextDue(target);
+        while (next != null) {
+            try {
+                next.task.run();
+            } finally {
+                next.future.complete(null);
+            }
+            run++;
+            next = nextDue(target);
+        }
+        synchronized (this) {
+            now = target;
+        }
+        return run;
+    }
+
+    // EFFECTS: returns number of scheduled tasks that have not run and were not cancelled
+    public synchronized int getPendingTasks() {
+        int pending = 0;
+        for (Scheduled scheduled : queue) {
+            if (!scheduled.future.isCancelled()) {
+                pending++;
+            }
+        }
+        return pending;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes and returns the earliest task due at or before given time that was not cancelled, setting the
+    //          time to when it is due; returns null if there is none
+    private synchronized Scheduled nextDue(long target) {
+        while (!queue.isEmpty() && queue.peek().due <= target) {
+            Scheduled scheduled = queue.poll();
+            if (!scheduled.future.isCancelled()) {
+                now = scheduled.due;
+                return scheduled;
+            }
+        }
+        return null;
+    }
+
+    // Represents a task scheduled to run at a given time, with the future that is completed once it has run
+    private static final class Scheduled implements Comparable<Scheduled> {
+        final long due;
+        final long sequence;
+        final Runnable task;
+        final CompletableFuture<Void> future;
+
+        Scheduled(long due, long sequence, Runnable task) {
+            this.due = due;
+            this.sequence = sequence;
+            this.task = task;
+            this.future = new CompletableFuture<>();
+        }
+
+        @Override
+        public int compareTo(Scheduled other) {
+            int byDue = Long.compare(due, other.due);
+            return byDue != 0 ? byDue : Long.compare(sequence, other.sequence);
+        }
+    }
+}
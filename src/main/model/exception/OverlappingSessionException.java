@@ -0,0 +1,9 @@
+package model.exception;
+
+public class OverlappingSessionException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public OverlappingSessionException() {
+        super("session overlaps with an existing session");
+    }
+}
@@ -0,0 +1,213 @@
+package persistence;
+
+import model.*;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+import static persistence.BinarySnapshotWriter.*;
+
+// Represents a reader that reads a study tracker from a binary snapshot file written by BinarySnapshotWriter.
+// The header and payload checksum are checked before anything is decoded. If the file is missing or corrupt,
+// the newest readable backup is read instead, as with JsonReader.
+public class BinarySnapshotReader implements StudyTrackerReader {
+    private String source;
+    private Supplier<StudyTracker> newTracker;  // makes the empty study tracker each read fills
+    private byte[] data;
+    private int pos;
+
+    // EFFECTS: constructs reader to read from source file
+    public BinarySnapshotReader(String source) {
+        this(source, StudyTracker::new);
+    }
+
+    // EFFECTS: constructs reader to read from source file into empty study trackers made by newTracker,
+    //          such as ColumnarStudyTracker::new
+    public BinarySnapshotReader(String source, Supplier<StudyTracker> newTracker) {
+        this.source = source;
+        this.newTracker = newTracker;
+    }
+
+    // EFFECTS: reads study tracker from source file and returns it; if source file is missing or corrupt, returns
+    //          study tracker from the newest backup that can be read. If no backup can be read either,
+    //          throws IOException if source file cannot be read or is not a valid snapshot
+    @Override
+    public StudyTracker read() throws IOException {
+        return JsonReader.readNewestGeneration(source, this::read);
+    }
+
+    // EFFECTS: reads study tracker from source file only and returns it, without falling back to its backups;
+    //          throws IOException if source file cannot be read or is not a valid snapshot
+    @Override
+    public StudyTracker readWithoutBackups() throws IOException {
+        return read(source);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads study tracker from given file and returns it
+    private StudyTracker read(String file) throws IOException {
+        data = Files.readAllBytes(Paths.get(file));
+        try {
+            checkHeader(file);
+            return decodeStudyTracker();
+        } finally {
+            data = null;
+        }
+    }
+
+    // EFFECTS: throws IOException unless data starts with a header of a supported version
+    //          whose payload length and checksum match the payload
+    private void checkHeader(String file) throws IOException {
+        if (data.length < HEADER_SIZE) {
+            throw new EOFException(file + " is too short to be a study tracker snapshot");
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data[i] != MAGIC[i]) {
+                throw new IOException(file + " is not a study tracker snapshot");
+            }
+        }
+        int version = getInt(4) >>> 16;
+        if (version > VERSION) {
+            throw new IOException(file + " has unsupported snapshot version " + version);
+        }
+        if (getInt(8) != data.length - HEADER_SIZE) {
+            throw new EOFException(file + " is truncated");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data, HEADER_SIZE, data.length - HEADER_SIZE);
+        if (getInt(12) != (int) crc.getValue()) {
+            throw new IOException(file + " failed its checksum");
+        }
+        pos = HEADER_SIZE;
+    }
+
+    // EFFECTS: decodes study tracker from the payload and returns it
+    private StudyTracker decodeStudyTracker() throws IOException {
+        StudyTracker st = newTracker.get();
+        PomodoroTimerSettings[] settings = new PomodoroTimerSettings[readCount()];
+        for (int i = 0; i < settings.length; i++) {
+            settings[i] = PomodoroTimerSettings.of(readInt(), readInt(), readInt(), readInt());
+        }
+        st.setTimerSettings(settings[readId(settings.length, "timer settings")]);
+        Activity[] activities = new Activity[readCount() + 1];
+        for (int i = 1; i < activities.length; i++) {
+            activities[i] = new Activity(readString());
+            st.addActivity(activities[i]);
+        }
+        int sessionCount = readCount();
+        long previousStart = 0;
+        for (int i = 0; i < sessionCount; i++) {
+            previousStart = decodeSession(st, previousStart, activities, settings);
+        }
+        return st;
+    }
+
+    // MODIFIES: this, st
+    // EFFECTS: decodes session whose start is a delta from previousStart, adds it to st
+    //          and returns its start in epoch minutes
+    private long decodeSession(StudyTracker st, long previousStart, Activity[] activities,
+                               PomodoroTimerSettings[] settings) throws IOException {
+        int flags = readByte();
+        long startMinute = previousStart + unzigzag(readVarint());
+        long endMinute = startMinute + unzigzag(readVarint());
+        long startRemainder = (flags & START_SUBMINUTE) != 0 ? readVarint() : 0;
+        long endRemainder = (flags & END_SUBMINUTE) != 0 ? readVarint() : 0;
+        Activity activity = activities[readId(activities.length, "activity")];
+        String details = readString();
+        LocalDateTime start = toDateTime(startMinute, startRemainder);
+        LocalDateTime end = toDateTime(endMinute, endRemainder);
+        if ((flags & POMODORO) != 0) {
+            PomodoroTimerSettings sessionSettings = settings[readId(settings.length, "timer settings")];
+            st.addSession(new PomodoroSession(details, start, end, sessionSettings, readInt(), activity));
+        } else {
+            st.addSession(new Session(details, start, end, activity));
+        }
+        return startMinute;
+    }
+
+    // EFFECTS: returns date time at given epoch minute plus given nanoseconds
+    private static LocalDateTime toDateTime(long epochMinute, long nanos) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60 + nanos / NANOS_PER_SECOND,
+                (int) (nanos % NANOS_PER_SECOND), ZoneOffset.UTC);
+    }
+
+    // EFFECTS: returns v zigzag decoded
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads a count of list elements; throws IOException if it cannot fit in the remaining payload
+    private int readCount() throws IOException {
+        int count = readInt();
+        if (count > data.length - pos) {
+            throw new EOFException(source + " is truncated");
+        }
+        return count;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads an id in a dictionary of given size; throws IOException if it is not in the dictionary
+    private int readId(int size, String dictionary) throws IOException {
+        int id = readInt();
+        if (id >= size) {
+            throw new IOException(source + " has an out of range " + dictionary + " id " + id);
+        }
+        return id;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads a varint that must fit in a non-negative int
+    private int readInt() throws IOException {
+        long v = readVarint();
+        if (v > Integer.MAX_VALUE) {
+            throw new IOException(source + " has an out of range value");
+        }
+        return (int) v;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads an unsigned LEB128 varint
+    private long readVarint() throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return v;
+            }
+        }
+        throw new IOException(source + " has a malformed varint");
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads a string written as its UTF-8 length followed by its UTF-8 bytes
+    private String readString() throws IOException {
+        int length = readCount();
+        String s = new String(data, pos, length, StandardCharsets.UTF_8);
+        pos += length;
+        return s;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads one unsigned byte
+    private int readByte() throws IOException {
+        if (pos >= data.length) {
+            throw new EOFException(source + " is truncated");
+        }
+        return data[pos++] & 0xFF;
+    }
+
+    // EFFECTS: returns big-endian int stored at given position
+    private int getInt(int at) {
+        return (data[at] & 0xFF) << 24 | (data[at + 1] & 0xFF) << 16
+                | (data[at + 2] & 0xFF) << 8 | (data[at + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,226 @@
+package persistence;
+
+import model.*;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// Represents a writer that writes a study tracker to file in a compact, versioned binary snapshot format.
+// The file starts with a 16 byte header: MAGIC, the format VERSION (2 bytes), 2 reserved bytes, and the length and
+// CRC32 checksum of the payload (4 bytes each), all big-endian. The payload holds, as unsigned LEB128 varints:
+//  - the distinct timer settings (pomodoro, short break, long break, repeats), then the id of the tracker's settings
+//  - the activity names
+//  - the sessions, each as a flags byte, the start as a zigzag delta in minutes from the previous session's start,
+//    the length in minutes as a zigzag varint, the seconds and nanoseconds of start and end if not whole minutes,
+//    the activity id (0 for none), the details, and for pomodoro sessions the settings id and pomodoro minutes
+// Counts precede lists, strings are written as their UTF-8 length followed by their bytes, and ids are list indexes.
+// Like JsonWriter, the file is written to <file>.tmp, forced to disk and atomically moved over the destination,
+// keeping backups of previous saves.
+public class BinarySnapshotWriter implements StudyTrackerWriter {
+    public static final String EXTENSION = ".bin";
+    static final byte[] MAGIC = {'S', 'T', 'R', 'K'};
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int POMODORO = 1;              // flag set for pomodoro sessions
+    static final int START_SUBMINUTE = 2;       // flag set if start is not a whole minute
+    static final int END_SUBMINUTE = 4;         // flag set if end is not a whole minute
+    static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private static final String TEMP_SUFFIX = ".tmp";
+    private String destination;
+    private int maxBackups;
+    private FileOutputStream tempOut;
+    private byte[] buffer;
+    private int size;
+
+    // EFFECTS: constructs writer to write to destination file, keeping JsonWriter.DEFAULT_MAX_BACKUPS previous saves
+    public BinarySnapshotWriter(String destination) {
+        this(destination, JsonWriter.DEFAULT_MAX_BACKUPS);
+    }
+
+    // REQUIRES: maxBackups >= 0
+    // EFFECTS: constructs writer to write to destination file, keeping maxBackups previous saves
+    public BinarySnapshotWriter(String destination, int maxBackups) {
+        this.destination = destination;
+        this.maxBackups = maxBackups;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens writer to a temporary file next to the destination file and starts an empty snapshot;
+    //          throws IOException if the temporary file cannot be created
+    @Override
+    public void open() throws IOException {
+        tempOut = new FileOutputStream(destination + TEMP_SUFFIX);
+        buffer = new byte[4096];
+        size = HEADER_SIZE;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: encodes study tracker into the snapshot
+    @Override
+    public void write(StudyTracker st) {
+        Map<PomodoroTimerSettings, Integer> settingsIds = new HashMap<>();
+        Map<String, Integer> activityIds = new HashMap<>();
+        List<PomodoroTimerSettings> settings = collectSettings(st, settingsIds);
+        writeVarint(settings.size());
+        for (PomodoroTimerSettings s : settings) {
+            writeVarint(s.getPomodoro());
+            writeVarint(s.getShortBreak());
+            writeVarint(s.getLongBreak());
+            writeVarint(s.getPomodoroRepeats());
+        }
+        writeVarint(settingsIds.get(st.getTimerSettings()));
+        writeVarint(st.getActivities().size());
+        for (Activity a : st.getActivities()) {
+            activityIds.put(a.getName(), activityIds.size() + 1);
+            writeString(a.getName());
+        }
+        writeVarint(st.getSessionsWithoutLogging().size());
+        long previousStart = 0;
+        for (Session s : st.getSessionsWithoutLogging()) {
+            previousStart = writeSession(s, previousStart, activityIds, settingsIds);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: fills in the header, writes the snapshot to a temporary file, forces it to disk and moves it over
+    //          the destination file, keeping backups; throws IOException if an error occurs writing to file
+    @Override
+    public void close() throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(buffer, HEADER_SIZE, size - HEADER_SIZE);
+        System.arraycopy(MAGIC, 0, buffer, 0, MAGIC.length);
+        putInt(4, VERSION << 16);
+        putInt(8, size - HEADER_SIZE);
+        putInt(12, (int) crc.getValue());
+
+        Path temp = Paths.get(destination + TEMP_SUFFIX);
+        try (FileOutputStream out = tempOut) {
+            out.write(buffer, 0, size);
+            out.getFD().sync();
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        } finally {
+            tempOut = null;
+            buffer = null;
+        }
+        JsonWriter.replace(temp, Paths.get(destination), maxBackups);
+    }
+
+    // MODIFIES: settingsIds
+    // EFFECTS: assigns ids to the distinct timer settings of st and its pomodoro sessions, in order of first use,
+    //          and returns the settings in id order; the tracker's own timer settings get id 0
+    static List<PomodoroTimerSettings> collectSettings(StudyTracker st,
+                                                       Map<PomodoroTimerSettings, Integer> settingsIds) {
+        List<PomodoroTimerSettings> settings = new ArrayList<>();
+        settingsIds.put(st.getTimerSettings(), 0);
+        settings.add(st.getTimerSettings());
+        for (Session s : st.getSessionsWithoutLogging()) {
+            if (s instanceof PomodoroSession) {
+                PomodoroTimerSettings next = ((PomodoroSession) s).getTimerSettings();
+                if (!settingsIds.containsKey(next)) {
+                    settingsIds.put(next, settings.size());
+                    settings.add(next);
+                }
+            }
+        }
+        return settings;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: encodes session s, whose start is a delta from previousStart, and returns its start in epoch minutes
+    private long writeSession(Session s, long previousStart, Map<String, Integer> activityIds,
+                              Map<PomodoroTimerSettings, Integer> settingsIds) {
+        long startSeconds = s.getStart().toEpochSecond(ZoneOffset.UTC);
+        long endSeconds = s.getEnd().toEpochSecond(ZoneOffset.UTC);
+        long startMinute = Math.floorDiv(startSeconds, 60);
+        long startRemainder = subMinuteNanos(startSeconds, s.getStart().getNano());
+        long endRemainder = subMinuteNanos(endSeconds, s.getEnd().getNano());
+        int flags = (s instanceof PomodoroSession ? POMODORO : 0)
+                | (startRemainder != 0 ? START_SUBMINUTE : 0)
+                | (endRemainder != 0 ? END_SUBMINUTE : 0);
+        ensureCapacity(1);
+        buffer[size++] = (byte) flags;
+        writeVarint(zigzag(startMinute - previousStart));
+        writeVarint(zigzag(Math.floorDiv(endSeconds, 60) - startMinute));
+        writeRemainder(startRemainder);
+        writeRemainder(endRemainder);
+        Integer activityId = activityIds.get(s.getActivityName());
+        writeVarint(activityId == null ? 0 : activityId);
+        writeString(s.getDetails());
+        if (s instanceof PomodoroSession) {
+            PomodoroSession ps = (PomodoroSession) s;
+            writeVarint(settingsIds.get(ps.getTimerSettings()));
+            writeVarint(ps.getPomodoroMinutes());
+        }
+        return startMinute;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends given nanoseconds past the whole minute, unless they are 0
+    private void writeRemainder(long nanos) {
+        if (nanos != 0) {
+            writeVarint(nanos);
+        }
+    }
+
+    // EFFECTS: returns nanoseconds past the whole minute of a time at given epoch seconds and nanoseconds
+    private static long subMinuteNanos(long epochSeconds, int nanos) {
+        return Math.floorMod(epochSeconds, 60) * NANOS_PER_SECOND + nanos;
+    }
+
+    // EFFECTS: returns v zigzag encoded, so values of small magnitude are small whatever their sign
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends v as an unsigned LEB128 varint
+    private void writeVarint(long v) {
+        ensureCapacity(10);
+        while ((v & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buffer[size++] = (byte) v;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends s as its UTF-8 length followed by its UTF-8 bytes
+    private void writeString(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stores v big-endian at given position of the buffer
+    private void putInt(int pos, int v) {
+        buffer[pos] = (byte) (v >>> 24);
+        buffer[pos + 1] = (byte) (v >>> 16);
+        buffer[pos + 2] = (byte) (v >>> 8);
+        buffer[pos + 3] = (byte) v;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: grows the buffer so at least n more bytes fit
+    private void ensureCapacity(int n) {
+        if (size + n > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + n));
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package persistence;
+
+import model.*;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Represents a writer that writes a study tracker to a read-only session archive that MappedStudyTracker maps
+// into memory. All numbers are big-endian. The file holds:
+//  - a HEADER_SIZE byte header: MAGIC, VERSION, the session, activity and timer settings counts, the id of the
+//    tracker's timer settings, and the offsets of the dictionary, the columns and the details text
+//  - the dictionary: each timer settings as 4 ints (pomodoro, short break, long break, repeats), then each activity
+//    name as an int UTF-8 length followed by its bytes
+//  - fixed-width columns with one entry per session, each column stored contiguously: start and end as long
+//    nanoseconds since the epoch, the end offset of the details text as a long, the sessions in order of start as
+//    int session indexes, the activity id as an int (0 for none, i + 1 for the i-th activity), and the pomodoro
+//    minutes and timer settings id as ints (-1 for sessions that are not pomodoro sessions)
+//  - the UTF-8 details text of all sessions, one after the other
+// The file is written to <file>.tmp, forced to disk and atomically moved over the destination, keeping no backups.
+public class ColumnarSessionWriter implements StudyTrackerWriter {
+    static final int MAGIC = 0x53545243;      // "STRC"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 48;
+
+    private static final String TEMP_SUFFIX = ".tmp";
+    private String destination;
+    private DataOutputStream out;
+    private FileOutputStream fileOut;
+
+    // EFFECTS: constructs writer to write to destination file
+    public ColumnarSessionWriter(String destination) {
+        this.destination = destination;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens writer to a temporary file next to the destination file;
+    //          throws IOException if it cannot be created
+    @Override
+    public void open() throws IOException {
+        fileOut = new FileOutputStream(destination + TEMP_SUFFIX);
+        out = new DataOutputStream(new BufferedOutputStream(fileOut, 64 * 1024));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the archive of study tracker to the temporary file; throws IOException if an error occurs
+    //          writing to file, or if a session starts or ends too far from the epoch to be stored
+    @Override
+    public void write(StudyTracker st) throws IOException {
+        List<Session> sessions = st.getSessionsWithoutLogging();
+        Map<PomodoroTimerSettings, Integer> settingsIds = new HashMap<>();
+        List<PomodoroTimerSettings> settings = BinarySnapshotWriter.collectSettings(st, settingsIds);
+        byte[] dictionary = encodeDictionary(st.getActivities(), settings);
+        long columnsOffset = HEADER_SIZE + dictionary.length;
+        columnsOffset += (8 - columnsOffset % 8) % 8;
+        long detailsOffset = columnsOffset + (long) sessions.size() * 40;
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(sessions.size());
+        out.writeInt(st.getActivities().size());
+        out.writeInt(settings.size());
+        out.writeInt(settingsIds.get(st.getTimerSettings()));
+        out.writeLong(HEADER_SIZE);
+        out.writeLong(columnsOffset);
+        out.writeLong(detailsOffset);
+        out.write(dictionary);
+        out.write(new byte[(int) (columnsOffset - HEADER_SIZE - dictionary.length)]);
+        writeColumns(st, sessions, settingsIds);
+        for (Session s : sessions) {
+            out.write(s.getDetails().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: forces the temporary file to disk and atomically moves it over the destination file
+    @Override
+    public void close() throws IOException {
+        Path temp = Paths.get(destination + TEMP_SUFFIX);
+        try {
+            out.flush();
+            fileOut.getFD().sync();
+            out.close();
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        JsonWriter.replace(temp, Paths.get(destination), 0);
+    }
+
+    // EFFECTS: returns the encoded timer settings followed by the encoded activity names
+    private byte[] encodeDictionary(List<Activity> activities, List<PomodoroTimerSettings> settings)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream dictionary = new DataOutputStream(bytes);
+        for (PomodoroTimerSettings s : settings) {
+            dictionary.writeInt(s.getPomodoro());
+            dictionary.writeInt(s.getShortBreak());
+            dictionary.writeInt(s.getLongBreak());
+            dictionary.writeInt(s.getPomodoroRepeats());
+        }
+        for (Activity a : activities) {
+            byte[] name = a.getName().getBytes(StandardCharsets.UTF_8);
+            dictionary.writeInt(name.length);
+            dictionary.write(name);
+        }
+        return bytes.toByteArray();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes each column of the sessions in turn
+    private void writeColumns(StudyTracker st, List<Session> sessions,
+                              Map<PomodoroTimerSettings, Integer> settingsIds) throws IOException {
+        long[] starts = new long[sessions.size()];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = toEpochNanos(sessions.get(i).getStart());
+            out.writeLong(starts[i]);
+        }
+        for (Session s : sessions) {
+            out.writeLong(toEpochNanos(s.getEnd()));
+        }
+        long detailsEnd = 0;
+        for (Session s : sessions) {
+            detailsEnd += utf8Length(s.getDetails());
+            out.writeLong(detailsEnd);
+        }
+        for (int i : sortByStart(starts)) {
+            out.writeInt(i);
+        }
+        writeActivityColumn(st, sessions);
+        for (Session s : sessions) {
+            out.writeInt(s instanceof PomodoroSession ? ((PomodoroSession) s).getPomodoroMinutes() : -1);
+        }
+        for (Session s : sessions) {
+            out.writeInt(s instanceof PomodoroSession ? settingsIds.get(((PomodoroSession) s).getTimerSettings()) : -1);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the activity id column; sessions whose activity is not in st get id 0
+    private void writeActivityColumn(StudyTracker st, List<Session> sessions) throws IOException {
+        Map<String, Integer> activityIds = new HashMap<>();
+        for (Activity a : st.getActivities()) {
+            activityIds.put(a.getName(), activityIds.size() + 1);
+        }
+        for (Session s : sessions) {
+            Integer id = activityIds.get(s.getActivityName());
+            out.writeInt(id == null ? 0 : id);
+        }
+    }
+
+    // EFFECTS: returns session indexes in order of start, keeping insertion order for equal starts
+    private static Integer[] sortByStart(long[] starts) {
+        Integer[] order = new Integer[starts.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> starts[i]));
+        return order;
+    }
+
+    // EFFECTS: returns given date time as nanoseconds since the epoch;
+    //          throws IOException if it is too far from the epoch to fit in a long
+    static long toEpochNanos(LocalDateTime t) throws IOException {
+        try {
+            return Math.addExact(Math.multiplyExact(t.toEpochSecond(ZoneOffset.UTC), 1_000_000_000L), t.getNano());
+        } catch (ArithmeticException e) {
+            throw new IOException(t + " cannot be stored in a session archive");
+        }
+    }
+
+    // EFFECTS: returns number of bytes in the UTF-8 encoding of s
+    private static int utf8Length(String s) {
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,259 @@
+package persistence;
+
+import model.Event;
+import model.EventSink;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Represents an event sink that appends events to a local log file, one line per event:
+//      <timestamp>\t<description>
+// Events are queued by the logging thread and written in batches by a background writer thread through a buffered
+// file channel. When the log file would grow past its maximum size, it is rotated to <file>.1, <file>.1 to <file>.2,
+// and so on, keeping at most maxBackups old files.
+public class EventLogFileSink implements EventSink {
+    public static final long DEFAULT_MAX_FILE_BYTES = 1024 * 1024;
+    public static final int DEFAULT_MAX_BACKUPS = 3;
+    public static final int DEFAULT_QUEUE_CAPACITY = 8192;
+    private static final int BATCH_SIZE = 512;
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final long POLL_MILLIS = 100;
+
+    private final Path file;
+    private final long maxFileBytes;
+    private final int maxBackups;
+    private final boolean blockWhenFull;
+    private final BlockingQueue<Event> queue;
+    private final AtomicLong dropped;
+    private final ByteBuffer buffer;
+    private FileChannel channel;
+    private long fileBytes;
+    private Thread writerThread;
+    private volatile boolean closed;
+    private volatile boolean writerDone;  // writer has stopped taking events from the queue
+    private volatile IOException failure;
+
+    // EFFECTS: constructs sink appending to given file with default size limit, backups and queue capacity,
+    //          that drops events when its queue is full
+    public EventLogFileSink(String file) {
+        this(file, DEFAULT_MAX_FILE_BYTES, DEFAULT_MAX_BACKUPS, DEFAULT_QUEUE_CAPACITY, false);
+    }
+
+    // REQUIRES: maxFileBytes > 0, maxBackups >= 0, queueCapacity >= 1
+    // EFFECTS: constructs sink appending to given file, rotating it when it would exceed maxFileBytes
+    //          and keeping maxBackups rotated files. Up to queueCapacity events wait to be written;
+    //          when the queue is full, accept blocks until there is space if blockWhenFull,
+    //          otherwise the event is dropped
+    public EventLogFileSink(String file, long maxFileBytes, int maxBackups, int queueCapacity,
+                            boolean blockWhenFull) {
+        this.file = Paths.get(file);
+        this.maxFileBytes = maxFileBytes;
+        this.maxBackups = maxBackups;
+        this.blockWhenFull = blockWhenFull;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.dropped = new AtomicLong(0);
+        this.buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        this.closed = false;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens log file for appending and starts the background writer thread,
+    //          throws IOException if file cannot be opened
+    public void open() throws IOException {
+        channel = openChannel();
+        fileBytes = channel.size();
+        writerThread = new Thread(this::writeLoop, "event-log-file-sink");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues e to be written; if queue is full, blocks or drops e depending on this sink's policy.
+    //          If the writer stopped while e was being queued, takes e back out and counts it as dropped
+    @Override
+    public void accept(Event e) {
+        if (closed) {
+            return;
+        }
+        if (blockWhenFull) {
+            try {
+                queue.put(e);
+            } catch (InterruptedException err) {
+                Thread.currentThread().interrupt();
+                dropped.incrementAndGet();
+                return;
+            }
+        } else if (!queue.offer(e)) {
+            dropped.incrementAndGet();
+            return;
+        }
+        if (writerDone && queue.remove(e)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops accepting events, waits for all queued events to be written and forced to disk,
+    //          then closes the log file; throws IOException if any event could not be written
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (writerThread != null) {
+            try {
+                writerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // EFFECTS: returns number of events dropped because the queue was full or writing failed
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes queued events in batches until closed and queue is drained, then forces and closes file.
+    //          However the writer stops, events it did not write are counted as dropped and the queue is emptied,
+    //          so producers blocked on a full queue are released
+    private void writeLoop() {
+        List<Event> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            while (!closed || !queue.isEmpty()) {
+                Event first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, BATCH_SIZE - 1);
+                    writeBatch(batch);
+                    batch.clear();
+                }
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            failure = e;
+        } catch (RuntimeException e) {
+            failure = new IOException("event log writer failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closed = true;
+            writerDone = true;
+            dropped.addAndGet(batch.size() + drainQueue());
+            closeChannel();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes all events from the queue and returns how many there were
+    private int drainQueue() {
+        int drained = 0;
+        while (queue.poll() != null) {
+            drained++;
+        }
+        return drained;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends one line per event in batch to the log file, rotating the file when needed
+    private void writeBatch(List<Event> batch) throws IOException {
+        for (Event e : batch) {
+            byte[] line = formatLine(e);
+            if (fileBytes + buffer.position() + line.length > maxFileBytes && fileBytes + buffer.position() > 0) {
+                flushBuffer();
+                rotate();
+            }
+            if (line.length > buffer.remaining()) {
+                flushBuffer();
+            }
+            if (line.length > buffer.capacity()) {
+                writeFully(ByteBuffer.wrap(line));
+            } else {
+                buffer.put(line);
+            }
+        }
+        flushBuffer();
+    }
+
+    // EFFECTS: returns given event as a UTF-8 encoded log line, with line breaks in its description escaped
+    private byte[] formatLine(Event e) {
+        String description = e.getDescription().replace("\r", "\\r").replace("\n", "\\n");
+        String line = e.getInstant() + "\t" + description + "\n";
+        return line.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes buffered bytes to the log file and empties the buffer
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes all remaining bytes of given buffer to the log file
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            fileBytes += channel.write(bytes);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the log file, shifts <file>.i to <file>.(i+1) for the kept backups,
+    //          moves the log file to <file>.1 and opens a new empty log file
+    private void rotate() throws IOException {
+        channel.force(false);
+        channel.close();
+        if (maxBackups == 0) {
+            Files.delete(file);
+        } else {
+            for (int i = maxBackups - 1; i >= 1; i--) {
+                Path backup = backupPath(i);
+                if (Files.exists(backup)) {
+                    Files.move(backup, backupPath(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(file, backupPath(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        channel = openChannel();
+        fileBytes = 0;
+    }
+
+    // EFFECTS: returns path of the i-th most recent rotated log file
+    private Path backupPath(int i) {
+        return file.resolveSibling(file.getFileName() + "." + i);
+    }
+
+    // EFFECTS: opens the log file for appending, creating it if needed
+    private FileChannel openChannel() throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the log file, keeping the first failure if closing fails
+    private void closeChannel() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package persistence;
+
+import model.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Represents a store that keeps a study tracker as a snapshot file plus a journal of the changes made since, so saving
+// costs as much as the changes made rather than the whole history. The snapshot format is chosen by file extension.
+// A tracker that was loaded from or saved to the store is attached to it: each of its changes is appended to
+// <file>.journal as it happens, and saving it again writes nothing. Once the journal holds enough records, it is moved
+// to <file>.journal.compacting and a background thread replays it on top of the snapshot into a new snapshot.
+// The new snapshot is written completely to <file>.compacted before the compacting journal is deleted and the
+// snapshot is replaced, so a crash at any point leaves files that load into the last state of the tracker.
+// Sessions loaded from a JSON snapshot fetch their details from the file while their tracker is attached; once
+// another tracker is loaded or saved, the file is closed and details not fetched by then can no longer be read.
+public class JournaledStore implements StudyTrackerObserver {
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 1000;
+
+    private final String snapshot;
+    private final SnapshotFormat format;
+    private final int compactionThreshold;
+    private final ExecutorService compactor;
+    private JsonReader lazyReader;          // reader the attached tracker fetches its details through, or null
+    private StudyTracker tracker;           // attached study tracker, or null
+    private StudyTrackerJournal journal;
+    private Future<?> compaction;           // latest compaction, or null if none was started
+
+    // EFFECTS: constructs store keeping study tracker in given snapshot file, compacting the journal in
+    //          the background once it holds DEFAULT_COMPACTION_THRESHOLD records
+    public JournaledStore(String snapshot) {
+        this(snapshot, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    // REQUIRES: compactionThreshold >= 1
+    // EFFECTS: constructs store keeping study tracker in given snapshot file, compacting the journal in
+    //          the background once it holds compactionThreshold records
+    public JournaledStore(String snapshot, int compactionThreshold) {
+        this.snapshot = snapshot;
+        this.format = SnapshotFormat.forFile(snapshot);
+        this.compactionThreshold = compactionThreshold;
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "journal-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads study tracker from the snapshot file, replays the journal on top of it, attaches it
+    //          and returns it; throws IOException if the snapshot file cannot be read or is corrupt, in which case
+    //          its backups are not read instead, or if the journal has a record, other than an incomplete last one,
+    //          that cannot be read or applied.
+    //          Details of sessions read from a JSON snapshot are fetched from the file when first needed, until
+    //          another study tracker is attached or this store is closed
+    public StudyTracker load() throws IOException {
+        awaitCompaction();
+        detach();
+        recover();
+        JsonReader reader = format == SnapshotFormat.JSON ? new JsonReader(snapshot, JsonReader.Mode.LAZY) : null;
+        StudyTracker st = readSnapshot(reader != null ? reader : format.newReader(snapshot));
+        boolean interrupted = Files.exists(compactingPath());
+        try {
+            if (interrupted) {
+                new StudyTrackerJournal(compactingPath().toString()).replay(st);
+            }
+            openJournal(st);
+        } catch (IOException | RuntimeException e) {
+            if (reader != null) {
+                reader.close();
+            }
+            throw e;
+        }
+        attach(st, reader);
+        if (interrupted) {
+            compaction = compactor.submit(this::compact);
+        }
+        return st;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: if st is attached and its journal is intact, does nothing since all of its changes are on disk;
+    //          otherwise, writes st as a new snapshot, starts an empty journal and attaches st.
+    //          throws IOException if an error occurs writing to file
+    public void save(StudyTracker st) throws IOException {
+        if (st == tracker && journal.getFailure() == null) {
+            return;
+        }
+        StudyTracker previous = tracker;
+        awaitCompaction();
+        detach();
+        if (Files.exists(compactingPath())) {
+            compact();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+        if (Files.exists(journalPath())) {
+            Files.move(journalPath(), compactingPath());
+        }
+        installSnapshot(st);
+        journal = new StudyTrackerJournal(journalPath().toString());
+        journal.open();
+        attach(st, st == previous ? lazyReader : null);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: waits for any compaction in progress, and closes the journal and the snapshot the attached study
+    //          tracker fetches details from; the attached study tracker is detached
+    public void close() throws IOException {
+        awaitCompaction();
+        detach();
+        compactor.shutdown();
+        if (journal != null) {
+            journal.close();
+        }
+        releaseDetails();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: waits for the compaction in progress, if any, to finish; a failed compaction is retried on the
+    //          next load or save
+    public void awaitCompaction() {
+        if (compaction == null) {
+            return;
+        }
+        try {
+            compaction.get();
+        } catch (ExecutionException e) {
+            // the compacting journal is kept, so no change is lost
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends record of activity a being added, and starts compaction if needed
+    @Override
+    public void activityAdded(Activity a) {
+        journal.activityAdded(a);
+        compactIfNeeded();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends record of session s being added, and starts compaction if needed
+    @Override
+    public void sessionAdded(Session s) {
+        journal.sessionAdded(s);
+        compactIfNeeded();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends record of session s being removed from given index, and starts compaction if needed
+    @Override
+    public void sessionRemoved(Session s, int index) {
+        journal.sessionRemoved(s, index);
+        compactIfNeeded();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends record of session s at given index being changed, and starts compaction if needed
+    @Override
+    public void sessionChanged(Session s, int index) {
+        journal.sessionChanged(s, index);
+        compactIfNeeded();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends record of timer settings being set, and starts compaction if needed
+    @Override
+    public void timerSettingsChanged(PomodoroTimerSettings settings) {
+        journal.timerSettingsChanged(settings);
+        compactIfNeeded();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: if the journal holds enough records and no compaction is in progress, moves the journal aside,
+    //          starts an empty journal and compacts the moved journal in the background
+    private void compactIfNeeded() {
+        if (journal.getRecordCount() < compactionThreshold || journal.getFailure() != null
+                || (compaction != null && !compaction.isDone()) || Files.exists(compactingPath())) {
+            return;
+        }
+        try {
+            journal.close();
+            Files.move(journalPath(), compactingPath());
+            journal = new StudyTrackerJournal(journalPath().toString());
+            journal.open();
+            compaction = compactor.submit(this::compact);
+        } catch (IOException e) {
+            // the next save writes a full snapshot since the journal is no longer appended to
+            journal = new StudyTrackerJournal(journalPath().toString());
+            journal.fail(e);
+        }
+    }
+
+    // MODIFIES: snapshot and journal files
+    // EFFECTS: replays the compacting journal on top of the snapshot and installs the result as the new snapshot
+    private Void compact() throws IOException {
+        StudyTracker st = readSnapshot(format.newReader(snapshot));
+        new StudyTrackerJournal(compactingPath().toString()).replay(st);
+        installSnapshot(st);
+        return null;
+    }
+
+    // EFFECTS: reads study tracker from the snapshot file with given reader and returns it. Backups of the snapshot
+    //          are never read instead, as the journals hold records, such as sessions removed by index, that only
+    //          apply to the snapshot they were written against. Throws IOException if the snapshot cannot be read
+    //          or is corrupt
+    private StudyTracker readSnapshot(StudyTrackerReader reader) throws IOException {
+        try {
+            return reader.readWithoutBackups();
+        } catch (RuntimeException e) {
+            throw new IOException(snapshot + " is corrupt", e);
+        }
+    }
+
+    // MODIFIES: snapshot and journal files
+    // EFFECTS: writes st to the compacted file, then deletes the compacting journal it replaces
+    //          and moves the compacted file over the snapshot
+    private void installSnapshot(StudyTracker st) throws IOException {
+        StudyTrackerWriter writer = format.newWriter(compactedPath().toString(), 0);
+        writer.open();
+        writer.write(st);
+        writer.close();
+        recover();
+    }
+
+    // MODIFIES: snapshot and journal files
+    // EFFECTS: if a compacted snapshot was completely written, deletes the compacting journal it replaces
+    //          and moves it over the snapshot, keeping backups of the snapshot
+    private void recover() throws IOException {
+        if (Files.exists(compactedPath())) {
+            Files.deleteIfExists(compactingPath());
+            JsonWriter.replace(compactedPath(), Paths.get(snapshot), JsonWriter.DEFAULT_MAX_BACKUPS);
+        }
+    }
+
+    // MODIFIES: this, st
+    // EFFECTS: replays the journal on top of st and opens it for appending
+    private void openJournal(StudyTracker st) throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+        journal = new StudyTrackerJournal(journalPath().toString());
+        journal.replay(st);
+        journal.open();
+    }
+
+    // MODIFIES: this, st
+    // EFFECTS: makes st the attached study tracker, whose changes are appended to the journal and which fetches its
+    //          details through given reader, if not null; closes the files the previously attached tracker fetched
+    //          its details from, unless st fetches its details through the same reader
+    private void attach(StudyTracker st, JsonReader reader) throws IOException {
+        if (reader != lazyReader) {
+            releaseDetails();
+        }
+        lazyReader = reader;
+        tracker = st;
+        st.addObserver(this);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the files the details of the attached study tracker are fetched from, if any
+    private void releaseDetails() throws IOException {
+        if (lazyReader != null) {
+            lazyReader.close();
+            lazyReader = null;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops appending changes of the attached study tracker, if any, to the journal
+    private void detach() {
+        if (tracker != null) {
+            tracker.removeObserver(this);
+            tracker = null;
+        }
+    }
+
+    private Path journalPath() {
+        return Paths.get(snapshot + ".journal");
+    }
+
+    private Path compactingPath() {
+        return Paths.get(snapshot + ".journal.compacting");
+    }
+
+    private Path compactedPath() {
+        return Paths.get(snapshot + ".compacted");
+    }
+}
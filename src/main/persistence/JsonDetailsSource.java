@@ -0,0 +1,92 @@
+package persistence;
+
+import model.DetailsSource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Represents a source of session details kept in a JSON file, where the reference of each details text is the
+// position in the file of its string token. The file stays open, so details can still be fetched after a save has
+// replaced the file with a new one. The most recently fetched details are kept in a small LRU cache.
+public class JsonDetailsSource implements DetailsSource, Closeable {
+    public static final int DEFAULT_CACHE_SIZE = 64;
+    private static final int BUFFER_BYTES = 512;
+
+    private final FileChannel file;
+    private final Map<Long, String> cache;
+
+    // REQUIRES: file is open for reading, cacheSize >= 0
+    // EFFECTS: constructs source reading details from given file, caching up to cacheSize of them
+    public JsonDetailsSource(FileChannel file, int cacheSize) {
+        this.file = file;
+        this.cache = new LinkedHashMap<Long, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    // EFFECTS: returns details whose string token starts at given position of the file, from the cache if they
+    //          were fetched recently; throws UncheckedIOException if they cannot be read
+    @Override
+    public synchronized String fetchDetails(long ref) {
+        String details = cache.get(ref);
+        if (details == null) {
+            try {
+                details = new JsonTokenizer(new PositionalChannel(ref), BUFFER_BYTES).nextString();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            cache.put(ref, details);
+        }
+        return details;
+    }
+
+    // EFFECTS: returns number of details in the cache
+    public synchronized int getCachedCount() {
+        return cache.size();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the file; details that are not cached can no longer be fetched
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    // Represents a read-only channel over the file starting at a given position. It reads with positional reads,
+    // so fetches do not disturb each other's position.
+    private class PositionalChannel implements ReadableByteChannel {
+        private long position;
+
+        PositionalChannel(long position) {
+            this.position = position;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            int n = file.read(dst, position);
+            if (n > 0) {
+                position += n;
+            }
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return file.isOpen();
+        }
+
+        @Override
+        public void close() {
+            // the file stays open for later fetches
+        }
+    }
+}
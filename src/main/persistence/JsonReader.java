@@ -2,32 +2,193 @@ package persistence;
 
 import model.*;
 import org.json.JSONArray;
-import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 // reference: JsonReader class in https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo
-// Represents a reader that reads a study tracker from JSON data stored in file
-public class JsonReader {
+// Represents a reader that reads a study tracker from JSON data stored in file.
+// In DOM mode the whole file is parsed into a JSONObject first; in STREAMING mode the file is tokenized
+// incrementally and activities and sessions are built as they are read, using constant extra memory. LAZY mode
+// reads like STREAMING mode but leaves session details in the file: sessions fetch them when first needed through
+// a JsonDetailsSource, which keeps the file open until this reader is closed. PARALLEL mode reads the file into
+// memory and tokenizes it once, parsing timer settings and activities but only skipping over sessions to find the
+// byte ranges of each run of SESSION_CHUNK sessions; the runs are then tokenized and parsed on the common fork-join
+// pool and their sessions added to the tracker in their original order. How much faster this is depends on the
+// number of cores, which JsonReaderTest.testReaderParallelBenchmark measures.
+// If the file is missing or corrupt, the newest readable backup kept by JsonWriter is read instead.
+public class JsonReader implements StudyTrackerReader, Closeable {
+    public enum Mode { DOM, STREAMING, LAZY, PARALLEL }
+
+    static final int SESSION_CHUNK = 512;
+
+    // Represents a function that reads a study tracker from a single file
+    interface GenerationReader {
+        StudyTracker read(String file) throws IOException;
+    }
+
     private String source;
+    private Mode mode;
+    private List<JsonDetailsSource> detailsSources;     // sources opened by reads in LAZY mode
+    private Supplier<StudyTracker> newTracker;          // makes the empty study tracker each read fills
 
-    // EFFECTS: constructs reader to read from source file
+    // EFFECTS: constructs reader to read from source file in DOM mode
     public JsonReader(String source) {
+        this(source, Mode.DOM);
+    }
+
+    // EFFECTS: constructs reader to read from source file in given mode
+    public JsonReader(String source, Mode mode) {
+        this(source, mode, StudyTracker::new);
+    }
+
+    // EFFECTS: constructs reader to read from source file in given mode into empty study trackers made by newTracker,
+    //          such as ColumnarStudyTracker::new
+    public JsonReader(String source, Mode mode, Supplier<StudyTracker> newTracker) {
         this.source = source;
+        this.mode = mode;
+        this.detailsSources = new ArrayList<>();
+        this.newTracker = newTracker;
+    }
+
+    public Mode getMode() {
+        return mode;
     }
 
+    // EFFECTS: reads study tracker from source file and returns it; if source file is missing or corrupt, returns
+    //          study tracker from the newest backup <source>.1, <source>.2, ... written by JsonWriter that can be read.
+    //          If no backup can be read either, throws IOException if an error occurs reading data from source file,
+    //          or JSONException if its data is not a valid study tracker
+    @Override
     public StudyTracker read() throws IOException {
+        return readNewestGeneration(source, this::read);
+    }
+
+    // EFFECTS: reads study tracker from source file only and returns it, without falling back to its backups;
+    //          throws IOException if an error occurs reading data from source file, or JSONException if its data is
+    //          not a valid study tracker
+    @Override
+    public StudyTracker readWithoutBackups() throws IOException {
+        return read(source);
+    }
+
+    // EFFECTS: reads study tracker from source file with given reader and returns it; if source file is missing or
+    //          corrupt, returns study tracker read from the newest backup that can be read.
+    //          If no backup can be read either, throws what reading source file threw
+    static StudyTracker readNewestGeneration(String source, GenerationReader reader) throws IOException {
+        try {
+            return reader.read(source);
+        } catch (IOException | RuntimeException e) {
+            Path file = Paths.get(source);
+            for (int i = 1; Files.exists(JsonWriter.backupPath(file, i)); i++) {
+                try {
+                    return reader.read(JsonWriter.backupPath(file, i).toString());
+                } catch (IOException | RuntimeException backupException) {
+                    // try the next older backup
+                }
+            }
+            throw e;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the files kept open for sessions read in LAZY mode to fetch their details from;
+    //          details that are not cached can no longer be fetched
+    @Override
+    public void close() throws IOException {
+        for (JsonDetailsSource details : detailsSources) {
+            details.close();
+        }
+        detailsSources.clear();
+    }
+
+    // EFFECTS: reads study tracker from given file and returns it
+    private StudyTracker read(String source) throws IOException {
+        if (mode == Mode.STREAMING) {
+            return readStreaming(source);
+        } else if (mode == Mode.LAZY) {
+            return readLazily(source);
+        } else if (mode == Mode.PARALLEL) {
+            return readParallel(source);
+        }
         String jsonData = readFile(source);
         JSONObject jsonObject = new JSONObject(jsonData);
         return parseStudyTracker(jsonObject);
     }
 
+    // EFFECTS: parses study tracker from source file token by token and returns it
+    private StudyTracker readStreaming(String source) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(source))) {
+            return new JsonStreamParser(new JsonTokenizer(channel), null, newTracker).parseStudyTracker();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: parses study tracker from source file token by token, skipping session details, and returns it;
+    //          the file is kept open for the sessions to fetch their details from
+    private StudyTracker readLazily(String source) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(source));
+        JsonDetailsSource details = new JsonDetailsSource(channel, JsonDetailsSource.DEFAULT_CACHE_SIZE);
+        try {
+            StudyTracker st = new JsonStreamParser(new JsonTokenizer(channel), details, newTracker).parseStudyTracker();
+            detailsSources.add(details);
+            return st;
+        } catch (IOException | RuntimeException e) {
+            details.close();
+            throw e;
+        }
+    }
+
+    // EFFECTS: reads source file into memory, parses its timer settings and activities and finds its runs of
+    //          sessions token by token, then parses the runs in parallel and adds their sessions in order
+    private StudyTracker readParallel(String source) throws IOException {
+        byte[] data = Files.readAllBytes(Paths.get(source));
+        JsonTokenizer tokenizer = new JsonTokenizer(Channels.newChannel(new ByteArrayInputStream(data)));
+        List<long[]> chunks = new ArrayList<>();
+        StudyTracker st = new JsonStreamParser(tokenizer, null, newTracker)
+                .parseStudyTrackerSkippingSessions(SESSION_CHUNK, chunks);
+        List<List<Session>> sessions = new ArrayList<>(Collections.nCopies(chunks.size(), null));
+        try {
+            ForkJoinPool.commonPool().invoke(new SessionParseTask(st, data, chunks, sessions, 0, chunks.size()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        for (List<Session> chunk : sessions) {
+            for (Session s : chunk) {
+                st.addSession(s);
+            }
+        }
+        return st;
+    }
+
+    // EFFECTS: returns tokenizer over the sessions in given range of data, enclosed in brackets so that
+    //          they read as one array
+    private static JsonTokenizer sessionArray(byte[] data, long[] range) {
+        int length = (int) (range[1] - range[0]);
+        byte[] array = new byte[length + 2];
+        array[0] = '[';
+        System.arraycopy(data, (int) range[0], array, 1, length);
+        array[length + 1] = ']';
+        return new JsonTokenizer(Channels.newChannel(new ByteArrayInputStream(array)));
+    }
+
     // EFFECTS: reads source file as string and returns it
     private String readFile(String source) throws IOException {
         StringBuilder contentBuilder = new StringBuilder();
@@ -41,7 +202,7 @@ public class JsonReader {
 
     // EFFECTS: parses study tracker from JSON object and returns it
     private StudyTracker parseStudyTracker(JSONObject jsonObject) {
-        StudyTracker st = new StudyTracker();
+        StudyTracker st = newTracker.get();
         setTimerSettings(st, jsonObject);
         addActivities(st, jsonObject);
         addSessions(st, jsonObject);
@@ -56,13 +217,13 @@ public class JsonReader {
     }
 
     // EFFECTS: parses pomodoro timer settings from JSON object and returns it
-    private PomodoroTimerSettings parseTimerSettings(JSONObject jsonObject) {
+    static PomodoroTimerSettings parseTimerSettings(JSONObject jsonObject) {
         JSONObject settingsObject = jsonObject.getJSONObject("timerSettings");
         int pomodoro = settingsObject.getInt("pomodoro");
         int shortBreak = settingsObject.getInt("shortBreak");
         int longBreak = settingsObject.getInt("longBreak");
         int pomodoroRepeats = settingsObject.getInt("pomodoroRepeats");
-        return new PomodoroTimerSettings(pomodoro, shortBreak, longBreak, pomodoroRepeats);
+        return PomodoroTimerSettings.of(pomodoro, shortBreak, longBreak, pomodoroRepeats);
     }
 
     // MODIFIES: st
@@ -77,7 +238,7 @@ public class JsonReader {
 
     // MODIFIES: st
     // EFFECTS: parses activity from JSON object and adds it to st
-    private void addActivity(StudyTracker st, JSONObject jsonObject) {
+    static void addActivity(StudyTracker st, JSONObject jsonObject) {
         String title = jsonObject.getString("name");
         Activity activity = new Activity(title);
         st.addActivity(activity);
@@ -95,23 +256,73 @@ public class JsonReader {
 
     // MODIFIES: ac
     // EFFECTS: parses session from JSON object and adds it to ac
-    private void addSession(StudyTracker st, JSONObject sessionOb) {
+    static void addSession(StudyTracker st, JSONObject sessionOb) {
+        st.addSession(parseSession(st, sessionOb));
+    }
+
+    // EFFECTS: parses session from JSON object and returns it, with the activity of st it refers to;
+    //          only reads st, so sessions of the same tracker can be parsed concurrently
+    static Session parseSession(StudyTracker st, JSONObject sessionOb) {
         String details = sessionOb.getString("details");
         LocalDateTime start = LocalDateTime.parse(sessionOb.getString("start"));
         LocalDateTime end = LocalDateTime.parse(sessionOb.getString("end"));
-        String activityName = sessionOb.getString("activity");
-        // https://stackoverflow.com/questions/22940416/fetch-first-element-of-stream-matching-the-criteria
-        Activity activity = st.getActivities()
-                        .stream()
-                        .filter(a -> a.getName().equals(activityName))
-                        .findFirst()
-                        .orElse(null);
-        try {
+        Activity activity = st.findActivity(sessionOb.getString("activity"));
+        if (isPomodoroSession(sessionOb)) {
             int pomodoroMinutes = sessionOb.getInt("pomodoroMinutes");
             PomodoroTimerSettings settings = parseTimerSettings(sessionOb);
-            st.addSession(new PomodoroSession(details, start, end, settings, pomodoroMinutes, activity));
-        } catch (JSONException e) {
-            st.addSession(new Session(details, start, end, activity));
+            return new PomodoroSession(details, start, end, settings, pomodoroMinutes, activity);
+        }
+        return new Session(details, start, end, activity);
+    }
+
+    // EFFECTS: returns true if session JSON object is a pomodoro session: by its type if it has one, otherwise,
+    //          for files written before sessions had a type, if it has both pomodoro minutes and timer settings
+    static boolean isPomodoroSession(JSONObject sessionOb) {
+        String type = sessionOb.optString("type", null);
+        if (type != null) {
+            return type.equals("pomodoro");
+        }
+        return sessionOb.has("pomodoroMinutes") && sessionOb.has("timerSettings");
+    }
+
+    // Represents a task that parses the runs of sessions at indexes [from, to) of chunks, which hold their start
+    // and end positions in data, into the same indexes of sessions, splitting ranges of more than one run in half
+    // and parsing the halves in parallel
+    private static class SessionParseTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final StudyTracker tracker;
+        private final byte[] data;
+        private final List<long[]> chunks;
+        private final List<List<Session>> sessions;
+        private final int from;
+        private final int to;
+
+        SessionParseTask(StudyTracker tracker, byte[] data, List<long[]> chunks, List<List<Session>> sessions,
+                         int from, int to) {
+            this.tracker = tracker;
+            this.data = data;
+            this.chunks = chunks;
+            this.sessions = sessions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                for (int i = from; i < to; i++) {
+                    try {
+                        sessions.set(i, new JsonStreamParser(sessionArray(data, chunks.get(i))).parseSessions(tracker));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SessionParseTask(tracker, data, chunks, sessions, from, mid),
+                    new SessionParseTask(tracker, data, chunks, sessions, mid, to));
         }
     }
 
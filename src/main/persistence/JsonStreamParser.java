@@ -0,0 +1,323 @@
+package persistence;
+
+import model.*;
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Represents a parser that builds a study tracker from a stream of JSON tokens, adding each activity and session
+// to the tracker as soon as it is read, so no JSON tree of the whole file is built.
+// Properties of the tracker object may appear in any order. If sessions appear before activities, sessions refer to
+// placeholder activities that are added to the tracker when the activities are read; sessions whose activity is
+// never declared end up with no activity, as with JsonReader in DOM mode.
+public class JsonStreamParser {
+    private final JsonTokenizer tokenizer;
+    private final DetailsSource detailsSource;      // source sessions fetch details from, or null to read them now
+    private long detailsRef;                        // reference of the details of the session being parsed
+    private final Supplier<StudyTracker> newTracker;    // makes the empty study tracker each parse fills
+    private StudyTracker tracker;
+    private boolean activitiesRead;
+    private Map<String, Activity> pendingActivities;    // activities referenced by sessions before being declared
+    private List<long[]> sessionChunks;     // runs of sessions skipped instead of parsed, or null to parse them
+    private int chunkSize;                  // maximum number of sessions in each run of sessionChunks
+
+    // EFFECTS: constructs parser reading tokens from given tokenizer
+    public JsonStreamParser(JsonTokenizer tokenizer) {
+        this(tokenizer, null);
+    }
+
+    // EFFECTS: constructs parser reading tokens from given tokenizer; if detailsSource is not null, session details
+    //          are skipped and sessions fetch them from detailsSource by the position of their string token
+    public JsonStreamParser(JsonTokenizer tokenizer, DetailsSource detailsSource) {
+        this(tokenizer, detailsSource, StudyTracker::new);
+    }
+
+    // EFFECTS: constructs parser like JsonStreamParser(tokenizer, detailsSource) that parses study trackers into
+    //          empty study trackers made by newTracker
+    public JsonStreamParser(JsonTokenizer tokenizer, DetailsSource detailsSource, Supplier<StudyTracker> newTracker) {
+        this.tokenizer = tokenizer;
+        this.detailsSource = detailsSource;
+        this.newTracker = newTracker;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: parses study tracker from tokens and returns it,
+    //          throws JSONException if tokens do not form a valid study tracker
+    public StudyTracker parseStudyTracker() throws IOException {
+        tracker = newTracker.get();
+        activitiesRead = false;
+        pendingActivities = new HashMap<>();
+        tokenizer.beginObject();
+        while (tokenizer.hasNext()) {
+            switch (tokenizer.nextName()) {
+                case "timerSettings":
+                    tracker.setTimerSettings(parseTimerSettings());
+                    break;
+                case "activities":
+                    addActivities();
+                    break;
+                case "sessions":
+                    addSessions();
+                    break;
+                default:
+                    tokenizer.skipValue();
+            }
+        }
+        tokenizer.endObject();
+        clearUndeclaredActivities();
+        return tracker;
+    }
+
+    // MODIFIES: this, chunks
+    // EFFECTS: parses study tracker from tokens like parseStudyTracker but leaves out its sessions, adding to chunks
+    //          the start and end positions, in bytes, of each run of up to chunkSize consecutive sessions instead;
+    //          the runs can then be parsed separately, and concurrently, with parseSessions
+    StudyTracker parseStudyTrackerSkippingSessions(int chunkSize, List<long[]> chunks) throws IOException {
+        this.chunkSize = chunkSize;
+        this.sessionChunks = chunks;
+        try {
+            return parseStudyTracker();
+        } finally {
+            this.sessionChunks = null;
+        }
+    }
+
+    // MODIFIES: this, st
+    // EFFECTS: parses an object whose "sessions" array holds sessions of activities already in st, as written by
+    //          JsonStreamWriter.writeSessions, and adds the sessions to st; other properties are skipped.
+    //          Throws JSONException if tokens do not form such an object
+    void parseSessionsInto(StudyTracker st) throws IOException {
+        tracker = st;
+        activitiesRead = true;
+        pendingActivities = new HashMap<>();
+        tokenizer.beginObject();
+        while (tokenizer.hasNext()) {
+            if (tokenizer.nextName().equals("sessions")) {
+                addSessions();
+            } else {
+                tokenizer.skipValue();
+            }
+        }
+        tokenizer.endObject();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: parses array of sessions of activities already in st and returns them without adding them to st;
+    //          only reads st, so parsers of separate arrays can parse sessions of the same tracker concurrently.
+    //          Throws JSONException if tokens do not form such an array
+    List<Session> parseSessions(StudyTracker st) throws IOException {
+        tracker = st;
+        activitiesRead = true;
+        List<Session> sessions = new ArrayList<>();
+        tokenizer.beginArray();
+        while (tokenizer.hasNext()) {
+            sessions.add(parseSession());
+        }
+        tokenizer.endArray();
+        return sessions;
+    }
+
+    // EFFECTS: parses pomodoro timer settings object and returns it
+    private PomodoroTimerSettings parseTimerSettings() throws IOException {
+        int pomodoro = -1;
+        int shortBreak = -1;
+        int longBreak = -1;
+        int pomodoroRepeats = -1;
+        tokenizer.beginObject();
+        while (tokenizer.hasNext()) {
+            switch (tokenizer.nextName()) {
+                case "pomodoro":
+                    pomodoro = tokenizer.nextInt();
+                    break;
+                case "shortBreak":
+                    shortBreak = tokenizer.nextInt();
+                    break;
+                case "longBreak":
+                    longBreak = tokenizer.nextInt();
+                    break;
+                case "pomodoroRepeats":
+                    pomodoroRepeats = tokenizer.nextInt();
+                    break;
+                default:
+                    tokenizer.skipValue();
+            }
+        }
+        tokenizer.endObject();
+        if (pomodoro == -1 || shortBreak == -1 || longBreak == -1 || pomodoroRepeats == -1) {
+            throw new JSONException("timerSettings is missing a duration or repeats");
+        }
+        return PomodoroTimerSettings.of(pomodoro, shortBreak, longBreak, pomodoroRepeats);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: parses array of activities and adds them to tracker, reusing placeholder activities
+    //          already referenced by sessions
+    private void addActivities() throws IOException {
+        tokenizer.beginArray();
+        while (tokenizer.hasNext()) {
+            String name = null;
+            tokenizer.beginObject();
+            while (tokenizer.hasNext()) {
+                if (tokenizer.nextName().equals("name")) {
+                    name = tokenizer.nextString();
+                } else {
+                    tokenizer.skipValue();
+                }
+            }
+            tokenizer.endObject();
+            requireField(name, "name");
+            Activity activity = pendingActivities.remove(name);
+            tracker.addActivity(activity == null ? new Activity(name) : activity);
+        }
+        tokenizer.endArray();
+        activitiesRead = true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: parses array of sessions and adds each one to tracker as soon as it is read,
+    //          or skips them if sessionChunks is not null
+    private void addSessions() throws IOException {
+        if (sessionChunks != null) {
+            skipSessions();
+            return;
+        }
+        tokenizer.beginArray();
+        while (tokenizer.hasNext()) {
+            tracker.addSession(parseSession());
+        }
+        tokenizer.endArray();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: skips array of sessions, adding to sessionChunks the start and end positions, in bytes, of each run
+    //          of up to chunkSize consecutive sessions in it
+    private void skipSessions() throws IOException {
+        tokenizer.beginArray();
+        int count = 0;
+        long start = 0;
+        long end = 0;
+        while (tokenizer.hasNext()) {
+            if (count % chunkSize == 0) {
+                start = tokenizer.getTokenPosition();
+            }
+            tokenizer.skipValue();
+            end = tokenizer.getPosition();
+            if (++count % chunkSize == 0) {
+                sessionChunks.add(new long[] {start, end});
+            }
+        }
+        if (count % chunkSize != 0) {
+            sessionChunks.add(new long[] {start, end});
+        }
+        tokenizer.endArray();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: parses session object and returns it; it is a pomodoro session if its type is "pomodoro", or if it has
+    //          no type, as in files written before sessions had one, and has both timer settings and pomodoro minutes
+    private Session parseSession() throws IOException {
+        String type = null;
+        String details = null;
+        LocalDateTime start = null;
+        LocalDateTime end = null;
+        String activityName = null;
+        PomodoroTimerSettings settings = null;
+        Integer pomodoroMinutes = null;
+        tokenizer.beginObject();
+        while (tokenizer.hasNext()) {
+            switch (tokenizer.nextName()) {
+                case "type":
+                    type = tokenizer.nextString();
+                    break;
+                case "details":
+                    details = parseDetails();
+                    break;
+                case "start":
+                    start = LocalDateTime.parse(tokenizer.nextString());
+                    break;
+                case "end":
+                    end = LocalDateTime.parse(tokenizer.nextString());
+                    break;
+                case "activity":
+                    activityName = tokenizer.nextString();
+                    break;
+                case "timerSettings":
+                    settings = parseTimerSettings();
+                    break;
+                case "pomodoroMinutes":
+                    pomodoroMinutes = tokenizer.nextInt();
+                    break;
+                default:
+                    tokenizer.skipValue();
+            }
+        }
+        tokenizer.endObject();
+        requireField(details, "details");
+        requireField(start, "start");
+        requireField(end, "end");
+        requireField(activityName, "activity");
+        Activity activity = resolveActivity(activityName);
+        Session session;
+        if (type != null ? type.equals("pomodoro") : settings != null && pomodoroMinutes != null) {
+            requireField(settings, "timerSettings");
+            requireField(pomodoroMinutes, "pomodoroMinutes");
+            session = new PomodoroSession(details, start, end, settings, pomodoroMinutes, activity);
+        } else {
+            session = new Session(details, start, end, activity);
+        }
+        if (detailsSource != null) {
+            session.setDetailsSource(detailsSource, detailsRef);
+        }
+        return session;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes details string and returns it; if details are fetched lazily, records the position of its
+    //          token as the details reference and returns "" without decoding it
+    private String parseDetails() throws IOException {
+        if (detailsSource == null) {
+            return tokenizer.nextString();
+        }
+        detailsRef = tokenizer.getTokenPosition();
+        if (tokenizer.peek() != JsonTokenizer.Token.STRING) {
+            throw new JSONException("JSONObject[\"details\"] is not a string.");
+        }
+        tokenizer.skipValue();
+        return "";
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns tracker's activity with given name; if activities have not been read yet,
+    //          returns a placeholder activity with given name, shared by all sessions that refer to it
+    private Activity resolveActivity(String name) {
+        if (activitiesRead || name.isEmpty()) {
+            return tracker.findActivity(name);
+        }
+        return pendingActivities.computeIfAbsent(name, Activity::new);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes placeholder activities that were never declared from the sessions that refer to them
+    private void clearUndeclaredActivities() {
+        for (Activity undeclared : pendingActivities.values()) {
+            List<Session> sessions = new ArrayList<>(tracker.filterSessionsByActivity(undeclared));
+            for (Session s : sessions) {
+                s.setActivity(null);
+            }
+        }
+        pendingActivities.clear();
+    }
+
+    // EFFECTS: throws JSONException if value of field with given name is missing
+    private void requireField(Object value, String name) {
+        if (value == null) {
+            throw new JSONException("JSONObject[\"" + name + "\"] not found.");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package persistence;
+
+import model.*;
+
+import java.io.IOException;
+import java.util.List;
+
+// Represents a writer that walks a study tracker and writes it as a stream of JSON tokens, one activity and session
+// at a time, so no JSON tree of the whole tracker is built. The document has the same properties as
+// StudyTracker.toJson(), with activities written before sessions so that streaming readers never need placeholders.
+public class JsonStreamWriter {
+    private final JsonTokenWriter writer;
+
+    // EFFECTS: constructs writer writing tokens to given token writer
+    public JsonStreamWriter(JsonTokenWriter writer) {
+        this.writer = writer;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes given study tracker as a JSON object and flushes the token writer
+    public void writeStudyTracker(StudyTracker st) throws IOException {
+        writer.beginObject();
+        writer.name("timerSettings");
+        writeTimerSettings(st.getTimerSettings());
+        writer.name("activities");
+        writer.beginArray();
+        for (Activity a : st.getActivities()) {
+            writeActivity(a);
+        }
+        writer.endArray();
+        writer.name("sessions");
+        writer.beginArray();
+        for (Session s : st.getSessionsWithoutLogging()) {
+            writeSession(s);
+        }
+        writer.endArray();
+        writer.endObject();
+        writer.flush();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes given sessions as a JSON object with a single "sessions" array, the way JsonStreamParser
+    //          reads them back into a tracker, and flushes the token writer
+    void writeSessions(List<Session> sessions) throws IOException {
+        writer.beginObject();
+        writer.name("sessions");
+        writer.beginArray();
+        for (Session s : sessions) {
+            writeSession(s);
+        }
+        writer.endArray();
+        writer.endObject();
+        writer.flush();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes given pomodoro timer settings as a JSON object
+    void writeTimerSettings(PomodoroTimerSettings settings) throws IOException {
+        writer.beginObject();
+        writer.name("pomodoro").value(settings.getPomodoro());
+        writer.name("shortBreak").value(settings.getShortBreak());
+        writer.name("longBreak").value(settings.getLongBreak());
+        writer.name("pomodoroRepeats").value(settings.getPomodoroRepeats());
+        writer.endObject();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes given activity as a JSON object
+    void writeActivity(Activity a) throws IOException {
+        writer.beginObject();
+        writer.name("name").value(a.getName());
+        writer.endObject();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes given session as a JSON object starting with its type, with timer settings and pomodoro minutes
+    //          if it is a pomodoro session
+    void writeSession(Session s) throws IOException {
+        writer.beginObject();
+        writer.name("type").value(s instanceof PomodoroSession ? "pomodoro" : "session");
+        writer.name("details").value(s.getDetails());
+        writer.name("start").value(s.getStart().toString());
+        writer.name("end").value(s.getEnd().toString());
+        writer.name("activity").value(s.getActivityName());
+        if (s instanceof PomodoroSession) {
+            PomodoroSession ps = (PomodoroSession) s;
+            writer.name("timerSettings");
+            writeTimerSettings(ps.getTimerSettings());
+            writer.name("pomodoroMinutes").value(ps.getPomodoroMinutes());
+        }
+        writer.endObject();
+    }
+}
@@ -0,0 +1,192 @@
+package persistence;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+// References:
+//  string escaping follows JSONObject.quote in https://github.com/stleary/JSON-java
+//  method names follow Gson's JsonWriter: https://github.com/google/gson
+
+// Represents a writer that emits JSON one token at a time to an underlying writer, so a document can be written
+// without first building it in memory. When pretty printing, each element and property goes on its own line indented
+// by TAB spaces per level, with ": " after names; otherwise no whitespace is written.
+public class JsonTokenWriter {
+    private static final int TAB = 4;
+
+    // states of an open array or object, kept on a stack
+    private static final int EMPTY_ARRAY = 1;
+    private static final int NONEMPTY_ARRAY = 2;
+    private static final int EMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;     // object where a name was written and its value is next
+    private static final int NONEMPTY_OBJECT = 5;
+
+    private final Writer out;
+    private final boolean prettyPrint;
+    private int[] stack;
+    private int stackSize;
+
+    // EFFECTS: constructs token writer writing to out, pretty printed if prettyPrint is true
+    public JsonTokenWriter(Writer out, boolean prettyPrint) {
+        this.out = out;
+        this.prettyPrint = prettyPrint;
+        this.stack = new int[32];
+        this.stackSize = 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the start of an object
+    public JsonTokenWriter beginObject() throws IOException {
+        beforeValue();
+        out.write('{');
+        push(EMPTY_OBJECT);
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the end of the current object
+    public JsonTokenWriter endObject() throws IOException {
+        return close(EMPTY_OBJECT, '}');
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the start of an array
+    public JsonTokenWriter beginArray() throws IOException {
+        beforeValue();
+        out.write('[');
+        push(EMPTY_ARRAY);
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the end of the current array
+    public JsonTokenWriter endArray() throws IOException {
+        return close(EMPTY_ARRAY, ']');
+    }
+
+    // REQUIRES: current context is an object whose last name already has a value
+    // MODIFIES: this
+    // EFFECTS: writes given property name; the next token written is its value
+    public JsonTokenWriter name(String name) throws IOException {
+        if (stack[stackSize - 1] == NONEMPTY_OBJECT) {
+            out.write(',');
+        }
+        newline();
+        writeQuoted(name);
+        out.write(prettyPrint ? ": " : ":");
+        stack[stackSize - 1] = DANGLING_NAME;
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes given string value
+    public JsonTokenWriter value(String value) throws IOException {
+        beforeValue();
+        writeQuoted(value);
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes given number value
+    public JsonTokenWriter value(long value) throws IOException {
+        beforeValue();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes buffered output to the underlying writer
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: prepares to write a value in the current context: separates it from the previous array element
+    //          or marks the object property as written
+    private void beforeValue() throws IOException {
+        if (stackSize == 0) {
+            return;
+        }
+        int state = stack[stackSize - 1];
+        if (state == DANGLING_NAME) {
+            stack[stackSize - 1] = NONEMPTY_OBJECT;
+        } else {
+            if (state == NONEMPTY_ARRAY) {
+                out.write(',');
+            }
+            stack[stackSize - 1] = NONEMPTY_ARRAY;
+            newline();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the current array or object, which is empty if in given empty state, with given bracket
+    private JsonTokenWriter close(int emptyState, char bracket) throws IOException {
+        int state = stack[--stackSize];
+        if (state != emptyState) {
+            newline();
+        }
+        out.write(bracket);
+        return this;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: if pretty printing, starts a new line indented to the current depth
+    private void newline() throws IOException {
+        if (prettyPrint) {
+            out.write('\n');
+            for (int i = 0; i < stackSize * TAB; i++) {
+                out.write(' ');
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes given string in quotes, escaping quotes, backslashes and control characters
+    private void writeQuoted(String s) throws IOException {
+        out.write('"');
+        int last = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            String escaped = escape(c);
+            if (escaped != null) {
+                out.write(s, last, i - last);
+                out.write(escaped);
+                last = i + 1;
+            }
+        }
+        out.write(s, last, s.length() - last);
+        out.write('"');
+    }
+
+    // EFFECTS: returns escape sequence for given character, or null if it can be written as is
+    private String escape(char c) {
+        switch (c) {
+            case '"':
+                return "\\\"";
+            case '\\':
+                return "\\\\";
+            case '\b':
+                return "\\b";
+            case '\f':
+                return "\\f";
+            case '\n':
+                return "\\n";
+            case '\r':
+                return "\\r";
+            case '\t':
+                return "\\t";
+            default:
+                return c < ' ' ? String.format("\\u%04x", (int) c) : null;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: pushes given state onto the stack, growing it if needed
+    private void push(int state) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[stackSize++] = state;
+    }
+}
@@ -0,0 +1,487 @@
+package persistence;
+
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// References:
+//  pull parser states and method names follow Gson's JsonReader: https://github.com/google/gson
+//  JSON grammar: https://www.json.org/json-en.html
+
+// Represents a pull tokenizer that reads UTF-8 JSON incrementally from a channel through a fixed-size buffer,
+// so memory use does not depend on the size of the input. Callers walk the document with beginObject, nextName,
+// nextString, ..., and skip values they do not need with skipValue.
+// Malformed input throws JSONException, as parsing with org.json does.
+public class JsonTokenizer {
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    // kinds of token that peek may return
+    public enum Token { BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL,
+        END_DOCUMENT }
+
+    // states of an open array, object or the top-level document, kept on a stack
+    private static final int EMPTY_ARRAY = 1;
+    private static final int NONEMPTY_ARRAY = 2;
+    private static final int EMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;     // object where a name was read and its value is next
+    private static final int NONEMPTY_OBJECT = 5;
+    private static final int EMPTY_DOCUMENT = 6;
+    private static final int NONEMPTY_DOCUMENT = 7;
+
+    private final ReadableByteChannel in;
+    private final ByteBuffer buffer;
+    private long bufferStart;       // position in input of buffer's first byte
+    private int[] stack;
+    private int stackSize;
+    private Token peeked;           // token returned by last peek but not consumed yet, or null
+    private long tokenStart;        // position in input of first byte of peeked token
+    private int firstByte;          // first byte of a peeked number or literal
+    private boolean booleanValue;   // value of a peeked boolean
+    private byte[] scratch;         // bytes of the string or number being read
+
+    // EFFECTS: constructs tokenizer reading a JSON document from given channel
+    public JsonTokenizer(ReadableByteChannel in) {
+        this(in, BUFFER_BYTES);
+    }
+
+    // REQUIRES: bufferBytes > 0
+    // EFFECTS: constructs tokenizer reading a JSON document from given channel through a buffer of given size
+    JsonTokenizer(ReadableByteChannel in, int bufferBytes) {
+        this.in = in;
+        this.buffer = ByteBuffer.allocate(bufferBytes);
+        this.buffer.flip();
+        this.bufferStart = 0;
+        this.stack = new int[32];
+        this.stackSize = 0;
+        this.scratch = new byte[256];
+        push(EMPTY_DOCUMENT);
+    }
+
+    // EFFECTS: returns the position in the input, in bytes, of the first byte of the next token
+    public long getTokenPosition() throws IOException {
+        peek();
+        return tokenStart;
+    }
+
+    // REQUIRES: the next token has not been peeked
+    // EFFECTS: returns the position in the input, in bytes, just past the last token consumed
+    long getPosition() {
+        return bufferStart + buffer.position();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns kind of the next token without consuming it
+    public Token peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+        int state = stack[stackSize - 1];
+        if (state == EMPTY_ARRAY || state == NONEMPTY_ARRAY) {
+            peeked = peekInArray(state);
+        } else if (state == EMPTY_OBJECT || state == NONEMPTY_OBJECT) {
+            peeked = peekName(state);
+        } else if (state == DANGLING_NAME) {
+            stack[stackSize - 1] = NONEMPTY_OBJECT;
+            if (nextNonWhitespace() != ':') {
+                throw syntaxError("Expected ':'");
+            }
+            peeked = peekValue(nextNonWhitespace());
+        } else if (state == EMPTY_DOCUMENT) {
+            stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+            peeked = peekValue(nextNonWhitespace());
+        } else {
+            if (nextNonWhitespace() != -1) {
+                throw syntaxError("Expected end of document");
+            }
+            peeked = Token.END_DOCUMENT;
+        }
+        return peeked;
+    }
+
+    // EFFECTS: returns true if the current array or object has another element
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the start of an object, throws JSONException if next token is not one
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the end of the current object, throws JSONException if next token is not one
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        stackSize--;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the start of an array, throws JSONException if next token is not one
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the end of the current array, throws JSONException if next token is not one
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        stackSize--;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes and returns the next property name, throws JSONException if next token is not one
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        return readString();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes and returns the next string value, throws JSONException if next token is not one
+    public String nextString() throws IOException {
+        expect(Token.STRING);
+        return readString();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the next number value and returns it as an int,
+    //          throws JSONException if next token is not a number that fits in an int
+    public int nextInt() throws IOException {
+        long value = nextLong();
+        if (value != (int) value) {
+            throw syntaxError("Number out of int range");
+        }
+        return (int) value;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the next number value and returns it as a long,
+    //          throws JSONException if next token is not a number that fits in a long
+    public long nextLong() throws IOException {
+        expect(Token.NUMBER);
+        String number = readNumber();
+        try {
+            return Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            double value = parseDouble(number);
+            if (value != (long) value) {
+                throw syntaxError("Expected an integer but was " + number);
+            }
+            return (long) value;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes and returns the next boolean value, throws JSONException if next token is not one
+    public boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        return booleanValue;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the next null value, throws JSONException if next token is not one
+    public void nextNull() throws IOException {
+        expect(Token.NULL);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the next value, including all nested values if it is an array or object
+    public void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            Token token = peek();
+            if (token == Token.BEGIN_OBJECT) {
+                beginObject();
+                depth++;
+            } else if (token == Token.BEGIN_ARRAY) {
+                beginArray();
+                depth++;
+            } else if (token == Token.END_OBJECT) {
+                endObject();
+                depth--;
+            } else if (token == Token.END_ARRAY) {
+                endArray();
+                depth--;
+            } else if (token == Token.NAME || token == Token.STRING) {
+                peeked = null;
+                skipString();
+            } else if (token == Token.NUMBER) {
+                expect(token);
+                readNumber();
+            } else if (token == Token.END_DOCUMENT) {
+                throw syntaxError("Unexpected end of document");
+            } else {
+                expect(token);
+            }
+        } while (depth > 0);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns next token in an array in given state
+    private Token peekInArray(int state) throws IOException {
+        stack[stackSize - 1] = NONEMPTY_ARRAY;
+        int c = nextNonWhitespace();
+        if (c == ']') {
+            return Token.END_ARRAY;
+        }
+        if (state == NONEMPTY_ARRAY) {
+            if (c != ',') {
+                throw syntaxError("Expected ',' or ']'");
+            }
+            c = nextNonWhitespace();
+        }
+        return peekValue(c);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns next token in an object in given state, which is a name or the end of the object
+    private Token peekName(int state) throws IOException {
+        int c = nextNonWhitespace();
+        if (c == '}') {
+            return Token.END_OBJECT;
+        }
+        if (state == NONEMPTY_OBJECT) {
+            if (c != ',') {
+                throw syntaxError("Expected ',' or '}'");
+            }
+            c = nextNonWhitespace();
+        }
+        if (c != '"') {
+            throw syntaxError("Expected name");
+        }
+        stack[stackSize - 1] = DANGLING_NAME;
+        return Token.NAME;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the kind of value starting with byte c, consuming c
+    private Token peekValue(int c) throws IOException {
+        switch (c) {
+            case '{':
+                return Token.BEGIN_OBJECT;
+            case '[':
+                return Token.BEGIN_ARRAY;
+            case '"':
+                return Token.STRING;
+            case 't':
+                readLiteral("true");
+                booleanValue = true;
+                return Token.BOOLEAN;
+            case 'f':
+                readLiteral("false");
+                booleanValue = false;
+                return Token.BOOLEAN;
+            case 'n':
+                readLiteral("null");
+                return Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    firstByte = c;
+                    return Token.NUMBER;
+                }
+                throw syntaxError(c == -1 ? "Unexpected end of document" : "Unexpected character");
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the rest of given literal, whose first byte was already read
+    private void readLiteral(String literal) throws IOException {
+        for (int i = 1; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) {
+                throw syntaxError("Expected " + literal);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the rest of a string whose opening quote was already read and returns it unescaped
+    private String readString() throws IOException {
+        int length = 0;
+        while (true) {
+            int c = read();
+            if (c == '"') {
+                return new String(scratch, 0, length, StandardCharsets.UTF_8);
+            } else if (c == '\\') {
+                byte[] unescaped = readEscape().getBytes(StandardCharsets.UTF_8);
+                for (byte b : unescaped) {
+                    length = append(length, b);
+                }
+            } else if (c == -1) {
+                throw syntaxError("Unterminated string");
+            } else {
+                length = append(length, (byte) c);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the rest of a string whose opening quote was already read, without decoding it
+    private void skipString() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == '"') {
+                return;
+            } else if (c == '\\') {
+                readEscape();
+            } else if (c == -1) {
+                throw syntaxError("Unterminated string");
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes an escape sequence whose backslash was already read and returns the text it stands for
+    private String readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case 'b':
+                return "\b";
+            case 'f':
+                return "\f";
+            case 'n':
+                return "\n";
+            case 'r':
+                return "\r";
+            case 't':
+                return "\t";
+            case '"':
+            case '\\':
+            case '/':
+                return String.valueOf((char) c);
+            case 'u':
+                char unit = readHexUnit();
+                if (Character.isHighSurrogate(unit) && peekByte() == '\\') {
+                    read();
+                    if (read() != 'u') {
+                        throw syntaxError("Expected low surrogate escape");
+                    }
+                    return new String(new char[]{unit, readHexUnit()});
+                }
+                return String.valueOf(unit);
+            default:
+                throw syntaxError("Invalid escape sequence");
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes four hex digits and returns the UTF-16 code unit they encode
+    private char readHexUnit() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(read(), 16);
+            if (digit < 0) {
+                throw syntaxError("Invalid unicode escape");
+            }
+            value = (value << 4) | digit;
+        }
+        return (char) value;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the rest of a number whose first byte was already read and returns its text
+    private String readNumber() throws IOException {
+        int length = append(0, (byte) firstByte);
+        while (true) {
+            int c = peekByte();
+            if ((c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                length = append(length, (byte) read());
+            } else {
+                return new String(scratch, 0, length, StandardCharsets.US_ASCII);
+            }
+        }
+    }
+
+    // EFFECTS: returns value of given number text, throws JSONException if it is not a valid number
+    private double parseDouble(String number) {
+        try {
+            return Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            throw syntaxError("Malformed number " + number);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stores b at given index of scratch, growing scratch if needed, and returns index + 1
+    private int append(int index, byte b) {
+        if (index == scratch.length) {
+            scratch = Arrays.copyOf(scratch, scratch.length * 2);
+        }
+        scratch[index] = b;
+        return index + 1;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes peeked token if it is of given kind, otherwise throws JSONException
+    private void expect(Token token) throws IOException {
+        Token actual = peek();
+        if (actual != token) {
+            throw syntaxError("Expected " + token + " but was " + actual);
+        }
+        peeked = null;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: pushes given state onto the stack, growing it if needed
+    private void push(int state) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[stackSize++] = state;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes whitespace and returns the next byte, consuming it, or -1 at end of input;
+    //          records the position of that byte as the start of the next token
+    private int nextNonWhitespace() throws IOException {
+        while (true) {
+            int c = read();
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                tokenStart = bufferStart + buffer.position() - 1;
+                return c;
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes and returns the next byte of input, or -1 at end of input
+    private int read() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the next byte of input without consuming it, or -1 at end of input
+    private int peekByte() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return buffer.get(buffer.position()) & 0xFF;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: refills the empty buffer from the channel; returns false if the input has ended
+    private boolean fill() throws IOException {
+        bufferStart += buffer.limit();
+        buffer.clear();
+        int n;
+        do {
+            n = in.read(buffer);
+        } while (n == 0);
+        buffer.flip();
+        return n > 0;
+    }
+
+    // EFFECTS: returns exception describing a syntax error at the current position
+    private JSONException syntaxError(String message) {
+        return new JSONException(message + " at byte " + (bufferStart + buffer.position()));
+    }
+}
@@ -3,45 +3,206 @@ package persistence;
 import model.StudyTracker;
 import org.json.JSONObject;
 
-import java.io.File;
+import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
-import java.io.PrintWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 
 // reference: JsonWriter class in https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo
-// Represents a writer that writes a JSON representation of a study tracker to file
-public class JsonWriter {
+// Represents a writer that writes a JSON representation of a study tracker to file.
+// In DOM mode the study tracker is first converted into a JSONObject and rendered as one string; in STREAMING mode
+// it is walked directly and written token by token through a buffered stream, optionally pretty printed.
+// Saves are crash safe: the tracker is written to <file>.tmp in the same directory and forced to disk, and only then
+// moved atomically over the destination file, so the destination always holds a complete save. The previous saves are
+// kept as backups <file>.1 (newest) to <file>.N, which JsonReader falls back to if the destination is corrupt.
+public class JsonWriter implements StudyTrackerWriter {
+    public enum Mode { DOM, STREAMING }
+
+    public static final int DEFAULT_MAX_BACKUPS = 3;
     private static final int TAB = 4;
-    private PrintWriter writer;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String TEMP_SUFFIX = ".tmp";
+    private Writer writer;
+    private FileOutputStream tempOut;
     private String destination;
+    private Mode mode;
+    private boolean prettyPrint;
+    private int maxBackups;
 
-    // EFFECTS: constructs writer to write to destination file
+    // EFFECTS: constructs writer to write to destination file in DOM mode
     public JsonWriter(String destination) {
+        this(destination, Mode.DOM, true);
+    }
+
+    // EFFECTS: constructs writer to write to destination file in given mode, pretty printed if prettyPrint is true;
+    //          DOM mode always pretty prints
+    public JsonWriter(String destination, Mode mode, boolean prettyPrint) {
+        this(destination, mode, prettyPrint, DEFAULT_MAX_BACKUPS);
+    }
+
+    // REQUIRES: maxBackups >= 0
+    // EFFECTS: constructs writer to write to destination file in given mode, pretty printed if prettyPrint is true,
+    //          keeping maxBackups previous saves; DOM mode always pretty prints
+    public JsonWriter(String destination, Mode mode, boolean prettyPrint, int maxBackups) {
         this.destination = destination;
+        this.mode = mode;
+        this.prettyPrint = prettyPrint || mode == Mode.DOM;
+        this.maxBackups = maxBackups;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public boolean isPrettyPrint() {
+        return prettyPrint;
+    }
+
+    public int getMaxBackups() {
+        return maxBackups;
     }
 
     // MODIFIES: this
-    // EFFECTS: opens writer if destination file can be found,
+    // EFFECTS: opens writer to a temporary file next to the destination file if it can be created,
     //          otherwise, throws FileNotFoundException
+    @Override
     public void open() throws FileNotFoundException {
-        writer = new PrintWriter(new File(destination));
+        tempOut = new FileOutputStream(destination + TEMP_SUFFIX);
+        writer = new BufferedWriter(new OutputStreamWriter(tempOut, StandardCharsets.UTF_8), BUFFER_SIZE);
     }
 
     // MODIFIES: this
-    // EFFECTS: writes JSON representation of study tracker to file
-    public void write(StudyTracker st) {
-        JSONObject json = st.toJson();
-        saveToFile(json.toString(TAB));
+    // EFFECTS: writes JSON representation of study tracker to the temporary file;
+    //          if an error occurs writing to file, discards the temporary file and throws IOException
+    @Override
+    public void write(StudyTracker st) throws IOException {
+        try {
+            if (mode == Mode.STREAMING) {
+                new JsonStreamWriter(new JsonTokenWriter(writer, prettyPrint)).writeStudyTracker(st);
+            } else {
+                JSONObject json = st.toJson();
+                saveToFile(json.toString(TAB));
+            }
+        } catch (IOException e) {
+            discard();
+            throw e;
+        }
     }
 
     // MODIFIES: this
-    // EFFECTS: closes writer
-    public void close() {
-        writer.close();
+    // EFFECTS: forces the temporary file to disk, keeps the current destination file as the newest backup and
+    //          atomically replaces the destination file with the temporary file; does nothing if the save
+    //          was discarded. If an error occurs, discards the temporary file and throws IOException,
+    //          leaving the destination file as it was.
+    @Override
+    public void close() throws IOException {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
+            tempOut.getFD().sync();
+            writer.close();
+            writer = null;
+        } catch (IOException e) {
+            discard();
+            throw e;
+        }
+        commit();
     }
 
     // MODIFIES: this
     // EFFECTS: writes string to file
-    private void saveToFile(String json) {
-        writer.print(json);
+    private void saveToFile(String json) throws IOException {
+        writer.write(json);
+    }
+
+    // MODIFIES: destination file and its backups
+    // EFFECTS: moves the temporary file over the destination file, keeping backups
+    private void commit() throws IOException {
+        replace(tempPath(destination), Paths.get(destination), maxBackups);
+    }
+
+    // MODIFIES: source, target and its backups
+    // EFFECTS: shifts backups, links target as the newest of maxBackups backups if it exists,
+    //          and atomically moves complete file source over target
+    static void replace(Path source, Path target, int maxBackups) throws IOException {
+        if (Files.exists(target)) {
+            keepBackup(target, maxBackups);
+        }
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncDirectory(target);
+    }
+
+    // MODIFIES: target and its backups
+    // EFFECTS: shifts <file>.i to <file>.(i+1) for the kept backups and makes target <file>.1;
+    //          target is hard linked so it stays in place until it is replaced, and moved if links are not supported
+    private static void keepBackup(Path target, int maxBackups) throws IOException {
+        if (maxBackups == 0) {
+            return;
+        }
+        for (int i = maxBackups - 1; i >= 1; i--) {
+            Path backup = backupPath(target, i);
+            if (Files.exists(backup)) {
+                Files.move(backup, backupPath(target, i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Path newest = backupPath(target, 1);
+        Files.deleteIfExists(newest);
+        try {
+            Files.createLink(newest, target);
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.move(target, newest, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes and deletes the temporary file, ignoring errors
+    private void discard() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            // already failing; the temporary file is deleted below
+        }
+        writer = null;
+        try {
+            Files.deleteIfExists(tempPath(destination));
+        } catch (IOException e) {
+            // a leftover temporary file is overwritten by the next save
+        }
+    }
+
+    // EFFECTS: forces the directory entry of target to disk where the platform supports it
+    private static void syncDirectory(Path target) {
+        Path dir = target.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // directories cannot be opened for syncing on some platforms
+        }
+    }
+
+    // EFFECTS: returns path of the temporary file a save to given destination is written to
+    private static Path tempPath(String destination) {
+        return Paths.get(destination + TEMP_SUFFIX);
+    }
+
+    // EFFECTS: returns path of the i-th most recent backup of given file
+    static Path backupPath(Path file, int i) {
+        return file.resolveSibling(file.getFileName() + "." + i);
     }
 }
@@ -0,0 +1,382 @@
+package persistence;
+
+import model.*;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static persistence.ColumnarSessionWriter.*;
+
+// Represents a read-only study tracker backed by a session archive written by ColumnarSessionWriter and mapped
+// into memory. Only the activities and timer settings are read onto the heap when the archive is opened; session
+// queries and totals read the mapped columns directly. Session lists are views that build a new Session from the
+// columns each time an element is accessed, so changes to a returned session are not kept.
+// Methods that would change the study tracker throw UnsupportedOperationException.
+public class MappedStudyTracker extends StudyTracker implements Closeable {
+    private static final long NANOS_PER_MINUTE = 60_000_000_000L;
+
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private int sessionCount;
+    private PomodoroTimerSettings[] settings;
+    private Activity[] activities;      // activities[id], with activities[0] == null for sessions with no activity
+    private int startsAt;
+    private int endsAt;
+    private int detailsEndsAt;
+    private int byStartAt;
+    private int activityIdsAt;
+    private int pomodoroMinutesAt;
+    private int settingsIdsAt;
+    private int detailsAt;
+
+    // EFFECTS: maps session archive at given file into memory and constructs a read-only study tracker backed by it;
+    //          throws IOException if the file cannot be read, is larger than 2 GB or is not a valid session archive
+    public MappedStudyTracker(String file) throws IOException {
+        channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large to map");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            readHeader(file);
+            readDictionary(file);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the archive file; the mapping itself is released once this study tracker is unreachable
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public void addActivity(Activity a) {
+        throw new UnsupportedOperationException("Archived study tracker is read-only");
+    }
+
+    @Override
+    public void addSession(Session s) {
+        throw new UnsupportedOperationException("Archived study tracker is read-only");
+    }
+
+    @Override
+    public void removeSession(Session s) {
+        throw new UnsupportedOperationException("Archived study tracker is read-only");
+    }
+
+    @Override
+    public void setTimerSettings(PomodoroTimerSettings settings) {
+        throw new UnsupportedOperationException("Archived study tracker is read-only");
+    }
+
+    // EFFECTS: returns unmodifiable view of sessions filtered by given activity, in the order they were archived
+    @Override
+    public List<Session> filterSessionsByActivity(Activity activity) {
+        EventLog.getInstance().logReadEvent("Viewed sessions filtered by activity");
+        int id = activityId(activity);
+        if (id < 0) {
+            return new RowView(new int[0]);
+        }
+        int[] rows = new int[sessionCount];
+        int found = 0;
+        for (int i = 0; i < sessionCount; i++) {
+            if (buffer.getInt(activityIdsAt + i * 4) == id) {
+                rows[found++] = i;
+            }
+        }
+        return new RowView(Arrays.copyOf(rows, found));
+    }
+
+    // REQUIRES: from is not after to
+    // EFFECTS: returns unmodifiable view of sessions starting at or after from and before to,
+    //          in chronological order of start
+    @Override
+    public List<Session> getSessionsBetween(LocalDateTime from, LocalDateTime to) {
+        EventLog.getInstance().logReadEvent("Viewed sessions in a date range");
+        int lo = firstStartingAtOrAfter(clampedEpochNanos(from));
+        int hi = firstStartingAtOrAfter(clampedEpochNanos(to));
+        return new AbstractList<Session>() {
+            @Override
+            public Session get(int index) {
+                checkIndex(index, hi - lo);
+                return sessionAt(buffer.getInt(byStartAt + (lo + index) * 4));
+            }
+
+            @Override
+            public int size() {
+                return hi - lo;
+            }
+        };
+    }
+
+    // EFFECTS: returns sessions in reverse chronological order of start; sessions are built lazily,
+    //          so stopping after the k most recent sessions does not build the rest
+    @Override
+    public Iterable<Session> getSessionsNewestFirst() {
+        EventLog.getInstance().logReadEvent("Viewed sessions newest first");
+        return () -> new Iterator<Session>() {
+            private int next = sessionCount - 1;
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public Session next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                return sessionAt(buffer.getInt(byStartAt + (next--) * 4));
+            }
+        };
+    }
+
+    // EFFECTS: returns archived sessions whose interval overlaps the interval of s, other than sessions with the
+    //          same details, interval and activity as s
+    @Override
+    public List<Session> findOverlapping(Session s) {
+        long start = clampedEpochNanos(s.getStart());
+        long end = clampedEpochNanos(s.getEnd());
+        int[] rows = new int[sessionCount];
+        int found = 0;
+        for (int i = 0; i < sessionCount; i++) {
+            long rowStart = buffer.getLong(startsAt + i * 8);
+            long rowEnd = buffer.getLong(endsAt + i * 8);
+            if (rowStart < end && start < rowEnd && !(rowStart == start && rowEnd == end && isSame(i, s))) {
+                rows[found++] = i;
+            }
+        }
+        return new ArrayList<>(new RowView(Arrays.copyOf(rows, found)));
+    }
+
+    // EFFECTS: returns total duration in minutes of all sessions, summed from the start and end columns
+    @Override
+    public long getTotalMinutes() {
+        long total = 0;
+        for (int i = 0; i < sessionCount; i++) {
+            total += durationAt(i);
+        }
+        return total;
+    }
+
+    // EFFECTS: returns total duration in minutes of sessions of given activity, or of sessions with no activity
+    //          if activity is null, summed from the columns
+    @Override
+    public long getTotalMinutes(Activity activity) {
+        int id = activityId(activity);
+        long total = 0;
+        for (int i = 0; id >= 0 && i < sessionCount; i++) {
+            if (buffer.getInt(activityIdsAt + i * 4) == id) {
+                total += durationAt(i);
+            }
+        }
+        return total;
+    }
+
+    // EFFECTS: returns unmodifiable view of all sessions in the order they were archived, without logging a read event
+    @Override
+    public List<Session> getSessionsWithoutLogging() {
+        return new AbstractList<Session>() {
+            @Override
+            public Session get(int index) {
+                checkIndex(index, sessionCount);
+                return sessionAt(index);
+            }
+
+            @Override
+            public int size() {
+                return sessionCount;
+            }
+        };
+    }
+
+    // MODIFIES: this
+    // EFFECTS: checks the header and locates the columns; throws IOException if the header is not
+    //          a supported archive header or the columns do not fit in the file
+    private void readHeader(String file) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE) {
+            throw new EOFException(file + " is too short to be a session archive");
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) > VERSION) {
+            throw new IOException(file + " is not a supported session archive");
+        }
+        sessionCount = buffer.getInt(8);
+        long columnsOffset = buffer.getLong(32);
+        long detailsOffset = buffer.getLong(40);
+        if (sessionCount < 0 || columnsOffset < HEADER_SIZE
+                || detailsOffset != columnsOffset + 40L * sessionCount || detailsOffset > buffer.capacity()) {
+            throw new EOFException(file + " is truncated");
+        }
+        locateColumns((int) columnsOffset);
+        long detailsLength = sessionCount == 0 ? 0 : buffer.getLong(detailsEndsAt + (sessionCount - 1) * 8);
+        if (detailsAt + detailsLength > buffer.capacity()) {
+            throw new EOFException(file + " is truncated");
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records where each column starts, given that the first column starts at columnsOffset
+    private void locateColumns(int columnsOffset) {
+        startsAt = columnsOffset;
+        endsAt = startsAt + sessionCount * 8;
+        detailsEndsAt = endsAt + sessionCount * 8;
+        byStartAt = detailsEndsAt + sessionCount * 8;
+        activityIdsAt = byStartAt + sessionCount * 4;
+        pomodoroMinutesAt = activityIdsAt + sessionCount * 4;
+        settingsIdsAt = pomodoroMinutesAt + sessionCount * 4;
+        detailsAt = settingsIdsAt + sessionCount * 4;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the timer settings and activities of the archive onto the heap
+    private void readDictionary(String file) throws IOException {
+        ByteBuffer dictionary = buffer.duplicate();
+        dictionary.position((int) buffer.getLong(24)).limit(startsAt);
+        try {
+            settings = new PomodoroTimerSettings[buffer.getInt(16)];
+            for (int i = 0; i < settings.length; i++) {
+                settings[i] = PomodoroTimerSettings.of(dictionary.getInt(), dictionary.getInt(),
+                        dictionary.getInt(), dictionary.getInt());
+            }
+            super.setTimerSettings(settings[buffer.getInt(20)]);
+            activities = new Activity[buffer.getInt(12) + 1];
+            for (int i = 1; i < activities.length; i++) {
+                byte[] name = new byte[dictionary.getInt()];
+                dictionary.get(name);
+                activities[i] = new Activity(new String(name, StandardCharsets.UTF_8));
+                if (findActivity(activities[i].getName()) != null) {
+                    throw new IOException(file + " has a duplicate activity " + activities[i].getName());
+                }
+                indexActivity(activities[i]);
+            }
+        } catch (RuntimeException e) {
+            throw new IOException(file + " has a corrupt dictionary", e);
+        }
+    }
+
+    // EFFECTS: builds the session in given row of the columns
+    private Session sessionAt(int row) {
+        LocalDateTime start = toDateTime(buffer.getLong(startsAt + row * 8));
+        LocalDateTime end = toDateTime(buffer.getLong(endsAt + row * 8));
+        Activity activity = activities[buffer.getInt(activityIdsAt + row * 4)];
+        int settingsId = buffer.getInt(settingsIdsAt + row * 4);
+        if (settingsId >= 0) {
+            return new PomodoroSession(detailsAt(row), start, end, settings[settingsId],
+                    buffer.getInt(pomodoroMinutesAt + row * 4), activity);
+        }
+        return new Session(detailsAt(row), start, end, activity);
+    }
+
+    // EFFECTS: decodes the details text of given row
+    private String detailsAt(int row) {
+        int from = row == 0 ? 0 : (int) buffer.getLong(detailsEndsAt + (row - 1) * 8);
+        int to = (int) buffer.getLong(detailsEndsAt + row * 8);
+        byte[] bytes = new byte[to - from];
+        ByteBuffer details = buffer.duplicate();
+        details.position(detailsAt + from);
+        details.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // EFFECTS: returns true if the session in given row has the same details and activity as s
+    private boolean isSame(int row, Session s) {
+        Activity activity = activities[buffer.getInt(activityIdsAt + row * 4)];
+        String activityName = activity == null ? "" : activity.getName();
+        return activityName.equals(s.getActivityName()) && detailsAt(row).equals(s.getDetails());
+    }
+
+    // EFFECTS: returns duration in minutes of the session in given row
+    private long durationAt(int row) {
+        long length = buffer.getLong(endsAt + row * 8) - buffer.getLong(startsAt + row * 8);
+        return length / NANOS_PER_MINUTE;
+    }
+
+    // EFFECTS: returns position in start order of the first session starting at or after given epoch nanoseconds
+    private int firstStartingAtOrAfter(long nanos) {
+        int lo = 0;
+        int hi = sessionCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (buffer.getLong(startsAt + buffer.getInt(byStartAt + mid * 4) * 8) < nanos) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // EFFECTS: returns id of given activity in the columns, 0 if activity is null, or -1 if it is not archived
+    private int activityId(Activity activity) {
+        if (activity == null) {
+            return 0;
+        }
+        for (int i = 1; i < activities.length; i++) {
+            if (activities[i].getName().equals(activity.getName())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // EFFECTS: returns given date time as epoch nanoseconds, clamped to the range of a long
+    private static long clampedEpochNanos(LocalDateTime t) {
+        try {
+            return toEpochNanos(t);
+        } catch (IOException e) {
+            return t.getYear() < 1970 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    // EFFECTS: returns date time at given epoch nanoseconds
+    private static LocalDateTime toDateTime(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    // EFFECTS: throws IndexOutOfBoundsException unless 0 <= index < size
+    private static void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    // Represents an unmodifiable view of the sessions in given rows of the columns
+    private class RowView extends AbstractList<Session> {
+        private final int[] rows;
+
+        RowView(int[] rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public Session get(int index) {
+            checkIndex(index, rows.length);
+            return sessionAt(rows[index]);
+        }
+
+        @Override
+        public int size() {
+            return rows.length;
+        }
+    }
+}
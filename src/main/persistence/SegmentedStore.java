@@ -0,0 +1,322 @@
+package persistence;
+
+import model.*;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Represents a store that keeps a study tracker in a directory as a small manifest, holding the timer settings,
+// the activities and the list of segments, plus one segment file per month holding the sessions starting in that
+// month. A tracker that was loaded from or saved to the store is attached to it, and saving it again rewrites only
+// the segments of months that had sessions added or removed since. A load can read only the recent segments; older
+// segments are paged in when getSessionsBetween reaches them, or before they are rewritten.
+// Each save writes its segments to new files named after the save's generation and then atomically replaces the
+// manifest, so a crash always leaves the manifest referring to a complete set of segments. Segment files that the
+// manifest no longer refers to are deleted after the manifest is replaced, and on load.
+// The store remembers the month each session of the attached tracker is filed under, so a session whose start is
+// changed to another month is removed from the segment of its old month and written to the segment of its new one.
+public class SegmentedStore implements StudyTrackerObserver {
+    static final String MANIFEST = "manifest.json";
+    private static final String SEGMENT_PREFIX = "sessions-";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    // Represents the body of a JSON file written token by token
+    private interface JsonBody {
+        void writeTo(JsonStreamWriter writer, JsonTokenWriter tokens) throws IOException;
+    }
+
+    private final Path directory;
+    private StudyTracker tracker;                       // attached study tracker, or null
+    private long generation;                            // generation of the last save
+    private NavigableMap<YearMonth, String> segments;   // segment file names referenced by the manifest, by month
+    private Set<YearMonth> loaded;                      // months whose segment has been read into the tracker
+    private Set<YearMonth> dirty;                       // months with sessions added or removed since the last save
+    private Map<Session, YearMonth> filedUnder;         // month each session of the attached tracker is filed under
+    private boolean paging;                             // true while segment sessions are read into the tracker
+
+    // EFFECTS: constructs store keeping study tracker in given directory
+    public SegmentedStore(String directory) {
+        this.directory = Paths.get(directory);
+        this.segments = new TreeMap<>();
+        this.loaded = new HashSet<>();
+        this.dirty = new HashSet<>();
+        this.filedUnder = new IdentityHashMap<>();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads study tracker with all of its sessions from the store, attaches it and returns it;
+    //          throws IOException if the manifest or a segment cannot be read
+    public StudyTracker load() throws IOException {
+        return load(YearMonth.from(LocalDateTime.MIN));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads study tracker from the store with only the sessions starting in or after given month,
+    //          attaches it and returns it; throws IOException if the manifest or a segment cannot be read
+    public StudyTracker load(YearMonth since) throws IOException {
+        detach();
+        StudyTracker st = readManifest();
+        deleteUnreferencedSegments();
+        tracker = st;
+        tracker.addObserver(this);
+        for (YearMonth month : segments.tailMap(since, true).keySet()) {
+            pageIn(month);
+        }
+        return tracker;
+    }
+
+    // REQUIRES: a study tracker is attached, and from is not after to
+    // MODIFIES: this
+    // EFFECTS: reads into the attached tracker the segments of months from from to to that are not loaded yet,
+    //          then returns the tracker's sessions starting at or after from and before to;
+    //          throws IOException if a segment cannot be read
+    public List<Session> getSessionsBetween(LocalDateTime from, LocalDateTime to) throws IOException {
+        for (YearMonth month : segments.subMap(YearMonth.from(from), true, YearMonth.from(to), true).keySet()) {
+            pageIn(month);
+        }
+        return tracker.getSessionsBetween(from, to);
+    }
+
+    // EFFECTS: returns true if the sessions of given month have been read into the attached tracker,
+    //          or if there are no stored sessions in given month
+    public boolean isLoaded(YearMonth month) {
+        return loaded.contains(month) || !segments.containsKey(month);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: if st is attached, pages in the segments it changed and rewrites them and the manifest; otherwise
+    //          replaces everything in the store with st and attaches st. Throws IOException if an error occurs
+    //          writing to file, in which case the store still holds the previous save
+    public void save(StudyTracker st) throws IOException {
+        if (st != tracker) {
+            detach();
+            if (Files.exists(directory.resolve(MANIFEST))) {
+                readManifest();
+            }
+            tracker = st;
+            dirty.addAll(segments.keySet());
+            for (Session s : st.getSessionsWithoutLogging()) {
+                filedUnder.put(s, YearMonth.from(s.getStart()));
+                dirty.add(YearMonth.from(s.getStart()));
+            }
+            loaded.addAll(dirty);
+            tracker.addObserver(this);
+        }
+        for (YearMonth month : dirty) {
+            pageIn(month);
+        }
+        writeSave();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: detaches the attached study tracker, if any
+    public void close() {
+        detach();
+    }
+
+    @Override
+    public void activityAdded(Activity a) {
+        // the manifest, which holds the activities, is written on every save
+    }
+
+    // MODIFIES: this
+    // EFFECTS: files s under the month it starts in, and marks that month as changed unless s was read from a segment
+    @Override
+    public void sessionAdded(Session s) {
+        YearMonth month = YearMonth.from(s.getStart());
+        filedUnder.put(s, month);
+        if (!paging) {
+            dirty.add(month);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: marks the month s was filed under as changed
+    @Override
+    public void sessionRemoved(Session s, int index) {
+        YearMonth month = filedUnder.remove(s);
+        dirty.add(month != null ? month : YearMonth.from(s.getStart()));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: files s under the month it now starts in, and marks both that month and the month it was filed under
+    //          as changed
+    @Override
+    public void sessionChanged(Session s, int index) {
+        YearMonth month = YearMonth.from(s.getStart());
+        YearMonth previous = filedUnder.put(s, month);
+        if (previous != null) {
+            dirty.add(previous);
+        }
+        dirty.add(month);
+    }
+
+    @Override
+    public void timerSettingsChanged(PomodoroTimerSettings settings) {
+        // the manifest, which holds the timer settings, is written on every save
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the changed segments under the next generation, replaces the manifest
+    //          and deletes the segment files the new manifest no longer refers to
+    private void writeSave() throws IOException {
+        Files.createDirectories(directory);
+        long next = generation + 1;
+        NavigableMap<YearMonth, String> written = new TreeMap<>(segments);
+        Map<YearMonth, List<Session>> sessions = sessionsByMonth();
+        for (YearMonth month : dirty) {
+            List<Session> monthSessions = sessions.get(month);
+            if (monthSessions == null) {
+                written.remove(month);
+            } else {
+                String file = SEGMENT_PREFIX + month + "." + next + ".json";
+                writeAtomically(directory.resolve(file), (writer, tokens) -> writer.writeSessions(monthSessions));
+                written.put(month, file);
+            }
+        }
+        writeAtomically(directory.resolve(MANIFEST), (writer, tokens) -> writeManifest(writer, tokens, next, written));
+        generation = next;
+        segments = written;
+        dirty.clear();
+        deleteUnreferencedSegments();
+    }
+
+    // EFFECTS: returns sessions of the attached tracker that start in changed months, grouped by month
+    private Map<YearMonth, List<Session>> sessionsByMonth() {
+        Map<YearMonth, List<Session>> sessions = new HashMap<>();
+        for (Session s : tracker.getSessionsWithoutLogging()) {
+            YearMonth month = YearMonth.from(s.getStart());
+            if (dirty.contains(month)) {
+                sessions.computeIfAbsent(month, m -> new ArrayList<>()).add(s);
+            }
+        }
+        return sessions;
+    }
+
+    // EFFECTS: writes the manifest of the attached tracker with given generation and segments
+    private void writeManifest(JsonStreamWriter writer, JsonTokenWriter tokens, long generation,
+                               NavigableMap<YearMonth, String> segments) throws IOException {
+        tokens.beginObject();
+        tokens.name("generation").value(generation);
+        tokens.name("timerSettings");
+        writer.writeTimerSettings(tracker.getTimerSettings());
+        tokens.name("activities").beginArray();
+        for (Activity a : tracker.getActivities()) {
+            writer.writeActivity(a);
+        }
+        tokens.endArray();
+        tokens.name("segments").beginArray();
+        for (Map.Entry<YearMonth, String> segment : segments.entrySet()) {
+            tokens.beginObject();
+            tokens.name("month").value(segment.getKey().toString());
+            tokens.name("file").value(segment.getValue());
+            tokens.endObject();
+        }
+        tokens.endArray();
+        tokens.endObject();
+        tokens.flush();
+    }
+
+    // EFFECTS: writes body to a temporary file, forces it to disk and atomically moves it over target
+    private static void writeAtomically(Path target, JsonBody body) throws IOException {
+        Path temp = Paths.get(target + TEMP_SUFFIX);
+        try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            JsonTokenWriter tokens = new JsonTokenWriter(writer, true);
+            body.writeTo(new JsonStreamWriter(tokens), tokens);
+            writer.flush();
+            out.getFD().sync();
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        JsonWriter.replace(temp, target, 0);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the generation and segments from the manifest,
+    //          and returns a study tracker with its timer settings and activities
+    private StudyTracker readManifest() throws IOException {
+        byte[] data = Files.readAllBytes(directory.resolve(MANIFEST));
+        JSONObject manifest = new JSONObject(new String(data, StandardCharsets.UTF_8));
+        StudyTracker st = new StudyTracker();
+        st.setTimerSettings(JsonReader.parseTimerSettings(manifest));
+        for (Object activity : manifest.getJSONArray("activities")) {
+            JsonReader.addActivity(st, (JSONObject) activity);
+        }
+        NavigableMap<YearMonth, String> read = new TreeMap<>();
+        for (Object json : manifest.getJSONArray("segments")) {
+            JSONObject segment = (JSONObject) json;
+            read.put(YearMonth.parse(segment.getString("month")), segment.getString("file"));
+        }
+        generation = manifest.getLong("generation");
+        segments = read;
+        loaded.clear();
+        dirty.clear();
+        return st;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the segment of given month into the attached tracker, unless it is loaded or there is none
+    private void pageIn(YearMonth month) throws IOException {
+        if (isLoaded(month)) {
+            return;
+        }
+        paging = true;
+        try (FileChannel channel = FileChannel.open(directory.resolve(segments.get(month)))) {
+            new JsonStreamParser(new JsonTokenizer(channel)).parseSessionsInto(tracker);
+        } finally {
+            paging = false;
+        }
+        loaded.add(month);
+    }
+
+    // EFFECTS: deletes segment files, and temporary files left by interrupted saves, that the manifest does not
+    //          refer to
+    private void deleteUnreferencedSegments() throws IOException {
+        List<Path> unreferenced = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")) {
+            for (Path file : files) {
+                if (!segments.containsValue(file.getFileName().toString())) {
+                    unreferenced.add(file);
+                }
+            }
+        }
+        for (Path file : unreferenced) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops tracking changes of the attached study tracker and detaches it
+    private void detach() {
+        if (tracker != null) {
+            tracker.removeObserver(this);
+            tracker = null;
+        }
+        loaded.clear();
+        dirty.clear();
+        filedUnder.clear();
+    }
+}
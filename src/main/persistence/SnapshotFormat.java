@@ -0,0 +1,39 @@
+package persistence;
+
+import model.StudyTracker;
+
+import java.util.function.Supplier;
+
+// Represents a file format a study tracker can be saved in, chosen by the extension of the file name
+public enum SnapshotFormat {
+    JSON, BINARY;
+
+    // EFFECTS: returns BINARY if file ends with BinarySnapshotWriter.EXTENSION, otherwise JSON
+    public static SnapshotFormat forFile(String file) {
+        return file.endsWith(BinarySnapshotWriter.EXTENSION) ? BINARY : JSON;
+    }
+
+    // EFFECTS: returns reader for given file in this format; JSON files are read in streaming mode
+    public StudyTrackerReader newReader(String file) {
+        return newReader(file, StudyTracker::new);
+    }
+
+    // EFFECTS: returns reader for given file in this format that reads into empty study trackers made by newTracker;
+    //          JSON files are read in streaming mode
+    public StudyTrackerReader newReader(String file, Supplier<StudyTracker> newTracker) {
+        if (this == BINARY) {
+            return new BinarySnapshotReader(file, newTracker);
+        }
+        return new JsonReader(file, JsonReader.Mode.STREAMING, newTracker);
+    }
+
+    // REQUIRES: maxBackups >= 0
+    // EFFECTS: returns writer for given file in this format, keeping maxBackups previous saves;
+    //          JSON files are written in streaming mode and pretty printed
+    public StudyTrackerWriter newWriter(String file, int maxBackups) {
+        if (this == BINARY) {
+            return new BinarySnapshotWriter(file, maxBackups);
+        }
+        return new JsonWriter(file, JsonWriter.Mode.STREAMING, true, maxBackups);
+    }
+}
@@ -0,0 +1,262 @@
+package persistence;
+
+import model.*;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Represents an append-only journal file of the changes made to a study tracker: activities added, sessions added,
+// removed and changed, and timer settings set. Each change is written as one JSON object on its own line and forced
+// to disk as soon as it happens, so replaying the journal on top of the study tracker it started from gives back the
+// tracker.
+// Only the last line may be cut short, e.g. by a crash while it was written: replay ignores it, and it is cut off
+// before the journal is appended to again. Any other record that cannot be read or applied fails the replay and
+// leaves the file as it is, so no record after it is lost.
+public class StudyTrackerJournal implements StudyTrackerObserver {
+    private final Path file;
+    private FileOutputStream out;
+    private Writer writer;
+    private JsonTokenWriter tokens;
+    private JsonStreamWriter records;
+    private long validLength;           // bytes of complete records at the start of the file, -1 if not replayed
+    private int recordCount;
+    private IOException failure;
+
+    // EFFECTS: constructs journal stored in given file
+    public StudyTrackerJournal(String file) {
+        this.file = Paths.get(file);
+        this.validLength = -1;
+    }
+
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    // EFFECTS: returns the first error that occurred appending to the journal, or null if there was none;
+    //          once an error occurs no further changes are appended
+    public IOException getFailure() {
+        return failure;
+    }
+
+    // MODIFIES: this, st
+    // EFFECTS: applies the changes recorded in the journal file, if it exists, to st in the order they were made,
+    //          ignoring a last line that is incomplete; throws IOException if any other record cannot be parsed,
+    //          or if a record cannot be applied to st
+    public void replay(StudyTracker st) throws IOException {
+        byte[] data = Files.exists(file) ? Files.readAllBytes(file) : new byte[0];
+        int pos = 0;
+        int count = 0;
+        while (pos < data.length) {
+            int end = indexOf(data, (byte) '\n', pos);
+            JSONObject record = end < 0 ? null : parseRecord(data, pos, end);
+            if (record == null) {
+                break;
+            }
+            try {
+                apply(st, record);
+            } catch (RuntimeException e) {
+                throw new IOException(file + " has a record at byte " + pos + " that cannot be applied", e);
+            }
+            pos = end + 1;
+            count++;
+        }
+        validLength = pos;
+        recordCount = count;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens journal file for appending, creating it if needed; if the journal was replayed,
+    //          cuts off anything after the records that were applied
+    public void open() throws IOException {
+        if (validLength >= 0 && Files.exists(file)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+        out = new FileOutputStream(file.toFile(), true);
+        writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        tokens = new JsonTokenWriter(writer, false);
+        records = new JsonStreamWriter(tokens);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes journal file
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends record of activity a being added
+    @Override
+    public void activityAdded(Activity a) {
+        try {
+            if (beginRecord("addActivity")) {
+                tokens.name("activity");
+                records.writeActivity(a);
+                endRecord();
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends record of session s being added
+    @Override
+    public void sessionAdded(Session s) {
+        try {
+            if (beginRecord("addSession")) {
+                tokens.name("session");
+                records.writeSession(s);
+                endRecord();
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends record of the session at given index being removed
+    @Override
+    public void sessionRemoved(Session s, int index) {
+        try {
+            if (beginRecord("removeSession")) {
+                tokens.name("index").value(index);
+                endRecord();
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends record of the session at given index being changed to the current values of s
+    @Override
+    public void sessionChanged(Session s, int index) {
+        try {
+            if (beginRecord("updateSession")) {
+                tokens.name("index").value(index);
+                tokens.name("session");
+                records.writeSession(s);
+                endRecord();
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends record of timer settings being set to given settings
+    @Override
+    public void timerSettingsChanged(PomodoroTimerSettings settings) {
+        try {
+            if (beginRecord("setTimerSettings")) {
+                tokens.name("timerSettings");
+                records.writeTimerSettings(settings);
+                endRecord();
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts a record of given operation and returns true, or returns false if appending has failed before
+    private boolean beginRecord(String op) throws IOException {
+        if (failure != null) {
+            return false;
+        }
+        tokens.beginObject();
+        tokens.name("op").value(op);
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: ends the current record and forces it to disk
+    private void endRecord() throws IOException {
+        tokens.endObject();
+        writer.write('\n');
+        writer.flush();
+        out.getFD().sync();
+        recordCount++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops appending changes to the journal because of given error
+    void fail(IOException e) {
+        failure = e;
+    }
+
+    // MODIFIES: st
+    // EFFECTS: applies the change in given record to st,
+    //          throws JSONException if the record is not a valid change
+    private void apply(StudyTracker st, JSONObject record) {
+        String op = record.getString("op");
+        switch (op) {
+            case "addActivity":
+                JsonReader.addActivity(st, record.getJSONObject("activity"));
+                break;
+            case "addSession":
+                JsonReader.addSession(st, record.getJSONObject("session"));
+                break;
+            case "removeSession":
+                st.removeSession(st.getSessionsWithoutLogging().get(record.getInt("index")));
+                break;
+            case "updateSession":
+                updateSession(st.getSessionsWithoutLogging().get(record.getInt("index")),
+                        JsonReader.parseSession(st, record.getJSONObject("session")));
+                break;
+            case "setTimerSettings":
+                st.setTimerSettings(JsonReader.parseTimerSettings(record));
+                break;
+            default:
+                throw new JSONException("Unknown journal operation '" + op + "'");
+        }
+    }
+
+    // MODIFIES: s
+    // EFFECTS: sets the details, interval and activity of s to those of changed
+    private static void updateSession(Session s, Session changed) {
+        s.setDetails(changed.getDetails());
+        s.setStart(changed.getStart());
+        s.setEnd(changed.getEnd());
+        s.setActivity(changed.getActivity());
+    }
+
+    // EFFECTS: returns the record in data from start to the line break at end, or null if it cannot be parsed
+    //          and is the last line, which was then cut short; throws IOException if any other line cannot be parsed
+    private JSONObject parseRecord(byte[] data, int start, int end) throws IOException {
+        try {
+            return new JSONObject(new String(data, start, end - start, StandardCharsets.UTF_8));
+        } catch (JSONException e) {
+            if (end == data.length - 1) {
+                return null;
+            }
+            throw new IOException(file + " has a corrupt record at byte " + start, e);
+        }
+    }
+
+    // EFFECTS: returns index of first b in data at or after from, or -1 if there is none
+    private static int indexOf(byte[] data, byte b, int from) {
+        for (int i = from; i < data.length; i++) {
+            if (data[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
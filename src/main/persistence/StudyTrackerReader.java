@@ -0,0 +1,17 @@
+package persistence;
+
+import model.StudyTracker;
+
+import java.io.IOException;
+
+// Represents a reader that reads a study tracker from a file in some format
+public interface StudyTrackerReader {
+
+    // EFFECTS: reads study tracker from source file and returns it;
+    //          throws IOException if an error occurs reading data from file
+    StudyTracker read() throws IOException;
+
+    // EFFECTS: reads study tracker from source file itself and returns it, never from a backup of it;
+    //          throws IOException if an error occurs reading data from file
+    StudyTracker readWithoutBackups() throws IOException;
+}
@@ -0,0 +1,21 @@
+package persistence;
+
+import model.StudyTracker;
+
+import java.io.IOException;
+
+// Represents a writer that writes a study tracker to a file in some format
+public interface StudyTrackerWriter {
+
+    // MODIFIES: this
+    // EFFECTS: opens writer; throws IOException if destination file cannot be written
+    void open() throws IOException;
+
+    // MODIFIES: this
+    // EFFECTS: writes study tracker; throws IOException if an error occurs writing to file
+    void write(StudyTracker st) throws IOException;
+
+    // MODIFIES: this
+    // EFFECTS: finishes writing and closes writer; throws IOException if an error occurs writing to file
+    void close() throws IOException;
+}
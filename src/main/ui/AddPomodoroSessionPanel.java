@@ -19,7 +19,7 @@ public class AddPomodoroSessionPanel extends AddSessionPanel {
     //          and fields for timer settings
     public AddPomodoroSessionPanel(StudyTrackerGUI parent) {
         super(parent, "New Pomodoro Session", generateLabels(), generateFields(parent.getTracker().getTimerSettings()));
-        settings = copyTimerSettings(parent.getTracker().getTimerSettings());
+        settings = PomodoroTimerSettings.intern(parent.getTracker().getTimerSettings());
         setName(StudyTrackerGUI.ADD_POMODORO);
         setUpTimerSettingsFields();
         submitButton.setText("Start timer");
@@ -51,7 +51,7 @@ public class AddPomodoroSessionPanel extends AddSessionPanel {
     }
 
     public PomodoroTimerSettings getSettings() {
-        return copyTimerSettings(settings);
+        return settings;
     }
 
     // EFFECTS: generates and returns array of formatted text fields for start and end date times
@@ -91,12 +91,6 @@ public class AddPomodoroSessionPanel extends AddSessionPanel {
         longBreak.addFocusListener(new UpdateSettingsListener());
     }
 
-    // EFFECTS: returns copy of ts
-    private PomodoroTimerSettings copyTimerSettings(PomodoroTimerSettings ts) {
-        return new PomodoroTimerSettings(ts.getPomodoro(), ts.getShortBreak(), ts.getLongBreak(),
-                ts.getPomodoroRepeats());
-    }
-
     // Represents action taken when timer to start timer
     private class StartTimerListener implements ActionListener {
         // MODIFIES: this
@@ -123,16 +117,16 @@ public class AddPomodoroSessionPanel extends AddSessionPanel {
             try {
                 switch (field.getName()) {
                     case "pomodoro":
-                        settings.setPomodoro(Integer.parseInt(field.getText()));
+                        settings = settings.withPomodoro(Integer.parseInt(field.getText()));
                         break;
                     case "repeats":
-                        settings.setPomodoroRepeats(Integer.parseInt(field.getText()));
+                        settings = settings.withPomodoroRepeats(Integer.parseInt(field.getText()));
                         break;
                     case "short break":
-                        settings.setShortBreak(Integer.parseInt(field.getText()));
+                        settings = settings.withShortBreak(Integer.parseInt(field.getText()));
                         break;
                     default:
-                        settings.setLongBreak(Integer.parseInt(field.getText()));
+                        settings = settings.withLongBreak(Integer.parseInt(field.getText()));
                         break;
                 }
             } catch (NumberFormatException err) {
@@ -1,10 +1,8 @@
 package ui;
 
 import model.*;
-import persistence.JsonReader;
-import persistence.JsonWriter;
+import persistence.JournaledStore;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -39,8 +37,7 @@ public class StudyTrackerConsoleUI {
     private PomodoroTimer timer;
     private boolean runApp;
     private Scanner input;
-    private JsonReader jsonReader;
-    private JsonWriter jsonWriter;
+    private JournaledStore store;
 
     // EFFECTS: Constructs the study tracker application. Opens user input, runs the program
     //          initializes tracker and loads it with sample data
@@ -49,8 +46,7 @@ public class StudyTrackerConsoleUI {
         input.useDelimiter("\n");
         runApp = true;
         tracker = new StudyTracker();
-        jsonReader = new JsonReader(JSON_STORE);
-        jsonWriter = new JsonWriter(JSON_STORE);
+        store = new JournaledStore(JSON_STORE);
         startTracker();
     }
 
@@ -246,21 +242,21 @@ public class StudyTrackerConsoleUI {
     // MODIFIES: this
     // EFFECTS: edits the tracker's timer settings based on user input
     private void handleEditTimer() {
-        PomodoroTimerSettings ts = currentTimerCopy();
+        PomodoroTimerSettings ts = PomodoroTimerSettings.intern(tracker.getTimerSettings());
         int selection = getValidIntegerInput();
         while (selection != 5) {
             if (selection == 1) {
                 System.out.print("new pomodoro duration (min): ");
-                ts.setPomodoro(getValidIntegerInput());
+                ts = ts.withPomodoro(getValidIntegerInput());
             } else if (selection == 2) {
                 System.out.print("new short break duration (min): ");
-                ts.setShortBreak(getValidIntegerInput());
+                ts = ts.withShortBreak(getValidIntegerInput());
             } else if (selection == 3) {
                 System.out.print("new long break duration (min): ");
-                ts.setLongBreak(getValidIntegerInput());
+                ts = ts.withLongBreak(getValidIntegerInput());
             } else if (selection == 4) {
                 System.out.print("new number of pomodoro repeats: ");
-                ts.setPomodoroRepeats(getValidIntegerInput());
+                ts = ts.withPomodoroRepeats(getValidIntegerInput());
             }
             if (selection >= 1 && selection <= 4) {
                 System.out.print("Updated! ");
@@ -295,8 +291,8 @@ public class StudyTrackerConsoleUI {
         timer = new PomodoroTimer(tracker.getTimerSettings());
         TimerTask task = new TimerTask() {
             public void run() {
-                System.out.println(timer.getCurrentInterval() + "\t" + prettyTime(timer.getTimeRemaining()));
-                timer.decrement();
+                PomodoroTimerState state = timer.getState();
+                System.out.println(state.getInterval() + "\t" + prettyTime(state.getTimeRemaining()));
             }
         };
 
@@ -304,7 +300,7 @@ public class StudyTrackerConsoleUI {
         System.out.println("Enter 's' to stop timer and end session early\n");
         System.out.println("INTERVAL\tTIME REMAINING (mm:ss)");
 
-        timer.scheduleAtFixedRate(task, 1000, 1000);
+        timer.start(task);
 
         String str = "";
         while (!str.equals("s")) {
@@ -356,11 +352,16 @@ public class StudyTrackerConsoleUI {
         return tracker.getActivities().get(selection - 1);
     }
 
-    // EFFECTS: quits the application (stops receiving user input)
+    // EFFECTS: quits the application (stops receiving user input) and closes the tracker store
     private void quit() {
         System.out.println("Quitting Study Tracker...");
         System.out.println("Have a good day!");
         input.close();
+        try {
+            store.close();
+        } catch (IOException e) {
+            System.out.println("Unable to write to " + JSON_STORE);
+        }
     }
 
     // EFFECTS: gets user input until user enters a valid integer then returns input
@@ -427,13 +428,6 @@ public class StudyTrackerConsoleUI {
         return timeFormatter.format(datetime);
     }
 
-    // EFFECTS: returns copy of current timer settings
-    private PomodoroTimerSettings currentTimerCopy() {
-        PomodoroTimerSettings ts = tracker.getTimerSettings();
-        return new PomodoroTimerSettings(ts.getPomodoro(), ts.getShortBreak(), ts.getLongBreak(),
-                ts.getPomodoroRepeats());
-    }
-
     // EFFECTS: returns date in string format EEE MMM-dd-yyyy from given datetime. e.g. Mon Feb-07-2022
     private String parseDate(LocalDateTime datetime) {
         DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("EEE MMM-dd-yyyy");
@@ -467,11 +461,9 @@ public class StudyTrackerConsoleUI {
     // EFFECTS: save the tracker to file
     private void saveStudyTracker() {
         try {
-            jsonWriter.open();
-            jsonWriter.write(tracker);
-            jsonWriter.close();
+            store.save(tracker);
             System.out.println("Saved tracker to " + JSON_STORE + "!");
-        } catch (FileNotFoundException e) {
+        } catch (IOException e) {
             System.out.println("Unable to write to " + JSON_STORE);
         }
     }
@@ -480,7 +472,7 @@ public class StudyTrackerConsoleUI {
     // EFFECTS: loads tracker from file
     private void loadStudyTracker() {
         try {
-            tracker = jsonReader.read();
+            tracker = store.load();
             System.out.println("Loaded study tracker from " + JSON_STORE + "!");
         } catch (IOException e) {
             System.out.println("Unable to read " + JSON_STORE);
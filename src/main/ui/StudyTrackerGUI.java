@@ -3,13 +3,12 @@ package ui;
 import model.Event;
 import model.EventLog;
 import model.StudyTracker;
-import persistence.JsonReader;
-import persistence.JsonWriter;
+import persistence.EventLogFileSink;
+import persistence.JournaledStore;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 
 // Represents the main frame for the study tracker app
@@ -18,6 +17,7 @@ public class StudyTrackerGUI extends JFrame {
     public static final int HEIGHT = 600;
     public static final int SCREEN_WIDTH = Toolkit.getDefaultToolkit().getScreenSize().width;
     private static final String JSON_STORE = "./data/myStudyTracker.json";
+    private static final String EVENT_LOG_FILE = "./data/events.log";
     public static final String VIEW = "View sessions";
     public static final String ADD_COMPLETED = "Add Completed Session";
     public static final String ADD_POMODORO = "Start Pomodoro Session";
@@ -26,8 +26,7 @@ public class StudyTrackerGUI extends JFrame {
     public static final String SAVE = "Save";
 
     private StudyTracker tracker;
-    private JsonReader jsonReader;
-    private JsonWriter jsonWriter;
+    private JournaledStore store;
     private JComponent currentPanel;
 
     public StudyTrackerGUI() {
@@ -107,8 +106,20 @@ public class StudyTrackerGUI extends JFrame {
     // EFFECTS: initializes fields
     private void initializeFields() {
         tracker = new StudyTracker();
-        jsonReader = new JsonReader(JSON_STORE);
-        jsonWriter = new JsonWriter(JSON_STORE);
+        store = new JournaledStore(JSON_STORE);
+        addEventLogFileSink();
+    }
+
+    // MODIFIES: EventLog
+    // EFFECTS: appends events logged from now on to the event log file, in the background
+    private void addEventLogFileSink() {
+        EventLogFileSink sink = new EventLogFileSink(EVENT_LOG_FILE);
+        try {
+            sink.open();
+            EventLog.getInstance().addSink(sink);
+        } catch (IOException e) {
+            System.out.println("Unable to open " + EVENT_LOG_FILE);
+        }
     }
 
     // Reference: method from https://github.students.cs.ubc.ca/CPSC210/SimpleDrawingPlayer-Complete
@@ -131,7 +142,7 @@ public class StudyTrackerGUI extends JFrame {
     // EFFECTS: loads tracker from file
     private void loadStudyTracker() {
         try {
-            tracker = jsonReader.read();
+            tracker = store.load();
             System.out.println("Loaded study tracker from " + JSON_STORE + "!");
         } catch (IOException e) {
             System.out.println("Unable to read " + JSON_STORE);
@@ -141,11 +152,9 @@ public class StudyTrackerGUI extends JFrame {
     // EFFECTS: save the tracker to file
     private void saveStudyTracker() {
         try {
-            jsonWriter.open();
-            jsonWriter.write(tracker);
-            jsonWriter.close();
+            store.save(tracker);
             System.out.println("Saved tracker to " + JSON_STORE + "!");
-        } catch (FileNotFoundException e) {
+        } catch (IOException e) {
             System.out.println("Unable to write to " + JSON_STORE);
         }
     }
@@ -191,13 +200,24 @@ public class StudyTrackerGUI extends JFrame {
         }
 
         // EFFECTS: checks if timer settings changed
-        // then prints all events in event log before exiting system / ending program
+        // then prints all events in event log and flushes event log sinks and closes the tracker store before exiting
+        // system / ending program
         @Override
         public void windowClosing(WindowEvent e) {
             for (Event next : EventLog.getInstance()) {
                 System.out.println(next);
                 System.out.println();
             }
+            try {
+                EventLog.getInstance().closeSinks();
+            } catch (IOException err) {
+                System.out.println("Unable to write to " + EVENT_LOG_FILE);
+            }
+            try {
+                store.close();
+            } catch (IOException err) {
+                System.out.println("Unable to write to " + JSON_STORE);
+            }
         }
 
         // EFFECTS: exits the system / ends the program
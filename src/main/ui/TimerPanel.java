@@ -1,12 +1,14 @@
 package ui;
 
 import model.PomodoroTimer;
+import model.PomodoroTimerListener;
+import model.PomodoroTimerState;
+import model.PomodoroTimerTickListener;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.TimerTask;
 
 // Represents a pomodoro timer panel
 public class TimerPanel extends JPanel {
@@ -36,8 +38,10 @@ public class TimerPanel extends JPanel {
     // MODIFIES: this
     // EFFECTS: starts the pomodoro timer, continues until user stops the timer
     public void runTimer() {
-        TimerTask task = new TimerPanelTimerTask();
-        timer.start(task);
+        TimerPanelListener listener = new TimerPanelListener();
+        timer.addListener(listener);
+        timer.addTickListener(listener);
+        timer.start(null);
     }
 
     // MODIFIES: this
@@ -143,55 +147,77 @@ public class TimerPanel extends JPanel {
         }
     }
 
-    // Represents task to be executed when the pomodoro timer is running
-    private class TimerPanelTimerTask extends TimerTask {
+    // Represents a listener that updates the panel as the pomodoro timer runs. The timer notifies it on the timer's
+    // thread, so it hands each update over to the event dispatch thread
+    private class TimerPanelListener implements PomodoroTimerListener, PomodoroTimerTickListener {
 
         // EFFECTS: adds seedling to sunflower field and sets JLabel fields to initial timer values
-        public TimerPanelTimerTask() {
+        public TimerPanelListener() {
             addSeedling();
             updateTextFields();
         }
 
         // MODIFIES: this
-        // EFFECTS: if timer is not paused, decrements timer, updates JLabel fields
-        // and sunflower field according to current timer
+        // EFFECTS: updates the time remaining
         @Override
-        public void run() {
-            updateTextFields();
-            updateSunflowerField();
+        public void onTick(PomodoroTimer timer) {
+            SwingUtilities.invokeLater(() -> timeRemaining.setText(prettyTime(timer.getTimeRemaining())));
         }
 
         // Seedling is added to the sunflower field at the start of a pomodoro interval.
+        // MODIFIES: this
+        // EFFECTS: updates JLabel fields and, if started interval is pomodoro, adds seedling to field
+        @Override
+        public void onIntervalStarted(PomodoroTimer timer, String name) {
+            SwingUtilities.invokeLater(() -> {
+                updateTextFields();
+                if (name.equals(PomodoroTimer.POMODORO_INTERVAL)) {
+                    addSeedling();
+                }
+            });
+        }
+
         // At the end the pomodoro, the seedling is replaced with a sunflower
         // MODIFIES: this
-        // EFFECTS: if current interval is pomodoro and last component in field is a sunflower,
-        //              add seedling to field
-        //          if current interval is not pomodoro and the last component in the field is a seedling,
-        //              last component is replaced with a sunflower
-        private void updateSunflowerField() {
-            JLabel last = (JLabel) sunflowerField.getComponent(sunflowerField.getComponentCount() - 1);
-
-            if (timer.getCurrentInterval().equals(PomodoroTimer.POMODORO_INTERVAL)
-                    && last.getName().equals("sunflower")) {
-                addSeedling();
-                return;
+        // EFFECTS: if completed interval is pomodoro, replaces the last seedling in field with a sunflower
+        @Override
+        public void onIntervalCompleted(PomodoroTimer timer, String name) {
+            if (name.equals(PomodoroTimer.POMODORO_INTERVAL)) {
+                SwingUtilities.invokeLater(() -> {
+                    sunflowerField.remove(sunflowerField.getComponentCount() - 1);
+                    addSunflower();
+                });
             }
+        }
 
-            if (!timer.getCurrentInterval().equals(PomodoroTimer.POMODORO_INTERVAL)
-                    && last.getName().equals("seedling")) {
-                sunflowerField.remove(last);
-                addSunflower();
-            }
+        @Override
+        public void onCycleCompleted(PomodoroTimer timer, int cycles) {
+            // the cycle number is updated when the long break starts
+        }
+
+        // MODIFIES: this
+        // EFFECTS: marks the interval as paused
+        @Override
+        public void onPaused(PomodoroTimer timer) {
+            SwingUtilities.invokeLater(() -> interval.setText(timer.getCurrentInterval() + " (paused)"));
+        }
+
+        // MODIFIES: this
+        // EFFECTS: updates JLabel fields, which removes the paused mark
+        @Override
+        public void onResumed(PomodoroTimer timer) {
+            SwingUtilities.invokeLater(this::updateTextFields);
         }
 
         // MODIFIES: this
         // EFFECTS: sets fields according to current timer
         private void updateTextFields() {
-            interval.setText(timer.getCurrentInterval());
-            timeRemaining.setText(prettyTime(timer.getTimeRemaining()));
-            cycleNumber.setText("Cycle #" + (timer.getTotalCycles() + 1));
-            repeatsRemaining.setText("Pomodoros left until long break: " + timer.getRepeatsRemaining());
-            totalPomodorosCompleted.setText("Total pomodoros completed: " + timer.getTotalPomodoroIntervals()
+            PomodoroTimerState state = timer.getState();
+            interval.setText(state.getInterval());
+            timeRemaining.setText(prettyTime(state.getTimeRemaining()));
+            cycleNumber.setText("Cycle #" + (state.getTotalPomodoroIntervals() / timer.getPomodoroRepeats() + 1));
+            repeatsRemaining.setText("Pomodoros left until long break: " + state.getRepeatsRemaining());
+            totalPomodorosCompleted.setText("Total pomodoros completed: " + state.getTotalPomodoroIntervals()
                     + " x " + timer.getPomodoroDuration() / 60 + " min");
         }
 
@@ -201,6 +227,7 @@ public class TimerPanel extends JPanel {
             JLabel seedlingLabel = new JLabel(seedling);
             seedlingLabel.setName("seedling");
             sunflowerField.add(seedlingLabel);
+            sunflowerField.revalidate();
         }
 
         // MODIFIES: this
@@ -209,6 +236,7 @@ public class TimerPanel extends JPanel {
             JLabel sunflowerLabel = new JLabel(sunflower);
             sunflowerLabel.setName("sunflower");
             sunflowerField.add(sunflowerLabel);
+            sunflowerField.revalidate();
         }
     }
 }
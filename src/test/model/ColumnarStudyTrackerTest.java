@@ -0,0 +1,342 @@
+package model;
+
+import model.exception.OverlappingSessionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static java.time.LocalDateTime.parse;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarStudyTrackerTest {
+    ColumnarStudyTracker testTracker;
+    Activity a1;
+    Activity a2;
+    Session s1;
+    Session s2;
+    PomodoroSession s3;
+    Session s4;
+
+    @BeforeEach
+    void setUp() {
+        testTracker = new ColumnarStudyTracker();
+        a1 = new Activity("CPSC210");
+        a2 = new Activity("Read book");
+        testTracker.addActivity(a1);
+        testTracker.addActivity(a2);
+        s1 = new Session("finished lab 5", parse("2022-02-07T14:00"), parse("2022-02-07T16:30"), a1);
+        s2 = new Session("do lecture", parse("2022-02-07T14:00"), parse("2022-02-07T16:30:00.5"), a2);
+        s3 = new PomodoroSession("read chapter 1", parse("2022-02-07T16:00"), parse("2022-02-07T18:30"),
+                PomodoroTimerSettings.of(50, 10, 30, 2), 100, a1);
+        s4 = new Session("late night", parse("1969-12-31T23:59:30.5"), parse("1970-01-01T00:10:01"), null);
+    }
+
+    @Test
+    void testAddSession() {
+        testTracker.addSession(s3);
+        testTracker.addSession(s1);
+        testTracker.addSession(s4);
+
+        List<Session> sessions = testTracker.getSessions();
+        assertEquals(3, sessions.size());
+        checkSession(s3, sessions.get(0));
+        checkSession(s1, sessions.get(1));
+        checkSession(s4, sessions.get(2));
+        assertSame(a1, sessions.get(0).getActivity());
+        assertSame(s3.getTimerSettings(), ((PomodoroSession) sessions.get(0)).getTimerSettings());
+        assertFalse(sessions.get(1) instanceof PomodoroSession);
+    }
+
+    @Test
+    void testCopyConstructor() {
+        StudyTracker source = new StudyTracker();
+        source.setTimerSettings(PomodoroTimerSettings.of(30, 5, 22, 2));
+        source.addActivity(a1);
+        source.addSession(s1);
+        source.addSession(s3);
+        source.setRejectOverlappingSessions(true);
+
+        ColumnarStudyTracker copy = new ColumnarStudyTracker(source);
+        assertEquals(source.getTimerSettings(), copy.getTimerSettings());
+        assertEquals(1, copy.getActivities().size());
+        assertSame(a1, copy.findActivity("CPSC210"));
+        assertEquals(2, copy.getSessions().size());
+        checkSession(s3, copy.getSessions().get(1));
+        assertTrue(copy.isRejectingOverlappingSessions());
+    }
+
+    @Test
+    void testRemoveSession() {
+        testTracker.addSession(s1);
+        testTracker.addSession(s2);
+        testTracker.addSession(s3);
+
+        testTracker.removeSession(new Session("finished lab 5", s1.getStart(), s1.getEnd(), a1));
+        assertEquals(2, testTracker.getSessions().size());
+        checkSession(s2, testTracker.getSessions().get(0));
+        checkSession(s3, testTracker.getSessions().get(1));
+        checkSession(s2, testTracker.getSessionsOn(LocalDate.parse("2022-02-07")).get(0));
+
+        testTracker.removeSession(s1);
+        testTracker.removeSession(new Session("other", s2.getStart(), s2.getEnd(), a2));
+        assertEquals(2, testTracker.getSessions().size());
+
+        testTracker.removeSession(testTracker.getSessions().get(1));
+        testTracker.removeSession(s2);
+        assertTrue(testTracker.getSessions().isEmpty());
+        assertEquals(0, testTracker.getTotalMinutes());
+    }
+
+    @Test
+    void testFilterSessionByActivity() {
+        testTracker.addSession(s1);
+        testTracker.addSession(s2);
+        testTracker.addSession(s3);
+        testTracker.addSession(s4);
+
+        List<Session> filtered = testTracker.filterSessionsByActivity(a1);
+        assertEquals(2, filtered.size());
+        checkSession(s1, filtered.get(0));
+        checkSession(s3, filtered.get(1));
+        assertEquals(1, testTracker.filterSessionsByActivity(new Activity("Read book")).size());
+        checkSession(s4, testTracker.filterSessionsByActivity(null).get(0));
+        assertTrue(testTracker.filterSessionsByActivity(new Activity("unknown")).isEmpty());
+
+        testTracker.removeSession(s1);
+        try {
+            filtered.get(0);
+            fail("ConcurrentModificationException was not thrown");
+        } catch (ConcurrentModificationException e) {
+            // expected
+        }
+        try {
+            testTracker.filterSessionsByActivity(a1).add(s2);
+            fail("UnsupportedOperationException was not thrown");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testGetSessionsBetween() {
+        testTracker.addSession(s3);
+        testTracker.addSession(s4);
+        testTracker.addSession(s1);
+        testTracker.addSession(s2);
+
+        List<Session> between = testTracker.getSessionsBetween(parse("2022-02-07T14:00"), parse("2022-02-07T16:00"));
+        assertEquals(2, between.size());
+        checkSession(s1, between.get(0));
+        checkSession(s2, between.get(1));
+
+        between = testTracker.getSessionsBetween(LocalDateTime.MIN, parse("2022-02-07T16:00:00.000000001"));
+        assertEquals(4, between.size());
+        checkSession(s4, between.get(0));
+        checkSession(s3, between.get(3));
+        assertTrue(testTracker.getSessionsBetween(parse("2022-02-09T00:00"), LocalDateTime.MAX).isEmpty());
+    }
+
+    @Test
+    void testGetSessionsNewestFirst() {
+        testTracker.addSession(s1);
+        testTracker.addSession(s4);
+        testTracker.addSession(s3);
+        testTracker.addSession(s2);
+
+        List<Session> newestFirst = new ArrayList<>();
+        for (Session s : testTracker.getSessionsNewestFirst()) {
+            newestFirst.add(s);
+        }
+        assertEquals(4, newestFirst.size());
+        checkSession(s3, newestFirst.get(0));
+        checkSession(s1, newestFirst.get(1));
+        checkSession(s2, newestFirst.get(2));
+        checkSession(s4, newestFirst.get(3));
+
+        Iterator<Session> iterator = testTracker.getSessionsNewestFirst().iterator();
+        testTracker.removeSession(s3);
+        try {
+            iterator.next();
+            fail("ConcurrentModificationException was not thrown");
+        } catch (ConcurrentModificationException e) {
+            // expected
+        }
+        checkSession(s1, testTracker.getSessionsNewestFirst().iterator().next());
+    }
+
+    @Test
+    void testFindOverlapping() {
+        testTracker.addSession(s1);
+        testTracker.addSession(s2);
+        testTracker.addSession(s3);
+        testTracker.addSession(s4);
+
+        List<Session> overlapping = testTracker.findOverlapping(s1);
+        assertEquals(2, overlapping.size());
+        checkSession(s2, overlapping.get(0));
+        checkSession(s3, overlapping.get(1));
+        assertTrue(testTracker.findOverlapping(s4).isEmpty());
+
+        Session after = new Session("after", parse("2022-02-07T16:30"), parse("2022-02-07T19:00"), a2);
+        overlapping = testTracker.findOverlapping(after);
+        assertEquals(2, overlapping.size());
+        checkSession(s2, overlapping.get(0));
+        checkSession(s3, overlapping.get(1));
+    }
+
+    @Test
+    void testFindOverlappingMatchesStudyTracker() {
+        StudyTracker expected = new StudyTracker();
+        Random random = new Random(210);
+        List<Session> added = new ArrayList<>();
+        LocalDateTime base = parse("2022-01-01T00:00");
+        for (int i = 0; i < 500; i++) {
+            LocalDateTime start = base.plusMinutes(random.nextInt(20000));
+            Session s = new Session("s" + i, start, start.plusMinutes(1 + random.nextInt(600)), a1);
+            expected.addSession(s);
+            testTracker.addSession(s);
+            added.add(s);
+            if (i % 5 == 4) {
+                Session removed = added.remove(random.nextInt(added.size()));
+                expected.removeSession(removed);
+                testTracker.removeSession(removed);
+            }
+        }
+        for (Session s : added) {
+            List<Session> overlapping = testTracker.findOverlapping(s);
+            assertEquals(expected.findOverlapping(s).size(), overlapping.size());
+            for (int i = 1; i < overlapping.size(); i++) {
+                assertFalse(overlapping.get(i).getStart().isBefore(overlapping.get(i - 1).getStart()));
+            }
+        }
+    }
+
+    @Test
+    void testAddSessionRejectOverlappingManySessions() {
+        testTracker.setRejectOverlappingSessions(true);
+        LocalDateTime start = parse("2022-01-01T00:00");
+        for (int i = 0; i < 1000; i++) {
+            testTracker.addSession(new Session("s" + i, start.plusHours(i), start.plusHours(i).plusMinutes(30), a1));
+        }
+        testTracker.removeSession(new Session("s500", start.plusHours(500), start.plusHours(500).plusMinutes(30), a1));
+        testTracker.addSession(new Session("in gap", start.plusHours(500), start.plusHours(501), a2));
+        for (int hour : new int[] {0, 250, 500, 999}) {
+            try {
+                testTracker.addSession(new Session("x", start.plusHours(hour).plusMinutes(29), start.plusDays(90), a2));
+                fail("OverlappingSessionException was not thrown");
+            } catch (OverlappingSessionException e) {
+                // expected
+            }
+        }
+        testTracker.addSession(new Session("last", start.plusHours(999).plusMinutes(30), start.plusDays(90), a2));
+        assertEquals(1001, testTracker.getSessions().size());
+    }
+
+    @Test
+    void testGetTotalMinutes() {
+        testTracker.addSession(s1);
+        testTracker.addSession(s2);
+        testTracker.addSession(s3);
+        testTracker.addSession(s4);
+        testTracker.addSession(new Session("break", parse("2022-02-09T10:00:00.9"), parse("2022-02-09T10:20:00.1"),
+                null));
+
+        assertEquals(150 + 150 + 150 + 10 + 19, testTracker.getTotalMinutes());
+        assertEquals(300, testTracker.getTotalMinutes(a1));
+        assertEquals(150, testTracker.getTotalMinutes(a2));
+        assertEquals(29, testTracker.getTotalMinutes(null));
+        assertEquals(0, testTracker.getTotalMinutes(new Activity("unknown")));
+    }
+
+    @Test
+    void testAddSessionRejectOverlapping() {
+        testTracker.setRejectOverlappingSessions(true);
+        testTracker.addSession(s1);
+        try {
+            testTracker.addSession(s2);
+            fail("OverlappingSessionException was not thrown");
+        } catch (OverlappingSessionException e) {
+            // expected
+        }
+        assertEquals(1, testTracker.getSessions().size());
+
+        testTracker.addSession(new Session("right after", parse("2022-02-07T16:30"), parse("2022-02-07T17:00"), a2));
+        assertEquals(2, testTracker.getSessions().size());
+    }
+
+    @Test
+    void testObserver() {
+        List<String> changes = new ArrayList<>();
+        testTracker.addObserver(new StudyTrackerObserver() {
+            @Override
+            public void activityAdded(Activity a) {
+                changes.add("activity " + a.getName());
+            }
+
+            @Override
+            public void sessionAdded(Session s) {
+                changes.add("add " + s.getDetails());
+            }
+
+            @Override
+            public void sessionRemoved(Session s, int index) {
+                changes.add("remove " + s.getDetails() + " at " + index);
+            }
+
+            @Override
+            public void sessionChanged(Session s, int index) {
+                changes.add("change " + s.getDetails() + " at " + index);
+            }
+
+            @Override
+            public void timerSettingsChanged(PomodoroTimerSettings settings) {
+                changes.add("settings " + settings.getPomodoro());
+            }
+        });
+        testTracker.addSession(s1);
+        testTracker.addSession(s2);
+        testTracker.removeSession(s2);
+        testTracker.removeSession(s2);
+        assertEquals(Arrays.asList("add finished lab 5", "add do lecture", "remove do lecture at 1"), changes);
+    }
+
+    @Test
+    void testManySessions() {
+        LocalDateTime start = parse("2022-01-01T00:00");
+        for (int i = 0; i < 1000; i++) {
+            LocalDateTime next = start.plusMinutes(30L * ((i * 7) % 1000));
+            testTracker.addSession(new Session("s" + i, next, next.plusMinutes(25), i % 2 == 0 ? a1 : a2));
+        }
+        assertEquals(1000, testTracker.getSessions().size());
+        assertEquals(25 * 1000, testTracker.getTotalMinutes());
+        assertEquals(25 * 500, testTracker.getTotalMinutes(a2));
+        LocalDateTime previous = LocalDateTime.MAX;
+        for (Session s : testTracker.getSessionsNewestFirst()) {
+            assertTrue(s.getStart().isBefore(previous));
+            previous = s.getStart();
+        }
+        assertEquals(start, previous);
+    }
+
+    // EFFECTS: checks that actual has the same values as expected
+    private void checkSession(Session expected, Session actual) {
+        assertEquals(expected.getDetails(), actual.getDetails());
+        assertEquals(expected.getStart(), actual.getStart());
+        assertEquals(expected.getEnd(), actual.getEnd());
+        assertEquals(expected.getActivityName(), actual.getActivityName());
+        assertEquals(expected instanceof PomodoroSession, actual instanceof PomodoroSession);
+        if (expected instanceof PomodoroSession) {
+            PomodoroSession pomodoro = (PomodoroSession) expected;
+            assertEquals(pomodoro.getTimerSettings(), ((PomodoroSession) actual).getTimerSettings());
+            assertEquals(pomodoro.getPomodoroMinutes(), ((PomodoroSession) actual).getPomodoroMinutes());
+        }
+    }
+}
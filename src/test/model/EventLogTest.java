@@ -0,0 +1,123 @@
+package model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static model.EventLog.ReadEventPolicy.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventLogTest {
+    EventLog testLog;
+
+    @BeforeEach
+    void setUp() {
+        testLog = EventLog.getInstance();
+        testLog.setReadEventPolicy(LOG_ALL);
+        testLog.setReadSampleInterval(1);
+        testLog.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        testLog.configure(EventLog.DEFAULT_CAPACITY, EventRingBuffer.OverflowPolicy.OVERWRITE);
+        testLog.setReadEventPolicy(LOG_ALL);
+        testLog.setReadSampleInterval(1);
+    }
+
+    @Test
+    void testLogEvent() {
+        Event e = new Event("Activity added to study tracker");
+        testLog.logEvent(e);
+        assertEquals(2, countEvents());
+        assertTrue(contains(e.getDescription()));
+    }
+
+    @Test
+    void testGetInstance() {
+        assertSame(testLog, EventLog.getInstance());
+        assertEquals(EventLog.DEFAULT_CAPACITY, testLog.getCapacity());
+        assertEquals(EventRingBuffer.OverflowPolicy.OVERWRITE, testLog.getOverflowPolicy());
+    }
+
+    @Test
+    void testConfigure() {
+        testLog.configure(2, EventRingBuffer.OverflowPolicy.DROP);
+        assertEquals(2, testLog.getCapacity());
+        assertEquals(EventRingBuffer.OverflowPolicy.DROP, testLog.getOverflowPolicy());
+        assertEquals(0, countEvents());
+
+        testLog.logEvent(new Event("e1"));
+        testLog.logEvent(new Event("e2"));
+        testLog.logEvent(new Event("e3"));
+        assertEquals(2, countEvents());
+        assertEquals(1, testLog.getDroppedCount());
+        assertFalse(contains("e3"));
+    }
+
+    @Test
+    void testLogReadEventLogAll() {
+        assertEquals(LOG_ALL, testLog.getReadEventPolicy());
+        for (int i = 0; i < 5; i++) {
+            testLog.logReadEvent("Viewed all sessions");
+        }
+        assertEquals(6, countEvents());
+    }
+
+    @Test
+    void testLogReadEventSample() {
+        testLog.setReadEventPolicy(SAMPLE);
+        testLog.setReadSampleInterval(10);
+        assertEquals(SAMPLE, testLog.getReadEventPolicy());
+        assertEquals(10, testLog.getReadSampleInterval());
+
+        for (int i = 0; i < 25; i++) {
+            testLog.logReadEvent("Viewed all sessions");
+        }
+        assertEquals(4, countEvents());
+    }
+
+    @Test
+    void testLogReadEventDrop() {
+        testLog.setReadEventPolicy(DROP);
+        testLog.logReadEvent("Viewed all sessions");
+        testLog.logEvent(new Event("Session removed from study tracker"));
+        assertEquals(2, countEvents());
+        assertFalse(contains("Viewed all sessions"));
+        assertTrue(contains("Session removed from study tracker"));
+    }
+
+    @Test
+    void testStudyTrackerReadsAndMutations() {
+        testLog.setReadEventPolicy(DROP);
+        StudyTracker tracker = new StudyTracker();
+        tracker.addActivity(new Activity("a1"));
+        tracker.getSessions();
+        tracker.filterSessionsByActivity(null);
+        assertEquals(2, countEvents());
+
+        testLog.setReadEventPolicy(LOG_ALL);
+        tracker.toJson();
+        tracker.getSessionsWithoutLogging();
+        assertEquals(2, countEvents());
+        tracker.getSessions();
+        assertEquals(3, countEvents());
+    }
+
+    private int countEvents() {
+        int count = 0;
+        for (Event e : testLog) {
+            count++;
+        }
+        return count;
+    }
+
+    private boolean contains(String description) {
+        for (Event e : testLog) {
+            if (e.getDescription().equals(description)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,135 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static model.EventRingBuffer.OverflowPolicy.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventRingBufferTest {
+    EventRingBuffer testBuffer;
+
+    @Test
+    void testConstructor() {
+        testBuffer = new EventRingBuffer(3, OVERWRITE);
+        assertEquals(3, testBuffer.getCapacity());
+        assertEquals(OVERWRITE, testBuffer.getOverflowPolicy());
+        assertEquals(0, testBuffer.size());
+        assertEquals(0, testBuffer.getDroppedCount());
+        assertTrue(testBuffer.snapshot().isEmpty());
+    }
+
+    @Test
+    void testAppendOverwrite() {
+        testBuffer = new EventRingBuffer(3, OVERWRITE);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(testBuffer.append(new Event("e" + i)));
+        }
+        assertEquals(3, testBuffer.size());
+        assertEquals(0, testBuffer.getDroppedCount());
+        List<Event> events = testBuffer.snapshot();
+        assertEquals("e2", events.get(0).getDescription());
+        assertEquals("e3", events.get(1).getDescription());
+        assertEquals("e4", events.get(2).getDescription());
+    }
+
+    @Test
+    void testAppendDrop() {
+        testBuffer = new EventRingBuffer(3, DROP);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(testBuffer.append(new Event("e" + i)));
+        }
+        assertFalse(testBuffer.append(new Event("e3")));
+        assertEquals(3, testBuffer.size());
+        assertEquals(1, testBuffer.getDroppedCount());
+        assertEquals("e0", testBuffer.snapshot().get(0).getDescription());
+        assertEquals("e2", testBuffer.snapshot().get(2).getDescription());
+    }
+
+    @Test
+    void testClear() {
+        testBuffer = new EventRingBuffer(3, DROP);
+        testBuffer.append(new Event("e0"));
+        testBuffer.append(new Event("e1"));
+        testBuffer.append(new Event("e2"));
+        testBuffer.clear();
+        assertEquals(0, testBuffer.size());
+        assertTrue(testBuffer.snapshot().isEmpty());
+
+        assertTrue(testBuffer.append(new Event("e3")));
+        assertEquals(1, testBuffer.size());
+        assertEquals("e3", testBuffer.snapshot().get(0).getDescription());
+    }
+
+    @Test
+    void testIteratorIsSnapshot() {
+        testBuffer = new EventRingBuffer(3, OVERWRITE);
+        testBuffer.append(new Event("e0"));
+        int count = 0;
+        for (Event e : testBuffer) {
+            testBuffer.append(new Event("appended while iterating"));
+            count++;
+        }
+        assertEquals(1, count);
+        assertEquals(2, testBuffer.size());
+    }
+
+    @Test
+    void testConcurrentAppendOverwrite() throws InterruptedException {
+        testBuffer = new EventRingBuffer(1000, OVERWRITE);
+        appendConcurrently(8, 5000);
+        List<Event> events = testBuffer.snapshot();
+        assertEquals(1000, events.size());
+        assertEquals(1000, new HashSet<>(events).size());
+    }
+
+    @Test
+    void testConcurrentAppendDrop() throws InterruptedException {
+        testBuffer = new EventRingBuffer(1000, DROP);
+        appendConcurrently(8, 5000);
+        assertEquals(1000, testBuffer.snapshot().size());
+        assertEquals(8 * 5000 - 1000, testBuffer.getDroppedCount());
+    }
+
+    @Test
+    void testSnapshotWhileAppending() throws InterruptedException {
+        testBuffer = new EventRingBuffer(100, OVERWRITE);
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 100000; i++) {
+                testBuffer.append(new Event("e" + i));
+            }
+        });
+        producer.start();
+        while (producer.isAlive()) {
+            Set<Event> seen = new HashSet<>();
+            for (Event e : testBuffer) {
+                assertNotNull(e);
+                assertTrue(seen.add(e));
+            }
+            assertTrue(seen.size() <= 100);
+        }
+        producer.join();
+    }
+
+    private void appendConcurrently(int numThreads, int eventsPerThread) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            String name = "t" + t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < eventsPerThread; i++) {
+                    testBuffer.append(new Event(name + "-" + i));
+                }
+            }));
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventTest {
+    private static final Instant NOW = Instant.parse("2022-02-07T14:00:00Z");
+    private Clock systemClock;
+
+    @BeforeEach
+    void setUp() {
+        systemClock = Event.getClock();
+        Event.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void tearDown() {
+        Event.setClock(systemClock);
+    }
+
+    @Test
+    void testConstructorUsesClock() {
+        Event e = new Event("Activity added to study tracker");
+        assertEquals("Activity added to study tracker", e.getDescription());
+        assertEquals(NOW.toEpochMilli(), e.getTimestamp());
+        assertEquals(NOW, e.getInstant());
+        assertEquals(Date.from(NOW), e.getDate());
+        assertSame(e.getDate(), e.getDate());
+    }
+
+    @Test
+    void testConstructorWithTimestamp() {
+        Event e = new Event("Session removed from study tracker", 1000L);
+        assertEquals(1000L, e.getTimestamp());
+        assertEquals(new Date(1000L), e.getDate());
+    }
+
+    @Test
+    void testClockAdvances() {
+        Event.setClock(Clock.offset(Event.getClock(), Duration.ofSeconds(5)));
+        assertEquals(NOW.plusSeconds(5).toEpochMilli(), new Event("later").getTimestamp());
+    }
+
+    @Test
+    void testEqualsAndHashCode() {
+        Event e1 = new Event("Viewed all sessions");
+        Event e2 = new Event("Viewed all sessions");
+        assertEquals(e1, e2);
+        assertEquals(e1.hashCode(), e2.hashCode());
+        assertNotEquals(e1, new Event("Viewed all sessions", NOW.toEpochMilli() + 1));
+        assertNotEquals(e1, new Event("Session added to study tracker"));
+        assertFalse(e1.equals(null));
+        assertFalse(e1.equals("Viewed all sessions"));
+    }
+
+    @Test
+    void testToString() {
+        Event e = new Event("Viewed all sessions");
+        assertEquals(Date.from(NOW) + "\nViewed all sessions", e.toString());
+    }
+}
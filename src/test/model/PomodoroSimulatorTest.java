@@ -0,0 +1,81 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PomodoroSimulatorTest {
+    PomodoroSimulator testSimulator;
+    PomodoroTimerSettings settings1;
+    PomodoroTimerSettings settings2;
+
+    @BeforeEach
+    void setUp() {
+        testSimulator = new PomodoroSimulator();
+        settings1 = PomodoroTimerSettings.of(25, 5, 25, 4);   // 140 min cycle
+        settings2 = PomodoroTimerSettings.of(50, 10, 30, 2);  // 140 min cycle
+    }
+
+    @Test
+    void testConstructor() {
+        assertTrue(testSimulator.getProjections().isEmpty());
+    }
+
+    @Test
+    void testAdvance() {
+        testSimulator.addSchedule(settings1);
+        testSimulator.addSchedule(settings2);
+        assertEquals(0, testSimulator.advance(0));
+        checkProjection(settings1, 0, 0, 0, testSimulator.getProjections().get(0));
+
+        assertEquals(8 + 4, testSimulator.advance(140 + 20));
+        List<PomodoroProjection> projections = testSimulator.getProjections();
+        assertEquals(2, projections.size());
+        checkProjection(settings1, 4, 1, 100 + 20, projections.get(0));
+        checkProjection(settings2, 2, 1, 100 + 20, projections.get(1));
+
+        testSimulator.advance(10);
+        checkProjection(settings1, 5, 1, 125, testSimulator.getProjections().get(0));
+    }
+
+    @Test
+    void testSimulateManySchedulesForADay() {
+        List<PomodoroTimerSettings> schedules = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            schedules.add(PomodoroTimerSettings.of(20 + i % 40, 5, 15 + i % 20, 1 + i % 6));
+        }
+        List<PomodoroProjection> projections = PomodoroSimulator.simulate(schedules, 24 * 60);
+
+        assertEquals(schedules.size(), projections.size());
+        for (PomodoroProjection projection : projections) {
+            PomodoroTimerSettings settings = projection.getSettings();
+            int cycleMinutes = settings.getPomodoroRepeats() * (settings.getPomodoro() + settings.getShortBreak())
+                    - settings.getShortBreak() + settings.getLongBreak();
+            int inLastCycle = 24 * 60 % cycleMinutes;  // a cycle is completed once its long break starts
+            int cycles = 24 * 60 / cycleMinutes + (inLastCycle >= cycleMinutes - settings.getLongBreak() ? 1 : 0);
+            assertEquals(cycles, projection.getCycles());
+            assertTrue(projection.getPomodoros() >= projection.getCycles() * settings.getPomodoroRepeats());
+            assertTrue(projection.getPomodoroMinutes() >= projection.getPomodoros() * settings.getPomodoro());
+        }
+    }
+
+    @Test
+    void testSimulateNoTime() {
+        List<PomodoroProjection> projections = PomodoroSimulator.simulate(Arrays.asList(settings1, settings2), 0);
+        checkProjection(settings2, 0, 0, 0, projections.get(1));
+    }
+
+    // EFFECTS: checks that projection has given settings, pomodoros, cycles and pomodoro minutes
+    private void checkProjection(PomodoroTimerSettings settings, int pomodoros, int cycles, int pomodoroMinutes,
+                                 PomodoroProjection projection) {
+        assertSame(settings, projection.getSettings());
+        assertEquals(pomodoros, projection.getPomodoros());
+        assertEquals(cycles, projection.getCycles());
+        assertEquals(pomodoroMinutes, projection.getPomodoroMinutes());
+    }
+}
@@ -50,20 +50,39 @@ public class PomodoroTimerSettingsTest {
         PomodoroTimerSettings s2 = new PomodoroTimerSettings(5, 5, 5, 5);
         assertNotEquals(s2, s1);
         assertNotEquals(s2.hashCode(), s1.hashCode());
-        s2.setPomodoro(DEFAULT_POMODORO);
+        s2 = s2.withPomodoro(DEFAULT_POMODORO);
         assertNotEquals(s2, s1);
         assertNotEquals(s2.hashCode(), s1.hashCode());
-        s2.setShortBreak(DEFAULT_SHORT_BREAK);
+        s2 = s2.withShortBreak(DEFAULT_SHORT_BREAK);
         assertNotEquals(s2, s1);
         assertNotEquals(s2.hashCode(), s1.hashCode());
-        s2.setLongBreak(DEFAULT_LONG_BREAK);
+        s2 = s2.withLongBreak(DEFAULT_LONG_BREAK);
         assertNotEquals(s2, s1);
         assertNotEquals(s2.hashCode(), s1.hashCode());
-        s2.setPomodoroRepeats(DEFAULT_REPEATS);
+        s2 = s2.withPomodoroRepeats(DEFAULT_REPEATS);
         assertEquals(s2, s1);
         assertEquals(s2.hashCode(), s1.hashCode());
     }
 
+    @Test
+    void testOfReturnsCanonicalInstance() {
+        PomodoroTimerSettings s1 = PomodoroTimerSettings.of(50, 10, 30, 2);
+        assertSame(s1, PomodoroTimerSettings.of(50, 10, 30, 2));
+        assertSame(s1, PomodoroTimerSettings.intern(new PomodoroTimerSettings(50, 10, 30, 2)));
+        assertSame(s1, PomodoroTimerSettings.of(25, 10, 30, 2).withPomodoro(50));
+        assertNotSame(s1, PomodoroTimerSettings.of(50, 10, 30, 3));
+        assertEquals(50, s1.getPomodoro());
+    }
+
+    @Test
+    void testWithLeavesOriginalUnchanged() {
+        PomodoroTimerSettings changed = testSettings.withShortBreak(7).withLongBreak(40);
+        assertEquals(7, changed.getShortBreak());
+        assertEquals(40, changed.getLongBreak());
+        assertEquals(DEFAULT_SHORT_BREAK, testSettings.getShortBreak());
+        assertEquals(DEFAULT_LONG_BREAK, testSettings.getLongBreak());
+    }
+
     @Test
     void testConstructorNonPositiveValues() {
         try {
@@ -75,11 +94,11 @@ public class PomodoroTimerSettingsTest {
     }
 
     @Test
-    void testSettersWithPositiveValues() {
-        testSettings.setPomodoro(50);
-        testSettings.setShortBreak(15);
-        testSettings.setLongBreak(15);
-        testSettings.setPomodoroRepeats(2);
+    void testWithPositiveValues() {
+        testSettings = testSettings.withPomodoro(50);
+        testSettings = testSettings.withShortBreak(15);
+        testSettings = testSettings.withLongBreak(15);
+        testSettings = testSettings.withPomodoroRepeats(2);
 
         assertEquals(50, testSettings.getPomodoro());
         assertEquals(15, testSettings.getShortBreak());
@@ -88,9 +107,9 @@ public class PomodoroTimerSettingsTest {
     }
 
     @Test
-    void testSetPomodoroWithNonPositiveValues() {
+    void testWithPomodoroWithNonPositiveValues() {
         try {
-            testSettings.setPomodoro(0);
+            testSettings.withPomodoro(0);
             fail();
         } catch (NonPositiveValueException e) {
             // expected
@@ -99,9 +118,9 @@ public class PomodoroTimerSettingsTest {
     }
 
     @Test
-    void testSetShortBreakWithNonPositiveValues() {
+    void testWithShortBreakWithNonPositiveValues() {
         try {
-            testSettings.setShortBreak(-1);
+            testSettings.withShortBreak(-1);
             fail();
         } catch (NonPositiveValueException e) {
             // expected
@@ -110,9 +129,9 @@ public class PomodoroTimerSettingsTest {
     }
 
     @Test
-    void testSetLongBreakWithNonPositiveValues() {
+    void testWithLongBreakWithNonPositiveValues() {
         try {
-            testSettings.setLongBreak(-1);
+            testSettings.withLongBreak(-1);
             fail();
         } catch (NonPositiveValueException e) {
             // expected
@@ -121,9 +140,9 @@ public class PomodoroTimerSettingsTest {
     }
 
     @Test
-    void testSetPomodoroRepeatsWithNonPositiveValues() {
+    void testWithPomodoroRepeatsWithNonPositiveValues() {
         try {
-            testSettings.setPomodoroRepeats(-1);
+            testSettings.withPomodoroRepeats(-1);
             fail();
         } catch (NonPositiveValueException e) {
             // expected
@@ -133,10 +152,10 @@ public class PomodoroTimerSettingsTest {
 
     @Test
     void testToString() {
-        testSettings.setPomodoro(45);
-        testSettings.setShortBreak(10);
-        testSettings.setLongBreak(30);
-        testSettings.setPomodoroRepeats(2);
+        testSettings = testSettings.withPomodoro(45);
+        testSettings = testSettings.withShortBreak(10);
+        testSettings = testSettings.withLongBreak(30);
+        testSettings = testSettings.withPomodoroRepeats(2);
 
         String expected = "pomodoro: 2 x 45 min, short: 10 min, long: 30 min";
         assertEquals(expected, testSettings.toString());
@@ -2,22 +2,34 @@ package model;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.Timer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static model.PomodoroTimer.*;
 import static model.PomodoroTimerSettings.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class PomodoroTimerTest {
+    VirtualPomodoroClock clock;
     PomodoroTimer testTimer;
 
     @BeforeEach
     void setUp() {
-        testTimer = new PomodoroTimer(new PomodoroTimerSettings());
+        clock = new VirtualPomodoroClock();
+        testTimer = new PomodoroTimer(new PomodoroTimerSettings(), clock);
     }
 
     @Test
@@ -49,20 +61,81 @@ public class PomodoroTimerTest {
     }
 
     @Test
-    void testStartAndRun() throws InterruptedException {
+    void testStartAndRun() {
+        List<Integer> ticks = new ArrayList<>();
         testTimer.start(new TimerTask() {
             @Override
-            public void run() { }
+            public void run() {
+                ticks.add(testTimer.getTimeRemaining());
+            }
         });
-        Thread.sleep(1200L);
+        clock.advance(2200, TimeUnit.MILLISECONDS);
+        assertEquals(testTimer.getPomodoroDuration() - 2, testTimer.getTimeRemaining());
+        assertEquals(Arrays.asList(testTimer.getPomodoroDuration() - 1, testTimer.getPomodoroDuration() - 2), ticks);
+    }
+
+    @Test
+    void testStartAndRunNullTask() {
+        testTimer.start(null);
+        clock.advance(1, TimeUnit.SECONDS);
         assertEquals(testTimer.getPomodoroDuration() - 1, testTimer.getTimeRemaining());
     }
 
     @Test
-    void testStartAndRunNullTask() throws InterruptedException {
+    void testPauseStopsTime() {
         testTimer.start(null);
-        Thread.sleep(1000L);
+        clock.advance(1100, TimeUnit.MILLISECONDS);
+        testTimer.pause();
+        clock.advance(1, TimeUnit.HOURS);
         assertEquals(testTimer.getPomodoroDuration() - 1, testTimer.getTimeRemaining());
+        testTimer.resume();
+        clock.advance(900, TimeUnit.MILLISECONDS);
+        assertEquals(testTimer.getPomodoroDuration() - 2, testTimer.getTimeRemaining());
+        testTimer.cancel();
+    }
+
+    @Test
+    void testRunForHours() {
+        List<String> events = new ArrayList<>();
+        testTimer.addListener(new RecordingListener(events));
+        testTimer.start(null);
+        int cycleMinutes = DEFAULT_REPEATS * (DEFAULT_POMODORO + DEFAULT_SHORT_BREAK) - DEFAULT_SHORT_BREAK
+                + DEFAULT_LONG_BREAK;
+
+        int wakeUps = clock.advance(3L * cycleMinutes + DEFAULT_POMODORO, TimeUnit.MINUTES);
+        assertEquals(3 * DEFAULT_REPEATS * 2 + 1, wakeUps);
+        assertEquals(3, testTimer.getTotalCycles());
+        assertEquals(3 * DEFAULT_REPEATS + 1, testTimer.getTotalPomodoroIntervals());
+        assertEquals(SHORT_BREAK_INTERVAL, testTimer.getCurrentInterval());
+        assertEquals(testTimer.getShortBreakDuration(), testTimer.getTimeRemaining());
+        assertEquals(Arrays.asList("cycle 1", "cycle 2", "cycle 3"), eventsStartingWith(events, "cycle"));
+        assertEquals(3 * DEFAULT_REPEATS * 2 + 1, eventsStartingWith(events, "started").size());
+        assertEquals(1, clock.getPendingTasks());
+
+        testTimer.cancel();
+        assertEquals(0, clock.getPendingTasks());
+    }
+
+    @Test
+    void testLateTicksDoNotDelayTimer() throws InterruptedException {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+        try {
+            PomodoroTimer timer = new PomodoroTimer(new PomodoroTimerSettings(), scheduler);
+            List<Integer> ticks = new ArrayList<>();
+            timer.start(new TimerTask() {
+                @Override
+                public void run() {
+                    ticks.add(timer.getTimeRemaining());
+                    sleepQuietly(ticks.size() == 1 ? 1500L : 0L);
+                }
+            });
+            Thread.sleep(3500L);
+            timer.cancel();
+            assertEquals(timer.getPomodoroDuration() - 3, timer.getTimeRemaining());
+            assertEquals(Arrays.asList(timer.getPomodoroDuration() - 1, timer.getPomodoroDuration() - 3), ticks);
+        } finally {
+            scheduler.shutdownNow();
+        }
     }
 
     @Test
@@ -82,6 +155,190 @@ public class PomodoroTimerTest {
         assertFalse(testTimer.isRunning());
     }
 
+    @Test
+    void testPauseResumeAfterCancel() {
+        List<String> events = new ArrayList<>();
+        testTimer.addListener(new RecordingListener(events));
+        testTimer.start(null);
+        clock.advance(10, TimeUnit.MINUTES);
+        testTimer.cancel();
+        testTimer.resume();
+        testTimer.pause();
+        assertFalse(testTimer.isRunning());
+        assertEquals(Arrays.asList("paused"), events);
+        assertEquals(0, clock.getPendingTasks());
+
+        clock.advance(1, TimeUnit.HOURS);
+        assertEquals(10, testTimer.getTotalPomodoroMinutes());
+        assertFalse(testTimer.getState().isRunning());
+    }
+
+    @Test
+    void testCancelBeforeStart() {
+        testTimer.cancel();
+        assertFalse(testTimer.isRunning());
+        try {
+            testTimer.start(null);
+            fail("IllegalStateException was not thrown");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testStartTwice() {
+        testTimer.start(null);
+        try {
+            testTimer.start(null);
+            fail("IllegalStateException was not thrown");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        testTimer.cancel();
+    }
+
+    @Test
+    void testStartOnGivenScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+        scheduler.setRemoveOnCancelPolicy(true);
+        try {
+            PomodoroTimer first = new PomodoroTimer(new PomodoroTimerSettings(), scheduler);
+            PomodoroTimer second = new PomodoroTimer(new PomodoroTimerSettings(), scheduler);
+            first.start(null);
+            second.start(null);
+            assertEquals(2, scheduler.getQueue().size());
+
+            first.cancel();
+            assertEquals(1, scheduler.getQueue().size());
+            second.cancel();
+            assertTrue(scheduler.getQueue().isEmpty());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    void testListenerIntervalEvents() {
+        List<String> events = new ArrayList<>();
+        PomodoroTimer shortTimer = new PomodoroTimer(new PomodoroTimerSettings(1, 1, 2, 2), clock);
+        shortTimer.addListener(new RecordingListener(events));
+        shortTimer.start(null);
+
+        shortTimer.nextInterval();
+        assertEquals(Arrays.asList("completed pomodoro", "started short break"), events);
+        events.clear();
+        clock.advance(60 + 59, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList("completed short break", "started pomodoro"), events);
+        events.clear();
+        shortTimer.decrement();
+        assertEquals(Arrays.asList("completed pomodoro", "cycle 1", "started long break"), events);
+        events.clear();
+        clock.advance(120 + 60 + 60 + 60, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList("completed long break", "started pomodoro", "completed pomodoro",
+                "started short break", "completed short break", "started pomodoro", "completed pomodoro", "cycle 2",
+                "started long break"), events);
+        shortTimer.cancel();
+    }
+
+    @Test
+    void testListenerPauseResume() {
+        List<String> events = new ArrayList<>();
+        RecordingListener listener = new RecordingListener(events);
+        testTimer.addListener(listener);
+        testTimer.start(null);
+        testTimer.pause();
+        testTimer.pause();
+        testTimer.resume();
+        testTimer.removeListener(listener);
+        testTimer.cancel();
+        assertEquals(Arrays.asList("paused", "resumed"), events);
+    }
+
+    @Test
+    void testTicksOnlyWithTickListeners() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+        scheduler.setRemoveOnCancelPolicy(true);
+        try {
+            PomodoroTimer timer = new PomodoroTimer(new PomodoroTimerSettings(), scheduler);
+            timer.start(null);
+            assertTrue(nextTickDelay(scheduler) > timer.getPomodoroDuration() - 2);
+            PomodoroTimerTickListener tickListener = t -> { };
+            timer.addTickListener(tickListener);
+            assertTrue(nextTickDelay(scheduler) <= 1);
+            timer.pause();
+            assertEquals(1, scheduler.getQueue().size());
+
+            timer.removeTickListener(tickListener);
+            timer.resume();
+            assertTrue(nextTickDelay(scheduler) > timer.getPomodoroDuration() - 2);
+            timer.pause();
+            assertTrue(scheduler.getQueue().isEmpty());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    void testTicksOncePerSecondWhilePaused() {
+        List<String> events = new ArrayList<>();
+        testTimer.addTickListener(t -> events.add("tick"));
+        testTimer.start(null);
+        clock.advance(999, TimeUnit.MILLISECONDS);
+        testTimer.pause();
+        clock.advance(10, TimeUnit.SECONDS);
+        assertEquals(10, events.size());
+        assertEquals(testTimer.getPomodoroDuration(), testTimer.getTimeRemaining());
+    }
+
+    @Test
+    void testFailingListenersDoNotStopTicks() {
+        List<Throwable> reported = new ArrayList<>();
+        Thread thread = Thread.currentThread();
+        Thread.UncaughtExceptionHandler handler = thread.getUncaughtExceptionHandler();
+        thread.setUncaughtExceptionHandler((t, e) -> reported.add(e));
+        try {
+            List<String> events = new ArrayList<>();
+            testTimer.addListener(new RecordingListener(events) {
+                @Override
+                public void onIntervalCompleted(PomodoroTimer timer, String interval) {
+                    throw new IllegalStateException("listener failed");
+                }
+            });
+            testTimer.addListener(new RecordingListener(events));
+            testTimer.addTickListener(t -> {
+                throw new IllegalStateException("tick listener failed");
+            });
+            testTimer.addTickListener(t -> events.add("tick"));
+            testTimer.start(null);
+            clock.advance(testTimer.getPomodoroDuration(), TimeUnit.SECONDS);
+            assertEquals(testTimer.getPomodoroDuration(), eventsStartingWith(events, "tick").size());
+            assertEquals(Arrays.asList("completed " + POMODORO_INTERVAL), eventsStartingWith(events, "completed"));
+            assertEquals(2, eventsStartingWith(events, "started " + SHORT_BREAK_INTERVAL).size());
+            assertEquals(testTimer.getPomodoroDuration() + 1, reported.size());
+        } finally {
+            thread.setUncaughtExceptionHandler(handler);
+        }
+    }
+
+    @Test
+    void testErrorInTickListenerIsThrownAndTicksGoOn() {
+        List<String> events = new ArrayList<>();
+        testTimer.addTickListener(t -> {
+            events.add("tick");
+            assertTrue(events.size() > 1, "first tick");
+        });
+        testTimer.start(null);
+        try {
+            clock.advance(1, TimeUnit.MINUTES);
+            fail("AssertionError expected");
+        } catch (AssertionError e) {
+            assertEquals("first tick ==> expected: <true> but was: <false>", e.getMessage());
+        }
+        assertEquals(1, clock.getPendingTasks());
+        clock.advance(1, TimeUnit.MINUTES);
+        assertEquals(61, events.size());
+    }
+
     @Test
     void testDecrementTimerNotPaused() {
         int seconds = testTimer.getTimeRemaining();
@@ -90,7 +347,7 @@ public class PomodoroTimerTest {
         testTimer.decrement();
         assertEquals(seconds - 1, testTimer.getTimeRemaining());
 
-        decrementNSeconds(testTimer, 120);
+        clock.advance(120, TimeUnit.SECONDS);
         assertEquals(seconds - 121, testTimer.getTimeRemaining());
     }
 
@@ -101,7 +358,7 @@ public class PomodoroTimerTest {
         testTimer.decrement();
         assertEquals(seconds, testTimer.getTimeRemaining());
 
-        decrementNSeconds(testTimer, 120);
+        clock.advance(120, TimeUnit.SECONDS);
         assertEquals(seconds, testTimer.getTimeRemaining());
     }
 
@@ -141,7 +398,7 @@ public class PomodoroTimerTest {
         performOneCycle();
         assertEquals(DEFAULT_REPEATS * DEFAULT_POMODORO, testTimer.getTotalPomodoroMinutes());
 
-        decrementNSeconds(testTimer, 120);
+        clock.advance(120, TimeUnit.SECONDS);
         assertEquals(DEFAULT_REPEATS * DEFAULT_POMODORO + 2, testTimer.getTotalPomodoroMinutes());
     }
 
@@ -153,7 +410,7 @@ public class PomodoroTimerTest {
         performOneCycle();
         assertEquals((DEFAULT_REPEATS + 1) * DEFAULT_POMODORO, testTimer.getTotalPomodoroMinutes());
 
-        decrementNSeconds(testTimer, 120);
+        clock.advance(120, TimeUnit.SECONDS);
         assertEquals((DEFAULT_REPEATS + 1) * DEFAULT_POMODORO, testTimer.getTotalPomodoroMinutes());
     }
 
@@ -173,11 +430,11 @@ public class PomodoroTimerTest {
 
     @Test
     void testDecrementToZero() {
-        PomodoroTimer shortTimer = new PomodoroTimer(new PomodoroTimerSettings(2, 1, 2, 2));
+        PomodoroTimer shortTimer = new PomodoroTimer(new PomodoroTimerSettings(2, 1, 2, 2), clock);
         assertEquals(120, shortTimer.getTimeRemaining());
         shortTimer.start(null);
 
-        decrementNSeconds(shortTimer, 119);
+        clock.advance(119, TimeUnit.SECONDS);
         assertEquals(1, shortTimer.getTimeRemaining());
 
         shortTimer.decrement();
@@ -186,12 +443,138 @@ public class PomodoroTimerTest {
         assertEquals(SHORT_BREAK_INTERVAL, shortTimer.getCurrentInterval());
     }
 
-    private void decrementNSeconds(PomodoroTimer timer, int n) {
-        for (int i = 0; i < n; i++) {
+    @Test
+    void testGetState() {
+        testTimer.start(null);
+        testTimer.nextInterval();
+        testTimer.decrement();
+        testTimer.pause();
+
+        PomodoroTimerState state = testTimer.getState();
+        assertEquals(SHORT_BREAK_INTERVAL, state.getInterval());
+        assertEquals(testTimer.getShortBreakDuration() - 1, state.getTimeRemaining());
+        assertEquals(DEFAULT_REPEATS - 1, state.getRepeatsRemaining());
+        assertEquals(1, state.getTotalPomodoroIntervals());
+        assertEquals(1, state.getIntervalNumber());
+        assertFalse(state.isRunning());
+
+        testTimer.resume();
+        assertFalse(state.isRunning());
+        assertTrue(testTimer.getState().isRunning());
+        testTimer.cancel();
+    }
+
+    @Test
+    void testStateConsistentAcrossThreads() throws InterruptedException {
+        PomodoroTimer shortTimer = new PomodoroTimer(new PomodoroTimerSettings(1, 2, 3, 2));
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        shortTimer.addListener(new RecordingListener(events));
+        shortTimer.start(null);
+        Thread[] mutators = new Thread[2];
+        for (int i = 0; i < mutators.length; i++) {
+            mutators[i] = new Thread(() -> mutate(shortTimer));
+            mutators[i].start();
+        }
+        for (int i = 0; i < 100000; i++) {
+            PomodoroTimerState state = shortTimer.getState();
+            assertTrue(state.getTimeRemaining() > 0);
+            assertTrue(state.getTimeRemaining() <= durationOf(shortTimer, state.getInterval()));
+        }
+        for (Thread mutator : mutators) {
+            mutator.join();
+        }
+        shortTimer.cancel();
+
+        long intervals = shortTimer.getState().getIntervalNumber();
+        assertEquals(intervals, eventsStartingWith(events, "started").size());
+        assertEquals(intervals, eventsStartingWith(events, "completed").size());
+        assertEquals(eventsStartingWith(events, "resumed").size() + 1, eventsStartingWith(events, "paused").size());
+        checkTransitionsInOrder(events, intervals);
+    }
+
+    // EFFECTS: checks that events other than pauses and resumes are exactly the interval changes of a timer with
+    //          2 pomodoro repeats through given number of intervals, in order
+    private void checkTransitionsInOrder(List<String> events, long intervals) {
+        String[] names = {POMODORO_INTERVAL, SHORT_BREAK_INTERVAL, POMODORO_INTERVAL, LONG_BREAK_INTERVAL};
+        List<String> expected = new ArrayList<>();
+        for (long number = 1; number <= intervals; number++) {
+            expected.add("completed " + names[(int) ((number - 1) % 4)]);
+            if (number % 4 == 3) {
+                expected.add("cycle " + (number / 4 + 1));
+            }
+            expected.add("started " + names[(int) (number % 4)]);
+        }
+        List<String> transitions = new ArrayList<>(events);
+        transitions.removeIf(event -> event.equals("paused") || event.equals("resumed"));
+        assertEquals(expected, transitions);
+    }
+
+    // Benchmark, run with -Dbenchmark=true: ticks 10k timers every second on the shared clock for a few seconds,
+    // then reports how many threads ticked them, how many ticks arrived and how late after each whole second
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void testSharedClockBenchmark() {
+        int count = 10000;
+        int seconds = 10;
+        TickRecorder recorder = new TickRecorder();
+        List<PomodoroTimer> timers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            PomodoroTimer timer = new PomodoroTimer(new PomodoroTimerSettings());
+            timer.addTickListener(recorder);
+            recorder.started.put(timer, System.nanoTime());
+            timer.start(null);
+            timers.add(timer);
+        }
+        sleepQuietly(seconds * 1000L);
+        long threads = Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t.getName().startsWith("pomodoro-timer-")).count();
+        timers.forEach(PomodoroTimer::cancel);
+        long ticks = recorder.ticks.get();
+        System.out.printf("%d timers on %d scheduler threads (%d live threads): %d of about %d ticks, late by"
+                        + " %.2f ms on average and %.2f ms at most%n", count, threads, Thread.activeCount(), ticks,
+                (long) count * seconds, recorder.totalLateness.get() / 1e6 / ticks, recorder.maxLateness.get() / 1e6);
+        assertTrue(threads <= SHARED_SCHEDULER_THREADS);
+    }
+
+    private void mutate(PomodoroTimer timer) {
+        for (int i = 0; i < 2000; i++) {
             timer.decrement();
+            timer.nextInterval();
+            timer.pause();
+            timer.resume();
         }
     }
 
+    private int durationOf(PomodoroTimer timer, String interval) {
+        if (interval.equals(POMODORO_INTERVAL)) {
+            return timer.getPomodoroDuration();
+        }
+        return interval.equals(SHORT_BREAK_INTERVAL) ? timer.getShortBreakDuration() : timer.getLongBreakDuration();
+    }
+
+    private long nextTickDelay(ScheduledThreadPoolExecutor scheduler) {
+        assertEquals(1, scheduler.getQueue().size());
+        return ((ScheduledFuture<?>) scheduler.getQueue().peek()).getDelay(TimeUnit.SECONDS);
+    }
+
+    private void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<String> eventsStartingWith(List<String> events, String prefix) {
+        List<String> matching = new ArrayList<>();
+        for (String event : events) {
+            if (event.startsWith(prefix)) {
+                matching.add(event);
+            }
+        }
+        return matching;
+    }
+
     private void performOneCycle() {
         int totalIntervals = testTimer.getPomodoroRepeats() * 2; // one cycle + long break interval
         for (int i = 0; i < totalIntervals; i++) {
@@ -218,4 +601,55 @@ public class PomodoroTimerTest {
         assertEquals(LONG_BREAK_INTERVAL, testTimer.getCurrentInterval());
         assertEquals(testTimer.getLongBreakDuration(), testTimer.getTimeRemaining());
     }
+
+    // Represents a tick listener that counts ticks and records how long after a timer reached a whole second it was
+    // ticked, taking each timer to have started when it was put in started
+    private static class TickRecorder implements PomodoroTimerTickListener {
+        private final Map<PomodoroTimer, Long> started = new ConcurrentHashMap<>();
+        private final AtomicLong ticks = new AtomicLong();
+        private final AtomicLong totalLateness = new AtomicLong();
+        private final AtomicLong maxLateness = new AtomicLong();
+
+        @Override
+        public void onTick(PomodoroTimer timer) {
+            long lateness = (System.nanoTime() - started.get(timer)) % 1_000_000_000L;
+            ticks.incrementAndGet();
+            totalLateness.addAndGet(lateness);
+            maxLateness.accumulateAndGet(lateness, Math::max);
+        }
+    }
+
+    // Represents a listener that records the events it is notified of
+    private static class RecordingListener implements PomodoroTimerListener {
+        private final List<String> events;
+
+        RecordingListener(List<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void onIntervalStarted(PomodoroTimer timer, String interval) {
+            events.add("started " + interval);
+        }
+
+        @Override
+        public void onIntervalCompleted(PomodoroTimer timer, String interval) {
+            events.add("completed " + interval);
+        }
+
+        @Override
+        public void onCycleCompleted(PomodoroTimer timer, int cycles) {
+            events.add("cycle " + cycles);
+        }
+
+        @Override
+        public void onPaused(PomodoroTimer timer) {
+            events.add("paused");
+        }
+
+        @Override
+        public void onResumed(PomodoroTimer timer) {
+            events.add("resumed");
+        }
+    }
 }
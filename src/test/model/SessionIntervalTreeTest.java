@@ -0,0 +1,120 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.time.LocalDateTime.parse;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionIntervalTreeTest {
+    SessionIntervalTree testTree;
+    Session s1;
+    Session s2;
+    Session s3;
+
+    @BeforeEach
+    void setUp() {
+        testTree = new SessionIntervalTree();
+        s1 = new Session("s1", parse("2022-02-07T14:00"), parse("2022-02-07T16:00"), null);
+        s2 = new Session("s2", parse("2022-02-07T15:00"), parse("2022-02-07T17:00"), null);
+        s3 = new Session("s3", parse("2022-02-07T18:00"), parse("2022-02-07T19:00"), null);
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(0, testTree.size());
+        assertFalse(testTree.hasOverlap(parse("2022-02-07T14:00"), parse("2022-02-07T16:00")));
+        assertTrue(testTree.findOverlapping(parse("2022-02-07T14:00"), parse("2022-02-07T16:00")).isEmpty());
+    }
+
+    @Test
+    void testFindOverlapping() {
+        testTree.add(s1);
+        testTree.add(s2);
+        testTree.add(s3);
+        assertEquals(3, testTree.size());
+
+        List<Session> found = testTree.findOverlapping(parse("2022-02-07T15:30"), parse("2022-02-07T18:30"));
+        assertEquals(3, found.size());
+        assertEquals(s1, found.get(0));
+        assertEquals(s2, found.get(1));
+        assertEquals(s3, found.get(2));
+
+        found = testTree.findOverlapping(parse("2022-02-07T16:30"), parse("2022-02-07T17:30"));
+        assertEquals(1, found.size());
+        assertEquals(s2, found.get(0));
+    }
+
+    @Test
+    void testTouchingIntervalsDoNotOverlap() {
+        testTree.add(s1);
+        testTree.add(s3);
+
+        assertFalse(testTree.hasOverlap(parse("2022-02-07T16:00"), parse("2022-02-07T18:00")));
+        assertTrue(testTree.findOverlapping(parse("2022-02-07T16:00"), parse("2022-02-07T18:00")).isEmpty());
+        assertTrue(testTree.hasOverlap(parse("2022-02-07T15:59"), parse("2022-02-07T18:00")));
+    }
+
+    @Test
+    void testDuplicateIntervals() {
+        Session duplicate = new Session("s1 again", s1.getStart(), s1.getEnd(), null);
+        testTree.add(s1);
+        testTree.add(duplicate);
+        assertEquals(2, testTree.size());
+        assertEquals(2, testTree.findOverlapping(s1.getStart(), s1.getEnd()).size());
+
+        assertTrue(testTree.remove(s1, s1.getStart(), s1.getEnd()));
+        assertEquals(1, testTree.size());
+        assertEquals(duplicate, testTree.findOverlapping(s1.getStart(), s1.getEnd()).get(0));
+    }
+
+    @Test
+    void testRemove() {
+        testTree.add(s1);
+        testTree.add(s2);
+
+        assertFalse(testTree.remove(s3, s3.getStart(), s3.getEnd()));
+        assertFalse(testTree.remove(s1, s2.getStart(), s2.getEnd()));
+        assertEquals(2, testTree.size());
+
+        assertTrue(testTree.remove(s2, s2.getStart(), s2.getEnd()));
+        assertEquals(1, testTree.size());
+        assertFalse(testTree.hasOverlap(parse("2022-02-07T16:00"), parse("2022-02-07T17:00")));
+        assertTrue(testTree.hasOverlap(parse("2022-02-07T15:00"), parse("2022-02-07T17:00")));
+    }
+
+    @Test
+    void testManySessionsAgainstPairwiseCheck() {
+        List<Session> added = new ArrayList<>();
+        LocalDateTime base = parse("2022-01-01T00:00");
+        for (int i = 0; i < 500; i++) {
+            LocalDateTime start = base.plusMinutes((i * 37L) % 1000);
+            Session s = new Session("" + i, start, start.plusMinutes(i % 45), null);
+            added.add(s);
+            testTree.add(s);
+        }
+        for (int i = 0; i < 500; i += 2) {
+            Session s = added.get(i);
+            assertTrue(testTree.remove(s, s.getStart(), s.getEnd()));
+        }
+        assertEquals(250, testTree.size());
+
+        for (int q = 0; q < 1000; q += 13) {
+            LocalDateTime start = base.plusMinutes(q);
+            LocalDateTime end = start.plusMinutes(20);
+            int expected = 0;
+            for (int i = 1; i < 500; i += 2) {
+                Session s = added.get(i);
+                if (s.getStart().isBefore(end) && start.isBefore(s.getEnd())) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, testTree.findOverlapping(start, end).size());
+            assertEquals(expected > 0, testTree.hasOverlap(start, end));
+        }
+    }
+}
@@ -21,6 +21,7 @@ public class SessionTest {
         assertEquals("2022-02-07T14:00", testSession.getStart().toString());
         assertEquals("2022-02-07T16:30", testSession.getEnd().toString());
         assertTrue(testSession.getActivityName().isEmpty());
+        assertNull(testSession.getActivity());
         assertEquals(150, testSession.getDuration());
 
         testSession.setDetails("read 15 pages");
@@ -71,4 +72,20 @@ public class SessionTest {
         assertNull(testSession);
     }
 
+    @Test
+    void testDetailsSource() {
+        testSession = new Session("read 2 chapters", parse("2022-02-07T14:00"), parse("2022-02-07T16:30"), null);
+        int[] fetches = {0};
+        testSession.setDetailsSource(ref -> {
+            fetches[0]++;
+            return "details " + ref;
+        }, 42);
+        assertEquals("details 42", testSession.getDetails());
+        assertEquals("details 42", testSession.getDetails());
+        assertEquals(2, fetches[0]);
+
+        testSession.setDetails("read 15 pages");
+        assertEquals("read 15 pages", testSession.getDetails());
+        assertEquals(2, fetches[0]);
+    }
 }
@@ -1,9 +1,13 @@
 package model;
 
 import model.exception.DuplicateActivityException;
+import model.exception.OverlappingSessionException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import static java.time.LocalDateTime.parse;
@@ -71,6 +75,18 @@ public class StudyTrackerTest {
         assertEquals(a1, testTracker.getActivities().get(0));
     }
 
+    @Test
+    void testFindActivity() {
+        assertNull(testTracker.findActivity("CPSC210"));
+
+        testTracker.addActivity(a1);
+        testTracker.addActivity(a2);
+        assertEquals(a1, testTracker.findActivity("CPSC210"));
+        assertEquals(a2, testTracker.findActivity("Read book"));
+        assertNull(testTracker.findActivity("cpsc210"));
+        assertNull(testTracker.findActivity(""));
+    }
+
     @Test
     void testAddSession() {
         testTracker.addSession(s1);
@@ -118,5 +134,232 @@ public class StudyTrackerTest {
         assertEquals(2, filtered.size());
         assertTrue(filtered.contains(s1));
         assertTrue(filtered.contains(s2));
+
+        filtered = testTracker.filterSessionsByActivity(a1);
+        assertEquals(1, filtered.size());
+        assertTrue(filtered.contains(s3));
+        assertTrue(testTracker.filterSessionsByActivity(a2).isEmpty());
+    }
+
+    @Test
+    void testFilterSessionByActivityAfterRemove() {
+        testTracker.addSession(s1);
+        testTracker.addSession(s3);
+        List<Session> filtered = testTracker.filterSessionsByActivity(a1);
+        assertEquals(2, filtered.size());
+
+        testTracker.removeSession(s1);
+        assertEquals(1, filtered.size());
+        assertEquals(s3, filtered.get(0));
+
+        s1.setActivity(a2);
+        assertTrue(testTracker.filterSessionsByActivity(a2).isEmpty());
+        assertTrue(testTracker.filterSessionsByActivity(new Activity("unknown")).isEmpty());
+    }
+
+    @Test
+    void testFilterSessionByActivityUnmodifiable() {
+        testTracker.addSession(s1);
+        try {
+            testTracker.filterSessionsByActivity(a1).add(s2);
+            fail("UnsupportedOperationException was not thrown");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        assertEquals(1, testTracker.filterSessionsByActivity(a1).size());
+    }
+
+    @Test
+    void testGetSessionsBetween() {
+        Session s4 = new Session("late night", parse("2022-02-08T23:00"), parse("2022-02-08T23:30"), a2);
+        testTracker.addSession(s3);
+        testTracker.addSession(s4);
+        testTracker.addSession(s1);
+        testTracker.addSession(s2);
+
+        List<Session> between = testTracker.getSessionsBetween(parse("2022-02-07T14:00"), parse("2022-02-07T16:00"));
+        assertEquals(2, between.size());
+        assertTrue(between.contains(s1));
+        assertTrue(between.contains(s2));
+
+        between = testTracker.getSessionsBetween(parse("2022-02-07T14:00"), parse("2022-02-08T23:00"));
+        assertEquals(3, between.size());
+        assertEquals(s3, between.get(2));
+
+        assertTrue(testTracker.getSessionsBetween(parse("2022-02-09T00:00"), parse("2022-02-10T00:00")).isEmpty());
+    }
+
+    @Test
+    void testGetSessionsOn() {
+        Session s4 = new Session("late night", parse("2022-02-08T23:00"), parse("2022-02-09T01:30"), a2);
+        testTracker.addSession(s1);
+        testTracker.addSession(s4);
+        testTracker.addSession(s3);
+
+        List<Session> on = testTracker.getSessionsOn(LocalDate.parse("2022-02-07"));
+        assertEquals(2, on.size());
+        assertEquals(s1, on.get(0));
+        assertEquals(s3, on.get(1));
+
+        on = testTracker.getSessionsOn(LocalDate.parse("2022-02-08"));
+        assertEquals(1, on.size());
+        assertEquals(s4, on.get(0));
+        assertTrue(testTracker.getSessionsOn(LocalDate.parse("2022-02-09")).isEmpty());
+    }
+
+    @Test
+    void testGetSessionsNewestFirst() {
+        Session s4 = new Session("late night", parse("2022-02-08T23:00"), parse("2022-02-08T23:30"), a2);
+        testTracker.addSession(s1);
+        testTracker.addSession(s4);
+        testTracker.addSession(s3);
+
+        List<Session> newestFirst = new ArrayList<>();
+        for (Session s : testTracker.getSessionsNewestFirst()) {
+            newestFirst.add(s);
+        }
+        assertEquals(3, newestFirst.size());
+        assertEquals(s4, newestFirst.get(0));
+        assertEquals(s3, newestFirst.get(1));
+        assertEquals(s1, newestFirst.get(2));
+
+        testTracker.removeSession(s4);
+        Iterator<Session> iterator = testTracker.getSessionsNewestFirst().iterator();
+        assertEquals(s3, iterator.next());
+    }
+
+    @Test
+    void testTimeIndexAfterSessionChanged() {
+        testTracker.addSession(s1);
+        testTracker.addSession(s3);
+
+        s1.setEnd(parse("2022-02-10T11:00"));
+        s1.setStart(parse("2022-02-10T10:00"));
+        assertEquals(1, testTracker.getSessionsOn(LocalDate.parse("2022-02-07")).size());
+        assertEquals(s3, testTracker.getSessionsOn(LocalDate.parse("2022-02-07")).get(0));
+        assertEquals(s1, testTracker.getSessionsOn(LocalDate.parse("2022-02-10")).get(0));
+        assertEquals(s1, testTracker.getSessionsNewestFirst().iterator().next());
+
+        testTracker.removeSession(s1);
+        s1.setStart(parse("2022-02-07T10:00"));
+        assertEquals(1, testTracker.getSessionsOn(LocalDate.parse("2022-02-07")).size());
+        assertTrue(testTracker.getSessionsOn(LocalDate.parse("2022-02-10")).isEmpty());
+    }
+
+    @Test
+    void testFindOverlapping() {
+        Session s4 = new Session("late night", parse("2022-02-08T23:00"), parse("2022-02-08T23:30"), a2);
+        testTracker.addSession(s1);
+        testTracker.addSession(s2);
+        testTracker.addSession(s3);
+        testTracker.addSession(s4);
+
+        List<Session> overlapping = testTracker.findOverlapping(s1);
+        assertEquals(2, overlapping.size());
+        assertTrue(overlapping.contains(s2));
+        assertTrue(overlapping.contains(s3));
+        assertTrue(testTracker.findOverlapping(s4).isEmpty());
+
+        s4.setStart(parse("2022-02-07T18:00"));
+        assertEquals(1, testTracker.findOverlapping(s4).size());
+        assertEquals(s3, testTracker.findOverlapping(s4).get(0));
+
+        testTracker.removeSession(s3);
+        assertTrue(testTracker.findOverlapping(s4).isEmpty());
+    }
+
+    @Test
+    void testGetTotalMinutes() {
+        assertEquals(0, testTracker.getTotalMinutes());
+        testTracker.addSession(s1);
+        testTracker.addSession(s2);
+        testTracker.addSession(s3);
+        testTracker.addSession(new Session("break", parse("2022-02-09T10:00"), parse("2022-02-09T10:20:59"), null));
+
+        assertEquals(150 + 150 + 150 + 20, testTracker.getTotalMinutes());
+        assertEquals(300, testTracker.getTotalMinutes(a1));
+        assertEquals(150, testTracker.getTotalMinutes(a2));
+        assertEquals(20, testTracker.getTotalMinutes(null));
+        assertEquals(0, testTracker.getTotalMinutes(new Activity("unknown")));
+    }
+
+    @Test
+    void testAddSessionRejectOverlapping() {
+        assertFalse(testTracker.isRejectingOverlappingSessions());
+        testTracker.setRejectOverlappingSessions(true);
+        assertTrue(testTracker.isRejectingOverlappingSessions());
+
+        testTracker.addSession(s1);
+        try {
+            testTracker.addSession(s2);
+            fail("OverlappingSessionException was not thrown");
+        } catch (OverlappingSessionException e) {
+            // expected
+        }
+        assertEquals(1, testTracker.getSessions().size());
+        assertTrue(testTracker.filterSessionsByActivity(a2).isEmpty());
+
+        Session adjacent = new Session("right after", parse("2022-02-07T16:30"), parse("2022-02-07T17:00"), a2);
+        testTracker.addSession(adjacent);
+        assertEquals(2, testTracker.getSessions().size());
+
+        testTracker.setRejectOverlappingSessions(false);
+        testTracker.addSession(s2);
+        assertEquals(3, testTracker.getSessions().size());
+    }
+
+    @Test
+    void testObserver() {
+        List<String> changes = new ArrayList<>();
+        StudyTrackerObserver observer = new StudyTrackerObserver() {
+            @Override
+            public void activityAdded(Activity a) {
+                changes.add("activity " + a.getName());
+            }
+
+            @Override
+            public void sessionAdded(Session s) {
+                changes.add("add " + s.getDetails());
+            }
+
+            @Override
+            public void sessionRemoved(Session s, int index) {
+                changes.add("remove " + s.getDetails() + " at " + index);
+            }
+
+            @Override
+            public void sessionChanged(Session s, int index) {
+                changes.add("change " + s.getDetails() + " at " + index);
+            }
+
+            @Override
+            public void timerSettingsChanged(PomodoroTimerSettings settings) {
+                changes.add("settings " + settings.getPomodoro());
+            }
+        };
+        testTracker.addObserver(observer);
+        testTracker.addActivity(a1);
+        testTracker.addSession(s1);
+        testTracker.addSession(s2);
+        s2.setDetails("edited");
+        s2.setEnd(s2.getEnd().plusMinutes(5));
+        s2.setActivity(a1);
+        testTracker.removeSession(s2);
+        testTracker.removeSession(s2);
+        s2.setDetails("not in tracker");
+        testTracker.setTimerSettings(new PomodoroTimerSettings(30, 5, 22, 2));
+        testTracker.removeObserver(observer);
+        testTracker.addSession(s3);
+
+        List<String> expected = new ArrayList<>();
+        expected.add("activity CPSC210");
+        expected.add("add finished lab 5");
+        expected.add("add do lecture");
+        expected.add("change edited at 1");
+        expected.add("change edited at 1");
+        expected.add("change edited at 1");
+        expected.add("remove edited at 1");
+        expected.add("settings 30");
+        assertEquals(expected, changes);
     }
 }
@@ -0,0 +1,95 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VirtualPomodoroClockTest {
+    VirtualPomodoroClock testClock;
+    List<String> ran;
+
+    @BeforeEach
+    void setUp() {
+        testClock = new VirtualPomodoroClock();
+        ran = new ArrayList<>();
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(0, testClock.nanoTime());
+        assertEquals(0, testClock.getPendingTasks());
+    }
+
+    @Test
+    void testAdvanceRunsTasksInOrderAtTheirTime() {
+        testClock.schedule(() -> ran.add("c at " + testClock.nanoTime()), 300);
+        testClock.schedule(() -> ran.add("a at " + testClock.nanoTime()), 100);
+        testClock.schedule(() -> ran.add("b at " + testClock.nanoTime()), 100);
+        assertEquals(3, testClock.getPendingTasks());
+
+        assertEquals(2, testClock.advance(200, TimeUnit.NANOSECONDS));
+        assertEquals(Arrays.asList("a at 100", "b at 100"), ran);
+        assertEquals(200, testClock.nanoTime());
+        assertEquals(1, testClock.getPendingTasks());
+
+        assertEquals(1, testClock.advance(100, TimeUnit.NANOSECONDS));
+        assertEquals("c at 300", ran.get(2));
+        assertEquals(0, testClock.advance(1, TimeUnit.HOURS));
+        assertEquals(300 + TimeUnit.HOURS.toNanos(1), testClock.nanoTime());
+    }
+
+    @Test
+    void testAdvanceRunsTasksScheduledOnTheWay() {
+        testClock.schedule(new Runnable() {
+            @Override
+            public void run() {
+                ran.add("at " + testClock.nanoTime());
+                testClock.schedule(this, TimeUnit.MINUTES.toNanos(1));
+            }
+        }, 0);
+
+        assertEquals(61, testClock.advance(1, TimeUnit.HOURS));
+        assertEquals("at 0", ran.get(0));
+        assertEquals("at " + TimeUnit.HOURS.toNanos(1), ran.get(60));
+        assertEquals(1, testClock.getPendingTasks());
+    }
+
+    @Test
+    void testAdvanceThrowsWhatTaskThrew() {
+        Future<?> failing = testClock.schedule(() -> {
+            throw new IllegalStateException("task failed");
+        }, 10);
+        Future<?> later = testClock.schedule(() -> ran.add("later"), 20);
+        try {
+            testClock.advance(30, TimeUnit.NANOSECONDS);
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException e) {
+            assertEquals("task failed", e.getMessage());
+        }
+        assertTrue(failing.isDone());
+        assertEquals(10, testClock.nanoTime());
+        assertEquals(1, testClock.getPendingTasks());
+
+        assertEquals(1, testClock.advance(20, TimeUnit.NANOSECONDS));
+        assertEquals(Arrays.asList("later"), ran);
+        assertTrue(later.isDone());
+    }
+
+    @Test
+    void testCancelledTasksDoNotRun() {
+        Future<?> cancelled = testClock.schedule(() -> ran.add("cancelled"), 10);
+        testClock.schedule(() -> ran.add("kept"), 20);
+        cancelled.cancel(false);
+        assertEquals(1, testClock.getPendingTasks());
+
+        assertEquals(1, testClock.advance(30, TimeUnit.NANOSECONDS));
+        assertEquals(Arrays.asList("kept"), ran);
+    }
+}
@@ -0,0 +1,213 @@
+package persistence;
+
+import model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.zip.CRC32;
+
+import static java.time.LocalDateTime.parse;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinarySnapshotTest extends JsonTest {
+    private static final String FILE = "./data/testBinaryStudyTracker.bin";
+    private static final String JSON_FILE = "./data/testBinaryStudyTracker.json";
+    private static final String[] SUFFIXES = {"", ".1", ".2", ".3", ".tmp"};
+
+    @BeforeEach
+    void setUp() throws IOException {
+        deleteFiles();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        deleteFiles();
+    }
+
+    @Test
+    void testFormatForFile() {
+        assertEquals(SnapshotFormat.BINARY, SnapshotFormat.forFile(FILE));
+        assertEquals(SnapshotFormat.JSON, SnapshotFormat.forFile(JSON_FILE));
+        assertTrue(SnapshotFormat.forFile(FILE).newReader(FILE) instanceof BinarySnapshotReader);
+        assertTrue(SnapshotFormat.forFile(FILE).newWriter(FILE, 0) instanceof BinarySnapshotWriter);
+        assertTrue(SnapshotFormat.forFile(JSON_FILE).newReader(JSON_FILE) instanceof JsonReader);
+        assertTrue(SnapshotFormat.forFile(JSON_FILE).newWriter(JSON_FILE, 0) instanceof JsonWriter);
+    }
+
+    @Test
+    void testWriterInvalidFile() {
+        try {
+            new BinarySnapshotWriter("./data/invalid\0:fileName.bin").open();
+            fail("IOException was not thrown");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testWriterMissingDirectory() {
+        try {
+            new BinarySnapshotWriter("./data/missingDirectory/study.bin").open();
+            fail("IOException was not thrown");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testReadNonExistentFile() {
+        try {
+            new BinarySnapshotReader("./data/nonexistentFile.bin").read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        StudyTracker st = new StudyTracker();
+        st.setTimerSettings(new PomodoroTimerSettings(50, 10, 30, 2));
+        Activity a1 = new Activity("a1");
+        Activity a2 = new Activity("été 🌻");
+        st.addActivity(a1);
+        st.addActivity(a2);
+        st.addSession(new Session("s1", parse("2022-02-22T12:40"), parse("2022-02-22T13:40"), a1));
+        st.addSession(new PomodoroSession("s2", parse("2022-02-22T15:40"), parse("2022-02-22T16:40"),
+                new PomodoroTimerSettings(), 2, a2));
+        st.addSession(new Session("lab \"5\"\n", parse("1969-12-31T23:59:30.5"), parse("2022-02-22T10:40:01"), null));
+        st.addSession(new PomodoroSession("", parse("2022-02-21T15:40"), parse("2022-02-21T16:40"),
+                new PomodoroTimerSettings(50, 10, 30, 2), 100, new Activity("undeclared")));
+        write(st, FILE);
+
+        st = new BinarySnapshotReader(FILE).read();
+        checkTimerSettings(50, 10, 30, 2, st.getTimerSettings());
+        assertEquals(2, st.getActivities().size());
+        assertEquals("été 🌻", st.getActivities().get(1).getName());
+        assertEquals(4, st.getSessions().size());
+        checkSession("s1", "2022-02-22T12:40", "2022-02-22T13:40", a1, st.getSessions().get(0));
+        checkPomoSession("s2", "2022-02-22T15:40", "2022-02-22T16:40", new PomodoroTimerSettings(), 2, a2,
+                (PomodoroSession) st.getSessions().get(1));
+        checkSession("lab \"5\"\n", "1969-12-31T23:59:30.500", "2022-02-22T10:40:01", st.getSessions().get(2));
+        checkPomoSession("", "2022-02-21T15:40", "2022-02-21T16:40", new PomodoroTimerSettings(50, 10, 30, 2),
+                100, (PomodoroSession) st.getSessions().get(3));
+        assertSame(st.getActivities().get(0), st.getSessions().get(0).getActivity());
+
+        st = SnapshotFormat.BINARY.newReader(FILE, ColumnarStudyTracker::new).read();
+        assertTrue(st instanceof ColumnarStudyTracker);
+        assertEquals(4, st.getSessions().size());
+        checkPomoSession("s2", "2022-02-22T15:40", "2022-02-22T16:40", new PomodoroTimerSettings(), 2, a2,
+                (PomodoroSession) st.getSessions().get(1));
+    }
+
+    @Test
+    void testCorruptFileFallsBackToBackup() throws IOException {
+        StudyTracker st = new StudyTracker();
+        st.setTimerSettings(new PomodoroTimerSettings(1, 1, 1, 1));
+        write(st, FILE);
+        st.setTimerSettings(new PomodoroTimerSettings(2, 1, 1, 1));
+        write(st, FILE);
+
+        Path path = Paths.get(FILE);
+        byte[] data = Files.readAllBytes(path);
+        data[data.length - 1] ^= 1;
+        Files.write(path, data);
+        assertEquals(1, new BinarySnapshotReader(FILE).read().getTimerSettings().getPomodoro());
+
+        Files.delete(Paths.get(FILE + ".1"));
+        try {
+            new BinarySnapshotReader(FILE).read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("checksum"));
+        }
+        Files.write(path, "{\"timerSettings\": {}}".getBytes());
+        try {
+            new BinarySnapshotReader(FILE).read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testOutOfRangeIds() throws IOException {
+        // one timer settings entry (25, 5, 15, 4) followed by the id of the tracker's settings
+        checkOutOfRange(new byte[] {1, 25, 5, 15, 4, 1}, "timer settings id 1");
+        // settings id 0, no activities, then one whole-minute session with activity id 2
+        checkOutOfRange(new byte[] {1, 25, 5, 15, 4, 0, 0, 1, 0, 0, 0, 2}, "activity id 2");
+        // the same session as a pomodoro session with no activity, empty details and settings id 3
+        checkOutOfRange(new byte[] {1, 25, 5, 15, 4, 0, 0, 1, BinarySnapshotWriter.POMODORO, 0, 0, 0, 0, 3, 25},
+                "timer settings id 3");
+    }
+
+    @Test
+    void testSmallerThanJson() throws IOException {
+        StudyTracker st = new StudyTracker();
+        Activity[] activities = {new Activity("CPSC210"), new Activity("MATH200"), new Activity("Read book")};
+        for (Activity a : activities) {
+            st.addActivity(a);
+        }
+        PomodoroTimerSettings settings = new PomodoroTimerSettings();
+        LocalDateTime start = parse("2022-01-01T09:00");
+        for (int i = 0; i < 2000; i++) {
+            LocalDateTime end = start.plusMinutes(25 + i % 60);
+            if (i % 2 == 0) {
+                st.addSession(new Session("session " + i, start, end, activities[i % 3]));
+            } else {
+                st.addSession(new PomodoroSession("session " + i, start, end, settings, 25, activities[i % 3]));
+            }
+            start = start.plusHours(5);
+        }
+        write(st, FILE);
+        JsonWriter writer = new JsonWriter(JSON_FILE, JsonWriter.Mode.STREAMING, true, 0);
+        writer.open();
+        writer.write(st);
+        writer.close();
+
+        assertTrue(Files.size(Paths.get(JSON_FILE)) >= 5 * Files.size(Paths.get(FILE)));
+        assertEquals(2000, new BinarySnapshotReader(FILE).read().getSessions().size());
+    }
+
+    // EFFECTS: writes a snapshot with given payload and a valid header, then checks that reading it fails with an
+    //          IOException whose message contains given text
+    private void checkOutOfRange(byte[] payload, String message) throws IOException {
+        byte[] data = new byte[BinarySnapshotWriter.HEADER_SIZE + payload.length];
+        System.arraycopy(BinarySnapshotWriter.MAGIC, 0, data, 0, BinarySnapshotWriter.MAGIC.length);
+        ByteBuffer header = ByteBuffer.wrap(data);
+        header.putInt(4, BinarySnapshotWriter.VERSION << 16);
+        header.putInt(8, payload.length);
+        System.arraycopy(payload, 0, data, BinarySnapshotWriter.HEADER_SIZE, payload.length);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        header.putInt(12, (int) crc.getValue());
+        Files.write(Paths.get(FILE), data);
+        try {
+            new BinarySnapshotReader(FILE).read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("out of range " + message), e.getMessage());
+        }
+    }
+
+    private void write(StudyTracker st, String file) throws IOException {
+        StudyTrackerWriter writer = SnapshotFormat.forFile(file).newWriter(file, JsonWriter.DEFAULT_MAX_BACKUPS);
+        writer.open();
+        writer.write(st);
+        writer.close();
+    }
+
+    private void deleteFiles() throws IOException {
+        for (String suffix : SUFFIXES) {
+            Files.deleteIfExists(Paths.get(FILE + suffix));
+        }
+        Files.deleteIfExists(Paths.get(JSON_FILE));
+    }
+}
@@ -0,0 +1,145 @@
+package persistence;
+
+import model.Event;
+import model.EventLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventLogFileSinkTest {
+    private Path dir;
+    private Path logFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("eventLogFileSinkTest");
+        logFile = dir.resolve("events.log");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                Files.delete(p);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    void testWriterInvalidFile() {
+        EventLogFileSink sink = new EventLogFileSink(dir.resolve("missing").resolve("events.log").toString());
+        try {
+            sink.open();
+            fail("IOException was not thrown");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testAcceptAndClose() throws IOException {
+        EventLogFileSink sink = new EventLogFileSink(logFile.toString());
+        sink.open();
+        sink.accept(new Event("Activity added to study tracker"));
+        sink.accept(new Event("two\nlines"));
+        sink.close();
+        sink.accept(new Event("after close"));
+
+        List<String> lines = Files.readAllLines(logFile, StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).endsWith("\tActivity added to study tracker"));
+        assertTrue(lines.get(1).endsWith("\ttwo\\nlines"));
+        assertEquals(0, sink.getDroppedCount());
+    }
+
+    @Test
+    void testAppendsToExistingFile() throws IOException {
+        EventLogFileSink sink = new EventLogFileSink(logFile.toString());
+        sink.open();
+        sink.accept(new Event("first run"));
+        sink.close();
+
+        sink = new EventLogFileSink(logFile.toString());
+        sink.open();
+        sink.accept(new Event("second run"));
+        sink.close();
+
+        List<String> lines = Files.readAllLines(logFile, StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(1).endsWith("\tsecond run"));
+    }
+
+    @Test
+    void testRotation() throws IOException {
+        EventLogFileSink sink = new EventLogFileSink(logFile.toString(), 200, 2, 1000, true);
+        sink.open();
+        for (int i = 0; i < 100; i++) {
+            sink.accept(new Event("event number " + i));
+        }
+        sink.close();
+
+        assertTrue(Files.size(logFile) <= 200);
+        assertTrue(Files.size(dir.resolve("events.log.1")) <= 200);
+        assertTrue(Files.exists(dir.resolve("events.log.2")));
+        assertFalse(Files.exists(dir.resolve("events.log.3")));
+        List<String> lines = Files.readAllLines(logFile, StandardCharsets.UTF_8);
+        assertTrue(lines.get(lines.size() - 1).endsWith("\tevent number 99"));
+    }
+
+    @Test
+    void testDropWhenQueueFull() throws IOException {
+        EventLogFileSink sink = new EventLogFileSink(logFile.toString(), 1024 * 1024, 1, 1, false);
+        for (int i = 0; i < 10; i++) {
+            sink.accept(new Event("queued before open " + i));
+        }
+        assertEquals(9, sink.getDroppedCount());
+        sink.open();
+        sink.close();
+        assertEquals(1, Files.readAllLines(logFile, StandardCharsets.UTF_8).size());
+    }
+
+    @Test
+    void testWriterFailureReleasesBlockedProducers() throws InterruptedException {
+        EventLogFileSink sink = new EventLogFileSink(logFile.toString(), 1024 * 1024, 1, 1, true);
+        sink.accept(new Event(null));   // cannot be formatted, so the writer fails on it
+        Thread producer = new Thread(() -> sink.accept(new Event("blocked on full queue")));
+        producer.start();
+        while (producer.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        try {
+            sink.open();
+            producer.join(5000);
+            assertFalse(producer.isAlive());
+            sink.close();
+            fail("IOException was not thrown");
+        } catch (IOException e) {
+            // expected
+        }
+        assertEquals(2, sink.getDroppedCount());
+    }
+
+    @Test
+    void testEventLogSink() throws IOException {
+        EventLogFileSink sink = new EventLogFileSink(logFile.toString());
+        sink.open();
+        EventLog.getInstance().addSink(sink);
+        EventLog.getInstance().logEvent(new Event("Session added to study tracker"));
+        EventLog.getInstance().closeSinks();
+        EventLog.getInstance().logEvent(new Event("not written"));
+
+        List<String> lines = Files.readAllLines(logFile, StandardCharsets.UTF_8);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).endsWith("\tSession added to study tracker"));
+    }
+}
@@ -0,0 +1,328 @@
+package persistence;
+
+import model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static java.time.LocalDateTime.parse;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JournaledStoreTest extends JsonTest {
+    private static final String FILE = "./data/testJournaledStudyTracker.json";
+    private static final String[] SUFFIXES = {"", ".1", ".2", ".3", ".tmp", ".journal", ".journal.compacting",
+            ".compacted", ".compacted.tmp"};
+
+    @BeforeEach
+    void setUp() throws IOException {
+        deleteFiles();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        deleteFiles();
+    }
+
+    @Test
+    void testLoadNonExistentFile() {
+        JournaledStore store = new JournaledStore(FILE);
+        try {
+            store.load();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testChangesAreJournaledAfterSave() throws IOException {
+        JournaledStore store = new JournaledStore(FILE);
+        StudyTracker st = new StudyTracker();
+        Activity a1 = new Activity("a1");
+        st.addActivity(a1);
+        st.addSession(new Session("s1", parse("2022-02-22T12:40"), parse("2022-02-22T13:40"), a1));
+        store.save(st);
+        assertEquals(0, Files.size(path(".journal")));
+        long snapshotSize = Files.size(path(""));
+
+        Activity a2 = new Activity("a2");
+        st.addActivity(a2);
+        Session s2 = new Session("s2", parse("2022-02-23T12:40"), parse("2022-02-23T13:40"), a2);
+        st.addSession(s2);
+        st.addSession(new PomodoroSession("s3", parse("2022-02-24T12:40"), parse("2022-02-24T13:40"),
+                new PomodoroTimerSettings(50, 10, 30, 2), 50, null));
+        st.removeSession(s2);
+        st.setTimerSettings(new PomodoroTimerSettings(30, 5, 22, 2));
+        assertEquals(5, Files.readAllLines(path(".journal")).size());
+        store.save(st);
+        assertEquals(snapshotSize, Files.size(path("")));
+        store.close();
+
+        StudyTracker loaded = new JournaledStore(FILE).load();
+        checkTimerSettings(30, 5, 22, 2, loaded.getTimerSettings());
+        assertEquals(2, loaded.getActivities().size());
+        List<Session> sessions = loaded.getSessions();
+        assertEquals(2, sessions.size());
+        checkSession("s1", "2022-02-22T12:40", "2022-02-22T13:40", a1, sessions.get(0));
+        checkPomoSession("s3", "2022-02-24T12:40", "2022-02-24T13:40", new PomodoroTimerSettings(50, 10, 30, 2),
+                50, (PomodoroSession) sessions.get(1));
+    }
+
+    @Test
+    void testLoadedTrackerIsJournaled() throws IOException {
+        StudyTracker st = new StudyTracker();
+        JournaledStore store = new JournaledStore(FILE);
+        store.save(st);
+        store.close();
+
+        store = new JournaledStore(FILE);
+        st = store.load();
+        st.addActivity(new Activity("a1"));
+        StudyTracker other = new JournaledStore(FILE).load();
+        assertEquals("a1", other.getActivities().get(0).getName());
+
+        StudyTracker unsaved = new StudyTracker();
+        store.save(unsaved);
+        st.addActivity(new Activity("a2"));
+        assertEquals(0, Files.size(path(".journal")));
+        assertTrue(new JournaledStore(FILE).load().getActivities().isEmpty());
+        store.close();
+    }
+
+    @Test
+    void testSessionEditsAreJournaled() throws IOException {
+        JournaledStore store = new JournaledStore(FILE);
+        StudyTracker st = new StudyTracker();
+        Activity a1 = new Activity("a1");
+        Activity a2 = new Activity("a2");
+        st.addActivity(a1);
+        st.addActivity(a2);
+        st.addSession(new Session("s1", parse("2022-02-22T12:40"), parse("2022-02-22T13:40"), a1));
+        st.addSession(new Session("s2", parse("2022-02-23T12:40"), parse("2022-02-23T13:40"), a1));
+        store.save(st);
+        store.close();
+
+        store = new JournaledStore(FILE);
+        st = store.load();
+        Session s2 = st.getSessions().get(1);
+        s2.setDetails("s2 edited");
+        s2.setStart(parse("2022-02-23T12:00"));
+        s2.setEnd(parse("2022-02-23T14:00"));
+        s2.setActivity(st.findActivity("a2"));
+        store.save(st);
+        assertEquals(4, Files.readAllLines(path(".journal")).size());
+        store.close();
+
+        st = new JournaledStore(FILE).load();
+        checkSession("s1", "2022-02-22T12:40", "2022-02-22T13:40", a1, st.getSessions().get(0));
+        checkSession("s2 edited", "2022-02-23T12:00", "2022-02-23T14:00", a2, st.getSessions().get(1));
+        assertEquals(1, st.filterSessionsByActivity(a2).size());
+    }
+
+    @Test
+    void testLoadReleasesDetailsOfPreviousTracker() throws IOException {
+        StudyTracker st = new StudyTracker();
+        Activity a1 = new Activity("a1");
+        st.addActivity(a1);
+        st.addSession(new Session("s1", parse("2022-02-22T12:40"), parse("2022-02-22T13:40"), a1));
+        JournaledStore store = new JournaledStore(FILE);
+        store.save(st);
+        store.close();
+
+        store = new JournaledStore(FILE);
+        StudyTracker first = store.load();
+        StudyTracker second = store.load();
+        try {
+            first.getSessions().get(0).getDetails();
+            fail("UncheckedIOException expected");
+        } catch (UncheckedIOException e) {
+            // expected
+        }
+        second.addActivity(new Activity("a2"));
+        store.save(second);
+        assertEquals("s1", second.getSessions().get(0).getDetails());
+        store.close();
+    }
+
+    @Test
+    void testIncompleteRecordIsCutOff() throws IOException {
+        JournaledStore store = new JournaledStore(FILE);
+        StudyTracker st = new StudyTracker();
+        store.save(st);
+        st.addActivity(new Activity("a1"));
+        store.close();
+        Files.write(path(".journal"), "{\"op\":\"addActivity\",\"activity\":{\"na".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        store = new JournaledStore(FILE);
+        st = store.load();
+        assertEquals(1, st.getActivities().size());
+        st.addActivity(new Activity("a2"));
+        store.close();
+
+        st = new JournaledStore(FILE).load();
+        assertEquals(2, st.getActivities().size());
+        assertEquals("a2", st.getActivities().get(1).getName());
+    }
+
+    @Test
+    void testRecordThatCannotBeAppliedFailsLoad() throws IOException {
+        JournaledStore store = new JournaledStore(FILE);
+        StudyTracker st = new StudyTracker();
+        store.save(st);
+        st.addActivity(new Activity("a1"));
+        st.addActivity(new Activity("a2"));
+        store.close();
+        List<String> lines = Files.readAllLines(path(".journal"));
+        lines.add(1, lines.get(0));     // adds a1 again, which is rejected as a duplicate
+        Files.write(path(".journal"), lines);
+        long size = Files.size(path(".journal"));
+
+        checkLoadFails();
+        assertEquals(size, Files.size(path(".journal")));
+        assertEquals(lines, Files.readAllLines(path(".journal")));
+    }
+
+    @Test
+    void testCorruptSnapshotFailsLoadInsteadOfReadingBackup() throws IOException {
+        Activity a1 = new Activity("a1");
+        StudyTracker older = new StudyTracker();
+        older.addActivity(a1);
+        older.addSession(new Session("x", parse("2022-02-22T12:40"), parse("2022-02-22T13:40"), a1));
+        older.addSession(new Session("y", parse("2022-02-23T12:40"), parse("2022-02-23T13:40"), a1));
+        JournaledStore store = new JournaledStore(FILE);
+        store.save(older);
+        StudyTracker st = new StudyTracker();
+        st.addActivity(a1);
+        st.addSession(new Session("x", parse("2022-02-22T12:40"), parse("2022-02-22T13:40"), a1));
+        st.addSession(new Session("z", parse("2022-02-22T20:40"), parse("2022-02-22T21:40"), a1));
+        st.addSession(new Session("y", parse("2022-02-23T12:40"), parse("2022-02-23T13:40"), a1));
+        store.save(st);
+        st.removeSession(st.getSessions().get(1));
+        store.close();
+        assertTrue(Files.exists(path(".1")));
+
+        Files.write(path(""), "{\"timerSettings\": ".getBytes(StandardCharsets.UTF_8));
+        checkLoadFails();
+        assertEquals(1, Files.readAllLines(path(".journal")).size());
+    }
+
+    @Test
+    void testCorruptRecordBeforeLastFailsLoad() throws IOException {
+        JournaledStore store = new JournaledStore(FILE);
+        StudyTracker st = new StudyTracker();
+        store.save(st);
+        st.addActivity(new Activity("a1"));
+        store.close();
+        Files.write(path(".journal"), "{\"op\":\"addAct\n{\"op\":\"addActivity\",\"activity\":{\"name\":\"a2\"}}\n"
+                .getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        long size = Files.size(path(".journal"));
+
+        checkLoadFails();
+        assertEquals(size, Files.size(path(".journal")));
+    }
+
+    @Test
+    void testCompaction() throws IOException {
+        JournaledStore store = new JournaledStore(FILE, 3);
+        StudyTracker st = new StudyTracker();
+        store.save(st);
+        for (int i = 1; i <= 7; i++) {
+            st.addActivity(new Activity("a" + i));
+            store.awaitCompaction();
+        }
+        store.close();
+        assertFalse(Files.exists(path(".journal.compacting")));
+        assertFalse(Files.exists(path(".compacted")));
+        assertEquals(1, Files.readAllLines(path(".journal")).size());
+        assertEquals(6, new JsonReader(FILE).read().getActivities().size());
+
+        st = new JournaledStore(FILE).load();
+        assertEquals(7, st.getActivities().size());
+        assertEquals("a7", st.getActivities().get(6).getName());
+    }
+
+    @Test
+    void testLoadAfterInterruptedCompaction() throws IOException {
+        JournaledStore store = new JournaledStore(FILE);
+        StudyTracker st = new StudyTracker();
+        store.save(st);
+        st.addActivity(new Activity("a1"));
+        store.close();
+        Files.move(path(".journal"), path(".journal.compacting"));
+
+        store = new JournaledStore(FILE);
+        st = store.load();
+        st.addActivity(new Activity("a2"));
+        store.awaitCompaction();
+        assertFalse(Files.exists(path(".journal.compacting")));
+        assertEquals(1, new JsonReader(FILE).read().getActivities().size());
+        store.close();
+
+        assertEquals(2, new JournaledStore(FILE).load().getActivities().size());
+    }
+
+    @Test
+    void testLoadAfterCompactedSnapshotWritten() throws IOException {
+        JournaledStore store = new JournaledStore(FILE);
+        StudyTracker st = new StudyTracker();
+        store.save(st);
+        st.addActivity(new Activity("a1"));
+        store.close();
+        Files.move(path(".journal"), path(".journal.compacting"));
+        Files.copy(path(""), path(".compacted"));
+        Files.write(path(".journal"), new byte[0]);
+
+        assertTrue(new JournaledStore(FILE).load().getActivities().isEmpty());
+        assertFalse(Files.exists(path(".journal.compacting")));
+        assertFalse(Files.exists(path(".compacted")));
+    }
+
+    @Test
+    void testBinarySnapshot() throws IOException {
+        String file = "./data/testJournaledStudyTracker.bin";
+        try {
+            JournaledStore store = new JournaledStore(file);
+            StudyTracker st = new StudyTracker();
+            store.save(st);
+            st.addActivity(new Activity("a1"));
+            store.close();
+            assertTrue(new BinarySnapshotReader(file).read().getActivities().isEmpty());
+            assertEquals(1, new JournaledStore(file).load().getActivities().size());
+        } finally {
+            for (String suffix : SUFFIXES) {
+                Files.deleteIfExists(Paths.get(file + suffix));
+            }
+        }
+    }
+
+    private void checkLoadFails() throws IOException {
+        JournaledStore store = new JournaledStore(FILE);
+        try {
+            store.load();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // expected
+        }
+        store.close();
+    }
+
+    private Path path(String suffix) {
+        return Paths.get(FILE + suffix);
+    }
+
+    private void deleteFiles() throws IOException {
+        for (String suffix : SUFFIXES) {
+            Files.deleteIfExists(path(suffix));
+        }
+    }
+}
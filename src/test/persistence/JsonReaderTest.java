@@ -1,15 +1,28 @@
 package persistence;
 
 import model.Activity;
+import model.ColumnarStudyTracker;
 import model.PomodoroSession;
 import model.PomodoroTimerSettings;
+import model.Session;
 import model.StudyTracker;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assertions.*;
 
 // reference: JsonReaderTest class in https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo
 public class JsonReaderTest extends JsonTest {
@@ -42,30 +55,353 @@ public class JsonReaderTest extends JsonTest {
         JsonReader reader = new JsonReader("./data/testReaderGeneralStudyTracker.json");
         try {
             StudyTracker st = reader.read();
-            checkTimerSettings(25, 5, 25, 4, st.getTimerSettings());
-            assertEquals(2, st.getActivities().size());
-            assertEquals(5, st.getSessions().size());
-
-            assertEquals("MyCourse", st.getActivities().get(0).getName());
-            assertEquals("Reading time", st.getActivities().get(1).getName());
+            checkGeneralStudyTracker(st);
+        } catch (IOException e) {
+            fail("Unable to read file");
+        }
+    }
 
-            checkPomoSession("lab", "2022-02-07T14:00", "2022-02-07T16:30",
-                    new PomodoroTimerSettings(50, 10, 35, 2), 4,
-                    new Activity("MyCourse"), (PomodoroSession) st.getSessions().get(0));
-            checkSession("watch lecture", "2022-02-07T14:00", "2022-02-07T16:30",
-                    new Activity("MyCourse"), st.getSessions().get(1));
+    @Test
+    void testReaderIntoColumnarStudyTracker() throws IOException {
+        for (JsonReader.Mode mode : JsonReader.Mode.values()) {
+            JsonReader reader = new JsonReader("./data/testReaderGeneralStudyTracker.json", mode,
+                    ColumnarStudyTracker::new);
+            StudyTracker st = reader.read();
+            assertTrue(st instanceof ColumnarStudyTracker);
+            checkGeneralStudyTracker(st);
+            reader.close();
+        }
+    }
 
-            checkSession("A book title: chapters 1 - 3", "2022-02-07T16:30", "2022-02-07T18:00",
-                    new Activity("Reading time"), st.getSessions().get(2));
+    @Test
+    void testReaderNonExistentFileStreaming() {
+        JsonReader reader = new JsonReader("./data/nonexistentFile.json", JsonReader.Mode.STREAMING);
+        assertEquals(JsonReader.Mode.STREAMING, reader.getMode());
+        try {
+            reader.read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // expected
+        }
+    }
 
-            checkSession("null activity", "2022-02-07T16:30", "2022-02-07T18:00", st.getSessions().get(3));
+    @Test
+    void testReaderEmptyStudyTrackerStreaming() {
+        JsonReader reader = new JsonReader("./data/testReaderEmptyStudyTracker.json", JsonReader.Mode.STREAMING);
+        try {
+            StudyTracker st = reader.read();
+            checkTimerSettings(25, 5, 25, 4, st.getTimerSettings());
+            assertEquals(0, st.getActivities().size());
+            assertEquals(0, st.getSessions().size());
+        } catch (IOException e) {
+            fail("Unable to read file");
+        }
+    }
 
-            checkPomoSession("null activity", "2022-02-07T14:00", "2022-02-07T16:30",
-                    new PomodoroTimerSettings(50, 10, 35, 2), 4,
-                    (PomodoroSession) st.getSessions().get(4));
+    @Test
+    void testReaderGeneralStudyTrackerStreaming() {
+        JsonReader reader = new JsonReader("./data/testReaderGeneralStudyTracker.json", JsonReader.Mode.STREAMING);
+        try {
+            StudyTracker st = reader.read();
+            checkGeneralStudyTracker(st);
         } catch (IOException e) {
             fail("Unable to read file");
         }
     }
 
+    @Test
+    void testReaderSessionsFirstStudyTracker() {
+        for (JsonReader.Mode mode : JsonReader.Mode.values()) {
+            JsonReader reader = new JsonReader("./data/testReaderSessionsFirstStudyTracker.json", mode);
+            try {
+                StudyTracker st = reader.read();
+                checkTimerSettings(45, 15, 30, 3, st.getTimerSettings());
+                assertEquals(2, st.getActivities().size());
+                assertEquals("Reading time", st.getActivities().get(0).getName());
+                assertEquals("MyCourse", st.getActivities().get(1).getName());
+                assertEquals(4, st.getSessions().size());
+
+                checkPomoSession("lab \"5\"\nété 🌻", "2022-02-07T14:00", "2022-02-07T16:30",
+                        new PomodoroTimerSettings(50, 10, 35, 2), 4,
+                        new Activity("MyCourse"), (PomodoroSession) st.getSessions().get(0));
+                assertSame(st.getActivities().get(1), st.getSessions().get(0).getActivity());
+                checkSession("no longer an activity", "2022-02-07T16:30", "2022-02-07T18:00",
+                        st.getSessions().get(1));
+                checkSession("watch lecture", "2022-02-08T09:00", "2022-02-08T10:00",
+                        new Activity("MyCourse"), st.getSessions().get(2));
+                assertFalse(st.getSessions().get(2) instanceof PomodoroSession);
+                checkSession("null activity", "2022-02-08T11:00", "2022-02-08T12:00", st.getSessions().get(3));
+                assertEquals(2, st.filterSessionsByActivity(null).size());
+            } catch (IOException e) {
+                fail("Unable to read file");
+            }
+        }
+    }
+
+    @Test
+    void testReaderMalformedFile() {
+        for (JsonReader.Mode mode : JsonReader.Mode.values()) {
+            JsonReader reader = new JsonReader("./data/testReaderMalformedStudyTracker.json", mode);
+            try {
+                reader.read();
+                fail("JSONException expected");
+            } catch (JSONException e) {
+                // expected
+            } catch (IOException e) {
+                fail("Unexpected IOException");
+            }
+        }
+    }
+
+    @Test
+    void testReaderLazyDetails() throws IOException {
+        String file = "./data/testReaderLazyStudyTracker.json";
+        Files.copy(Paths.get("./data/testReaderGeneralStudyTracker.json"), Paths.get(file),
+                StandardCopyOption.REPLACE_EXISTING);
+        JsonReader reader = new JsonReader(file, JsonReader.Mode.LAZY);
+        try {
+            StudyTracker st = reader.read();
+            JsonWriter writer = new JsonWriter(file, JsonWriter.Mode.STREAMING, false, 1);
+            writer.open();
+            writer.write(new StudyTracker());
+            writer.close();
+            checkGeneralStudyTracker(st);
+
+            reader.close();
+            assertEquals("lab", st.getSessions().get(0).getDetails());
+        } finally {
+            reader.close();
+            Files.deleteIfExists(Paths.get(file));
+            Files.deleteIfExists(Paths.get(file + ".1"));
+        }
+    }
+
+    @Test
+    void testDetailsSourceCache() throws IOException {
+        Path file = Paths.get("./data/testReaderLazyDetails.json");
+        Files.write(file, "\"first\" \"sec\\u006Fnd\"".getBytes(StandardCharsets.UTF_8));
+        JsonDetailsSource details = new JsonDetailsSource(FileChannel.open(file), 1);
+        try {
+            assertEquals("first", details.fetchDetails(0));
+            assertEquals("second", details.fetchDetails(8));
+            assertEquals(1, details.getCachedCount());
+            details.close();
+            assertEquals("second", details.fetchDetails(8));
+            try {
+                details.fetchDetails(0);
+                fail("UncheckedIOException expected");
+            } catch (UncheckedIOException e) {
+                // expected
+            }
+        } finally {
+            details.close();
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testReaderParallelKeepsSessionOrder() throws IOException {
+        String file = "./data/testReaderParallelStudyTracker.json";
+        StudyTracker st = new StudyTracker();
+        Activity activity = new Activity("MyCourse");
+        st.addActivity(activity);
+        LocalDateTime start = LocalDateTime.parse("2022-01-01T09:00");
+        int count = 5 * JsonReader.SESSION_CHUNK + 3;
+        for (int i = 0; i < count; i++) {
+            LocalDateTime end = start.plusMinutes(30);
+            if (i % 3 == 0) {
+                st.addSession(new PomodoroSession("s" + i, start, end, new PomodoroTimerSettings(), 25, activity));
+            } else {
+                st.addSession(new Session("s" + i, start, end, i % 2 == 0 ? activity : null));
+            }
+            start = start.minusHours(1);
+        }
+        try {
+            JsonWriter writer = new JsonWriter(file, JsonWriter.Mode.STREAMING, false, 0);
+            writer.open();
+            writer.write(st);
+            writer.close();
+
+            StudyTracker parsed = new JsonReader(file, JsonReader.Mode.PARALLEL).read();
+            assertEquals(count, parsed.getSessions().size());
+            for (int i = 0; i < count; i++) {
+                Session s = parsed.getSessions().get(i);
+                assertEquals("s" + i, s.getDetails());
+                assertEquals(i % 3 == 0, s instanceof PomodoroSession);
+                assertEquals(i % 3 != 0 && i % 2 != 0 ? null : parsed.getActivities().get(0), s.getActivity());
+            }
+        } finally {
+            Files.deleteIfExists(Paths.get(file));
+        }
+    }
+
+    @Test
+    void testReaderParallelMalformedSession() throws IOException {
+        String file = "./data/testReaderParallelMalformedSession.json";
+        StringBuilder json = new StringBuilder("{\"sessions\": [");
+        for (int i = 0; i < 2 * JsonReader.SESSION_CHUNK; i++) {
+            String start = i == JsonReader.SESSION_CHUNK + 1 ? "" : ", \"start\": \"2022-02-07T14:00\"";
+            json.append(i == 0 ? "" : ",").append("{\"details\": \"s").append(i).append("\"").append(start)
+                    .append(", \"end\": \"2022-02-07T15:00\", \"activity\": \"\"}");
+        }
+        json.append("], \"activities\": [], \"timerSettings\": {\"pomodoro\": 25, \"shortBreak\": 5,"
+                + " \"longBreak\": 15, \"pomodoroRepeats\": 4}}");
+        Files.write(Paths.get(file), json.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            assertThrows(JSONException.class, () -> new JsonReader(file, JsonReader.Mode.PARALLEL).read());
+        } finally {
+            Files.deleteIfExists(Paths.get(file));
+        }
+    }
+
+    @Test
+    void testReaderSessionType() throws IOException {
+        String file = "./data/testReaderSessionType.json";
+        String settings = "{\"pomodoro\": 50, \"shortBreak\": 10, \"longBreak\": 35, \"pomodoroRepeats\": 2}";
+        String json = "{\"timerSettings\": " + settings + ", \"activities\": [], \"sessions\": ["
+                + "{\"type\": \"session\", \"details\": \"typed\", \"start\": \"2022-02-07T14:00\","
+                + " \"end\": \"2022-02-07T15:00\", \"activity\": \"\", \"timerSettings\": " + settings + ","
+                + " \"pomodoroMinutes\": 4},"
+                + "{\"type\": \"pomodoro\", \"details\": \"pomo\", \"start\": \"2022-02-07T15:00\","
+                + " \"end\": \"2022-02-07T16:00\", \"activity\": \"\", \"timerSettings\": " + settings + ","
+                + " \"pomodoroMinutes\": 50},"
+                + "{\"details\": \"untyped\", \"start\": \"2022-02-07T16:00\", \"end\": \"2022-02-07T17:00\","
+                + " \"activity\": \"\", \"pomodoroMinutes\": 4}]}";
+        Files.write(Paths.get(file), json.getBytes(StandardCharsets.UTF_8));
+        try {
+            for (JsonReader.Mode mode : JsonReader.Mode.values()) {
+                JsonReader reader = new JsonReader(file, mode);
+                StudyTracker st = reader.read();
+                assertEquals(3, st.getSessions().size());
+                assertFalse(st.getSessions().get(0) instanceof PomodoroSession);
+                checkPomoSession("pomo", "2022-02-07T15:00", "2022-02-07T16:00",
+                        new PomodoroTimerSettings(50, 10, 35, 2), 50, (PomodoroSession) st.getSessions().get(1));
+                assertFalse(st.getSessions().get(2) instanceof PomodoroSession);
+                reader.close();
+            }
+        } finally {
+            Files.deleteIfExists(Paths.get(file));
+        }
+    }
+
+    // Benchmark, run with -Dbenchmark=true: reports the best of several reads of a large file in DOM and PARALLEL
+    // mode and the speed-up PARALLEL mode gets on this machine's cores
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void testReaderParallelBenchmark() throws IOException {
+        String file = "./data/testReaderParallelBenchmark.json";
+        int count = 200000;
+        try {
+            writeSessions(file, count);
+            long dom = bestReadNanos(file, JsonReader.Mode.DOM, count);
+            long parallel = bestReadNanos(file, JsonReader.Mode.PARALLEL, count);
+            System.out.printf("%d sessions on %d cores: DOM %d ms, PARALLEL %d ms, speed-up %.2fx%n", count,
+                    Runtime.getRuntime().availableProcessors(), dom / 1000000, parallel / 1000000,
+                    (double) dom / parallel);
+        } finally {
+            Files.deleteIfExists(Paths.get(file));
+        }
+    }
+
+    // Benchmark, run with -Dbenchmark=true: reports the best time to parse untyped regular sessions, as written
+    // before sessions had a type, by key presence and by probing pomodoroMinutes and catching the JSONException
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void testReaderSessionTypeBenchmark() {
+        StudyTracker st = new StudyTracker();
+        Activity activity = new Activity("MyCourse");
+        st.addActivity(activity);
+        JSONArray sessions = new JSONArray();
+        LocalDateTime start = LocalDateTime.parse("2022-01-01T09:00");
+        for (int i = 0; i < 100000; i++) {
+            JSONObject json = new Session("s" + i, start, start.plusMinutes(30), activity).toJson();
+            json.remove("type");
+            sessions.put(json);
+            start = start.plusHours(1);
+        }
+        long byKeys = bestParseNanos(st, sessions, false);
+        long byException = bestParseNanos(st, sessions, true);
+        System.out.printf("%d untyped sessions: by keys %d ms, by exception %d ms, speed-up %.2fx%n",
+                sessions.length(), byKeys / 1000000, byException / 1000000, (double) byException / byKeys);
+    }
+
+    // EFFECTS: parses given sessions several times and returns the fastest pass's time; if byException, each
+    //          session is first probed for pomodoroMinutes the way sessions were told apart before they had a type
+    private long bestParseNanos(StudyTracker st, JSONArray sessions, boolean byException) {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 5; run++) {
+            long started = System.nanoTime();
+            for (int i = 0; i < sessions.length(); i++) {
+                JSONObject json = sessions.getJSONObject(i);
+                try {
+                    if (byException) {
+                        json.getInt("pomodoroMinutes");
+                    }
+                } catch (JSONException e) {
+                    // a regular session
+                }
+                assertFalse(JsonReader.parseSession(st, json) instanceof PomodoroSession);
+            }
+            best = Math.min(best, System.nanoTime() - started);
+        }
+        return best;
+    }
+
+    // EFFECTS: writes a study tracker with count sessions, a third of them pomodoro sessions, to given file
+    private void writeSessions(String file, int count) throws IOException {
+        StudyTracker st = new StudyTracker();
+        Activity activity = new Activity("MyCourse");
+        st.addActivity(activity);
+        LocalDateTime start = LocalDateTime.parse("2022-01-01T09:00");
+        for (int i = 0; i < count; i++) {
+            LocalDateTime end = start.plusMinutes(30);
+            if (i % 3 == 0) {
+                st.addSession(new PomodoroSession("s" + i, start, end, new PomodoroTimerSettings(), 25, activity));
+            } else {
+                st.addSession(new Session("s" + i, start, end, activity));
+            }
+            start = start.plusHours(1);
+        }
+        JsonWriter writer = new JsonWriter(file, JsonWriter.Mode.STREAMING, false, 0);
+        writer.open();
+        writer.write(st);
+        writer.close();
+    }
+
+    // EFFECTS: reads given file with count sessions several times in given mode, and returns the fastest read's time
+    private long bestReadNanos(String file, JsonReader.Mode mode, int count) throws IOException {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 5; run++) {
+            long started = System.nanoTime();
+            StudyTracker st = new JsonReader(file, mode).read();
+            best = Math.min(best, System.nanoTime() - started);
+            assertEquals(count, st.getSessions().size());
+        }
+        return best;
+    }
+
+    private void checkGeneralStudyTracker(StudyTracker st) {
+        checkTimerSettings(25, 5, 25, 4, st.getTimerSettings());
+        assertEquals(2, st.getActivities().size());
+        assertEquals(5, st.getSessions().size());
+
+        assertEquals("MyCourse", st.getActivities().get(0).getName());
+        assertEquals("Reading time", st.getActivities().get(1).getName());
+
+        checkPomoSession("lab", "2022-02-07T14:00", "2022-02-07T16:30",
+                new PomodoroTimerSettings(50, 10, 35, 2), 4,
+                new Activity("MyCourse"), (PomodoroSession) st.getSessions().get(0));
+        checkSession("watch lecture", "2022-02-07T14:00", "2022-02-07T16:30",
+                new Activity("MyCourse"), st.getSessions().get(1));
+
+        checkSession("A book title: chapters 1 - 3", "2022-02-07T16:30", "2022-02-07T18:00",
+                new Activity("Reading time"), st.getSessions().get(2));
+
+        checkSession("null activity", "2022-02-07T16:30", "2022-02-07T18:00", st.getSessions().get(3));
+
+        checkPomoSession("null activity", "2022-02-07T14:00", "2022-02-07T16:30",
+                new PomodoroTimerSettings(50, 10, 35, 2), 4,
+                (PomodoroSession) st.getSessions().get(4));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package persistence;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonTokenWriterTest {
+
+    @Test
+    void testCompact() throws IOException {
+        StringWriter out = new StringWriter();
+        JsonTokenWriter w = new JsonTokenWriter(out, false);
+        w.beginObject();
+        w.name("a").beginArray().value(1).value(-20).endArray();
+        w.name("b").beginObject().endObject();
+        w.name("c").beginArray().endArray();
+        w.name("d").value("x");
+        w.endObject();
+        w.flush();
+        assertEquals("{\"a\":[1,-20],\"b\":{},\"c\":[],\"d\":\"x\"}", out.toString());
+    }
+
+    @Test
+    void testPrettyPrint() throws IOException {
+        StringWriter out = new StringWriter();
+        JsonTokenWriter w = new JsonTokenWriter(out, true);
+        w.beginObject();
+        w.name("a").beginArray().value(1).beginObject().name("b").value("c").endObject().endArray();
+        w.name("d").beginArray().endArray();
+        w.endObject();
+        assertEquals("{\n    \"a\": [\n        1,\n        {\n            \"b\": \"c\"\n        }\n    ],"
+                + "\n    \"d\": []\n}", out.toString());
+        assertEquals(2, new JSONObject(out.toString()).length());
+    }
+
+    @Test
+    void testEscapes() throws IOException {
+        StringWriter out = new StringWriter();
+        JsonTokenWriter w = new JsonTokenWriter(out, false);
+        String s = "q\"b\\s/n\nt\tr\rb\bf\f\u0001 été 🌻";
+        w.beginArray().value(s).value("").endArray();
+        assertEquals("[\"q\\\"b\\\\s/n\\nt\\tr\\rb\\bf\\f\\u0001 été 🌻\",\"\"]", out.toString());
+        assertEquals(s, new JSONArray(out.toString()).getString(0));
+    }
+
+    @Test
+    void testDeepNesting() throws IOException {
+        StringWriter out = new StringWriter();
+        JsonTokenWriter w = new JsonTokenWriter(out, false);
+        for (int i = 0; i < 100; i++) {
+            w.beginArray();
+        }
+        for (int i = 0; i < 100; i++) {
+            w.endArray();
+        }
+        assertEquals(200, out.toString().length());
+    }
+}
@@ -0,0 +1,154 @@
+package persistence;
+
+import org.json.JSONException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static persistence.JsonTokenizer.Token.*;
+
+public class JsonTokenizerTest {
+
+    @Test
+    void testObjectAndArray() throws IOException {
+        JsonTokenizer t = tokenizer(" { \"a\" : [1, -20, 3.0e0], \"b\": {}, \"c\": [] } ");
+        assertEquals(BEGIN_OBJECT, t.peek());
+        t.beginObject();
+        assertTrue(t.hasNext());
+        assertEquals(NAME, t.peek());
+        assertEquals("a", t.nextName());
+        t.beginArray();
+        assertEquals(1, t.nextInt());
+        assertEquals(-20L, t.nextLong());
+        assertEquals(3, t.nextInt());
+        assertFalse(t.hasNext());
+        t.endArray();
+        assertEquals("b", t.nextName());
+        t.beginObject();
+        assertFalse(t.hasNext());
+        t.endObject();
+        assertEquals("c", t.nextName());
+        t.beginArray();
+        t.endArray();
+        t.endObject();
+        assertEquals(END_DOCUMENT, t.peek());
+        assertFalse(t.hasNext());
+    }
+
+    @Test
+    void testStrings() throws IOException {
+        JsonTokenizer t = tokenizer("[\"plain\", \"q\\\"b\\\\s\\/n\\nt\\tr\\rb\\bf\\f\", \"\\u00e9\\ud83c\\udf3b\", \"été 🌻\", \"\"]");
+        t.beginArray();
+        assertEquals(STRING, t.peek());
+        assertEquals("plain", t.nextString());
+        assertEquals("q\"b\\s/n\nt\tr\rb\bf\f", t.nextString());
+        assertEquals("é🌻", t.nextString());
+        assertEquals("été 🌻", t.nextString());
+        assertEquals("", t.nextString());
+        t.endArray();
+    }
+
+    @Test
+    void testLongString() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        JsonTokenizer t = tokenizer("{\"details\": \"" + sb + "\"}");
+        t.beginObject();
+        t.nextName();
+        assertEquals(sb.toString(), t.nextString());
+        t.endObject();
+    }
+
+    @Test
+    void testLiterals() throws IOException {
+        JsonTokenizer t = tokenizer("[true, false, null]");
+        t.beginArray();
+        assertEquals(BOOLEAN, t.peek());
+        assertTrue(t.nextBoolean());
+        assertFalse(t.nextBoolean());
+        assertEquals(NULL, t.peek());
+        t.nextNull();
+        t.endArray();
+    }
+
+    @Test
+    void testSkipValue() throws IOException {
+        JsonTokenizer t = tokenizer("{\"skip\": {\"x\": [1, {\"y\": \"}]\"}, null], \"z\": true}, \"keep\": 7}");
+        t.beginObject();
+        assertEquals("skip", t.nextName());
+        t.skipValue();
+        assertEquals("keep", t.nextName());
+        assertEquals(7, t.nextInt());
+        t.endObject();
+    }
+
+    @Test
+    void testTokenPosition() throws IOException {
+        JsonTokenizer t = tokenizer("{\"é\": \"value\"}");
+        t.beginObject();
+        assertEquals(1, t.getTokenPosition());
+        t.nextName();
+        assertEquals(7, t.getTokenPosition());
+        assertEquals("value", t.nextString());
+    }
+
+    @Test
+    void testSyntaxErrors() throws IOException {
+        assertSyntaxError("{\"a\" 1}");
+        assertSyntaxError("{\"a\": 1 \"b\": 2}");
+        assertSyntaxError("[1 2]");
+        assertSyntaxError("{a: 1}");
+        assertSyntaxError("[\"unterminated]");
+        assertSyntaxError("[tru]");
+        assertSyntaxError("[\"\\x\"]");
+        assertSyntaxError("[1.5]");
+        assertSyntaxError("[99999999999]");
+        assertSyntaxError("{\"a\": [1, 2");
+        assertSyntaxError("[\"a\"]");
+        assertSyntaxError("[1.2.3]");
+        assertSyntaxError("[-]");
+        assertSyntaxError("[1e]");
+    }
+
+    @Test
+    void testMalformedNumberMessage() throws IOException {
+        JsonTokenizer t = tokenizer("[1.2.3]");
+        t.beginArray();
+        JSONException e = assertThrows(JSONException.class, t::nextLong);
+        assertTrue(e.getMessage().contains("1.2.3"));
+    }
+
+    private void assertSyntaxError(String json) throws IOException {
+        JsonTokenizer t = tokenizer(json);
+        try {
+            if (t.peek() == BEGIN_OBJECT) {
+                t.beginObject();
+                while (t.hasNext()) {
+                    t.nextName();
+                    t.skipValue();
+                }
+                t.endObject();
+            } else {
+                t.beginArray();
+                while (t.hasNext()) {
+                    t.nextInt();
+                }
+                t.endArray();
+            }
+            fail("JSONException was not thrown for " + json);
+        } catch (JSONException e) {
+            // expected
+        }
+    }
+
+    private JsonTokenizer tokenizer(String json) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        return new JsonTokenizer(Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+}
@@ -1,9 +1,13 @@
 package persistence;
 
 import model.*;
+import org.json.JSONObject;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 import static java.time.LocalDateTime.parse;
 import static org.junit.jupiter.api.Assertions.*;
@@ -72,6 +76,169 @@ public class JsonWriterTest extends JsonTest {
         }
     }
 
+    @Test
+    void testWriterInvalidFileStreaming() {
+        try {
+            JsonWriter writer = new JsonWriter("./data/invalid\0:fileName.json", JsonWriter.Mode.STREAMING, true);
+            writer.open();
+            fail("IOException was not thrown");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testWriterGeneralStudyTrackerStreaming() {
+        for (boolean prettyPrint : new boolean[] {true, false}) {
+            try {
+                StudyTracker st = new StudyTracker();
+                st.setTimerSettings(new PomodoroTimerSettings(50, 10, 30, 2));
+                loadTracker(st);
+                JsonWriter writer = new JsonWriter("./data/testWriterGeneralStudyTracker.json",
+                        JsonWriter.Mode.STREAMING, prettyPrint);
+                assertEquals(JsonWriter.Mode.STREAMING, writer.getMode());
+                assertEquals(prettyPrint, writer.isPrettyPrint());
+                writer.open();
+                writer.write(st);
+                writer.close();
+
+                checkWrittenGeneralStudyTracker(new JsonReader("./data/testWriterGeneralStudyTracker.json").read());
+                checkWrittenGeneralStudyTracker(new JsonReader("./data/testWriterGeneralStudyTracker.json",
+                        JsonReader.Mode.STREAMING).read());
+            } catch (IOException e) {
+                fail("IOException was caught");
+            }
+        }
+    }
+
+    @Test
+    void testWriterStreamingMatchesDom() {
+        try {
+            StudyTracker st = new StudyTracker();
+            loadTracker(st);
+            st.getSessionsWithoutLogging().get(0).setDetails("lab \"5\"\n\tété 🌻");
+            JsonWriter writer = new JsonWriter("./data/testWriterGeneralStudyTracker.json",
+                    JsonWriter.Mode.STREAMING, false);
+            writer.open();
+            writer.write(st);
+            writer.close();
+
+            String written = new String(Files.readAllBytes(Paths.get("./data/testWriterGeneralStudyTracker.json")),
+                    StandardCharsets.UTF_8);
+            assertFalse(written.contains("\n"));
+            assertTrue(st.toJson().similar(new JSONObject(written)));
+        } catch (IOException e) {
+            fail("IOException was caught");
+        }
+    }
+
+    @Test
+    void testWriterDomModeAlwaysPrettyPrints() {
+        JsonWriter writer = new JsonWriter("./data/testWriterEmptyStudyTracker.json", JsonWriter.Mode.DOM, false);
+        assertEquals(JsonWriter.Mode.DOM, writer.getMode());
+        assertTrue(writer.isPrettyPrint());
+    }
+
+    @Test
+    void testWriterKeepsBackups() {
+        String file = "./data/testWriterBackupStudyTracker.json";
+        try {
+            deleteGenerations(file);
+            for (int i = 1; i <= 4; i++) {
+                StudyTracker st = new StudyTracker();
+                st.setTimerSettings(new PomodoroTimerSettings(i, 1, 1, 1));
+                JsonWriter writer = new JsonWriter(file, JsonWriter.Mode.STREAMING, false, 2);
+                assertEquals(2, writer.getMaxBackups());
+                writer.open();
+                writer.write(st);
+                writer.close();
+                assertFalse(Files.exists(Paths.get(file + ".tmp")));
+            }
+            assertEquals(4, new JsonReader(file).read().getTimerSettings().getPomodoro());
+            assertEquals(3, new JsonReader(file + ".1").read().getTimerSettings().getPomodoro());
+            assertEquals(2, new JsonReader(file + ".2").read().getTimerSettings().getPomodoro());
+            assertFalse(Files.exists(Paths.get(file + ".3")));
+        } catch (IOException e) {
+            fail("IOException was caught");
+        } finally {
+            deleteGenerations(file);
+        }
+    }
+
+    @Test
+    void testWriterNoBackups() {
+        String file = "./data/testWriterBackupStudyTracker.json";
+        try {
+            deleteGenerations(file);
+            for (int i = 1; i <= 2; i++) {
+                JsonWriter writer = new JsonWriter(file, JsonWriter.Mode.DOM, true, 0);
+                writer.open();
+                writer.write(new StudyTracker());
+                writer.close();
+            }
+            assertTrue(Files.exists(Paths.get(file)));
+            assertFalse(Files.exists(Paths.get(file + ".1")));
+        } catch (IOException e) {
+            fail("IOException was caught");
+        } finally {
+            deleteGenerations(file);
+        }
+    }
+
+    @Test
+    void testReaderFallsBackToNewestValidBackup() {
+        String file = "./data/testWriterBackupStudyTracker.json";
+        try {
+            deleteGenerations(file);
+            for (int i = 1; i <= 3; i++) {
+                StudyTracker st = new StudyTracker();
+                st.setTimerSettings(new PomodoroTimerSettings(i, 1, 1, 1));
+                JsonWriter writer = new JsonWriter(file, JsonWriter.Mode.STREAMING, true);
+                writer.open();
+                writer.write(st);
+                writer.close();
+            }
+            Files.write(Paths.get(file), "{\"timerSettings\": {\"pomo".getBytes(StandardCharsets.UTF_8));
+            Files.write(Paths.get(file + ".1"), new byte[0]);
+            for (JsonReader.Mode mode : JsonReader.Mode.values()) {
+                assertEquals(1, new JsonReader(file, mode).read().getTimerSettings().getPomodoro());
+            }
+            Files.delete(Paths.get(file));
+            assertEquals(1, new JsonReader(file).read().getTimerSettings().getPomodoro());
+        } catch (IOException e) {
+            fail("IOException was caught");
+        } finally {
+            deleteGenerations(file);
+        }
+    }
+
+    private void deleteGenerations(String file) {
+        try {
+            Files.deleteIfExists(Paths.get(file));
+            Files.deleteIfExists(Paths.get(file + ".tmp"));
+            for (int i = 1; i <= JsonWriter.DEFAULT_MAX_BACKUPS; i++) {
+                Files.deleteIfExists(Paths.get(file + "." + i));
+            }
+        } catch (IOException e) {
+            fail("IOException was caught");
+        }
+    }
+
+    private void checkWrittenGeneralStudyTracker(StudyTracker st) {
+        assertEquals(new PomodoroTimerSettings(50, 10, 30, 2).toString(), st.getTimerSettings().toString());
+        assertEquals(2, st.getActivities().size());
+        assertEquals("a1", st.getActivities().get(0).getName());
+        assertEquals("a2", st.getActivities().get(1).getName());
+
+        assertEquals(4, st.getSessions().size());
+        checkSession("s1", "2022-02-22T12:40", "2022-02-22T13:40", new Activity("a1"), st.getSessions().get(0));
+        checkPomoSession("s2", "2022-02-22T15:40", "2022-02-22T16:40",
+                new PomodoroTimerSettings(), 2, new Activity("a2"), (PomodoroSession) st.getSessions().get(1));
+        checkSession("s3", "2022-02-22T12:40", "2022-02-22T13:40", st.getSessions().get(2));
+        checkPomoSession("s2", "2022-02-22T15:40", "2022-02-22T16:40",
+                new PomodoroTimerSettings(), 2, (PomodoroSession) st.getSessions().get(3));
+    }
+
     private void loadTracker(StudyTracker st) {
         Activity a1 = new Activity("a1");
         Activity a2 = new Activity("a2");
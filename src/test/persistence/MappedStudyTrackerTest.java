@@ -0,0 +1,204 @@
+package persistence;
+
+import model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.time.LocalDateTime.parse;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedStudyTrackerTest extends JsonTest {
+    private static final String FILE = "./data/testMappedStudyTracker.col";
+
+    private StudyTracker st;
+    private Activity a1;
+    private Activity a2;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.deleteIfExists(Paths.get(FILE));
+        st = new StudyTracker();
+        st.setTimerSettings(new PomodoroTimerSettings(50, 10, 30, 2));
+        a1 = new Activity("a1");
+        a2 = new Activity("été 🌻");
+        st.addActivity(a1);
+        st.addActivity(a2);
+        st.addSession(new Session("s1", parse("2022-02-22T12:40"), parse("2022-02-22T13:40"), a1));
+        st.addSession(new PomodoroSession("s2 🌻", parse("2022-02-22T13:00"), parse("2022-02-22T16:40"),
+                new PomodoroTimerSettings(), 150, a2));
+        st.addSession(new Session("", parse("1969-12-31T23:59:30.5"), parse("1970-01-01T00:10:01"), null));
+        st.addSession(new Session("s4", parse("2022-02-21T08:00"), parse("2022-02-21T09:30"), a1));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(Paths.get(FILE));
+        Files.deleteIfExists(Paths.get(FILE + ".tmp"));
+    }
+
+    @Test
+    void testReadNonExistentFile() {
+        try {
+            new MappedStudyTracker("./data/nonexistentFile.col");
+            fail("IOException expected");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testReadCorruptFile() throws IOException {
+        write(st);
+        Path path = Paths.get(FILE);
+        byte[] data = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(data, data.length - 1));
+        try {
+            new MappedStudyTracker(FILE);
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("truncated"));
+        }
+        Files.write(path, "{\"timerSettings\": {}, \"activities\": [], \"sessions\": []}".getBytes());
+        try {
+            new MappedStudyTracker(FILE);
+            fail("IOException expected");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testReadSessions() throws IOException {
+        write(st);
+        try (MappedStudyTracker mapped = new MappedStudyTracker(FILE)) {
+            checkTimerSettings(50, 10, 30, 2, mapped.getTimerSettings());
+            assertEquals(2, mapped.getActivities().size());
+            assertEquals("été 🌻", mapped.getActivities().get(1).getName());
+            assertSame(mapped.getActivities().get(0), mapped.findActivity("a1"));
+
+            List<Session> sessions = mapped.getSessions();
+            assertEquals(4, sessions.size());
+            checkSession("s1", "2022-02-22T12:40", "2022-02-22T13:40", a1, sessions.get(0));
+            checkPomoSession("s2 🌻", "2022-02-22T13:00", "2022-02-22T16:40", new PomodoroTimerSettings(), 150, a2,
+                    (PomodoroSession) sessions.get(1));
+            checkSession("", "1969-12-31T23:59:30.500", "1970-01-01T00:10:01", sessions.get(2));
+            checkSession("s4", "2022-02-21T08:00", "2022-02-21T09:30", a1, sessions.get(3));
+            assertThrows(IndexOutOfBoundsException.class, () -> sessions.get(4));
+            assertThrows(UnsupportedOperationException.class, () -> sessions.remove(0));
+        }
+    }
+
+    @Test
+    void testQueries() throws IOException {
+        write(st);
+        try (MappedStudyTracker mapped = new MappedStudyTracker(FILE)) {
+            assertEquals(st.getTotalMinutes(), mapped.getTotalMinutes());
+            assertEquals(st.getTotalMinutes(a1), mapped.getTotalMinutes(a1));
+            assertEquals(st.getTotalMinutes(null), mapped.getTotalMinutes(null));
+            assertEquals(0, mapped.getTotalMinutes(new Activity("unknown")));
+
+            assertEquals(details(st.filterSessionsByActivity(a1)), details(mapped.filterSessionsByActivity(a1)));
+            assertEquals(details(st.filterSessionsByActivity(null)), details(mapped.filterSessionsByActivity(null)));
+            assertTrue(mapped.filterSessionsByActivity(new Activity("unknown")).isEmpty());
+
+            List<Session> between = mapped.getSessionsBetween(parse("2022-02-21T08:00"), parse("2022-02-22T13:00"));
+            assertEquals(2, between.size());
+            assertEquals("s4", between.get(0).getDetails());
+            assertEquals("s1", between.get(1).getDetails());
+            assertEquals(details(st.getSessionsOn(LocalDate.parse("2022-02-22"))),
+                    details(mapped.getSessionsOn(LocalDate.parse("2022-02-22"))));
+
+            assertEquals(details(st.getSessionsNewestFirst()), details(mapped.getSessionsNewestFirst()));
+            Session s1 = mapped.getSessions().get(0);
+            assertEquals(details(st.findOverlapping(st.getSessions().get(0))), details(mapped.findOverlapping(s1)));
+        }
+    }
+
+    @Test
+    void testTotalMinutesOfSessionEndingBeforeStart() throws IOException {
+        write(st);
+        Path path = Paths.get(FILE);
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path));
+        int startsAt = (int) data.getLong(32);
+        int endsAt = startsAt + 4 * 8;
+        data.putLong(endsAt, data.getLong(startsAt) - 30 * 60_000_000_000L);
+        Files.write(path, data.array());
+        try (MappedStudyTracker mapped = new MappedStudyTracker(FILE)) {
+            assertEquals(-30 + 90, mapped.getTotalMinutes(a1));
+            assertEquals(-30 + 220 + 10 + 90, mapped.getTotalMinutes());
+        }
+    }
+
+    @Test
+    void testOpenDoesNotLogActivitiesAdded() throws IOException {
+        write(st);
+        EventLog.getInstance().clear();
+        try (MappedStudyTracker mapped = new MappedStudyTracker(FILE)) {
+            assertEquals(2, mapped.getActivities().size());
+            for (Event e : EventLog.getInstance()) {
+                assertNotEquals("Activity added to study tracker", e.getDescription());
+            }
+        }
+    }
+
+    @Test
+    void testReadOnly() throws IOException {
+        write(st);
+        try (MappedStudyTracker mapped = new MappedStudyTracker(FILE)) {
+            Session s = mapped.getSessions().get(0);
+            assertThrows(UnsupportedOperationException.class, () -> mapped.addActivity(new Activity("a3")));
+            assertThrows(UnsupportedOperationException.class, () -> mapped.addSession(s));
+            assertThrows(UnsupportedOperationException.class, () -> mapped.removeSession(s));
+            assertThrows(UnsupportedOperationException.class,
+                    () -> mapped.setTimerSettings(new PomodoroTimerSettings()));
+        }
+    }
+
+    @Test
+    void testWriteMappedTracker() throws IOException {
+        write(new StudyTracker());
+        try (MappedStudyTracker mapped = new MappedStudyTracker(FILE)) {
+            assertTrue(mapped.getSessions().isEmpty());
+            assertEquals(0, mapped.getTotalMinutes());
+            assertFalse(mapped.getSessionsNewestFirst().iterator().hasNext());
+        }
+
+        String json = "./data/testMappedStudyTracker.json";
+        write(st);
+        try (MappedStudyTracker mapped = new MappedStudyTracker(FILE)) {
+            JsonWriter writer = new JsonWriter(json, JsonWriter.Mode.STREAMING, true, 0);
+            writer.open();
+            writer.write(mapped);
+            writer.close();
+            assertEquals(details(st.getSessions()), details(new JsonReader(json).read().getSessions()));
+        } finally {
+            Files.deleteIfExists(Paths.get(json));
+        }
+    }
+
+    private void write(StudyTracker tracker) throws IOException {
+        ColumnarSessionWriter writer = new ColumnarSessionWriter(FILE);
+        writer.open();
+        writer.write(tracker);
+        writer.close();
+    }
+
+    private List<String> details(Iterable<Session> sessions) {
+        List<String> details = new ArrayList<>();
+        for (Session s : sessions) {
+            details.add(s.getDetails());
+        }
+        return details;
+    }
+}
@@ -0,0 +1,187 @@
+package persistence;
+
+import model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.time.LocalDateTime.parse;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SegmentedStoreTest extends JsonTest {
+    private static final String DIR = "./data/testSegmentedStore";
+
+    private StudyTracker st;
+    private Activity a1;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        deleteDirectory();
+        st = new StudyTracker();
+        st.setTimerSettings(new PomodoroTimerSettings(50, 10, 30, 2));
+        a1 = new Activity("a1");
+        st.addActivity(a1);
+        st.addSession(new Session("jan", parse("2022-01-31T23:00"), parse("2022-02-01T01:00"), a1));
+        st.addSession(new PomodoroSession("feb", parse("2022-02-22T12:40"), parse("2022-02-22T13:40"),
+                new PomodoroTimerSettings(), 50, a1));
+        st.addSession(new Session("mar", parse("2022-03-01T09:00"), parse("2022-03-01T10:00"), null));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        deleteDirectory();
+    }
+
+    @Test
+    void testLoadNonExistentStore() {
+        try {
+            new SegmentedStore(DIR).load();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    void testSaveAndLoad() throws IOException {
+        new SegmentedStore(DIR).save(st);
+        assertEquals(4, files().size());
+
+        StudyTracker loaded = new SegmentedStore(DIR).load();
+        checkTimerSettings(50, 10, 30, 2, loaded.getTimerSettings());
+        assertEquals(1, loaded.getActivities().size());
+        List<Session> sessions = loaded.getSessions();
+        assertEquals(3, sessions.size());
+        checkSession("jan", "2022-01-31T23:00", "2022-02-01T01:00", a1, sessions.get(0));
+        checkPomoSession("feb", "2022-02-22T12:40", "2022-02-22T13:40", new PomodoroTimerSettings(), 50, a1,
+                (PomodoroSession) sessions.get(1));
+        checkSession("mar", "2022-03-01T09:00", "2022-03-01T10:00", sessions.get(2));
+        assertSame(loaded.getActivities().get(0), sessions.get(0).getActivity());
+    }
+
+    @Test
+    void testOnlyChangedSegmentsAreRewritten() throws IOException {
+        SegmentedStore store = new SegmentedStore(DIR);
+        store.save(st);
+        List<String> before = files();
+
+        st.addSession(new Session("feb 2", parse("2022-02-23T12:40"), parse("2022-02-23T13:40"), a1));
+        st.removeSession(st.getSessions().get(2));
+        store.save(st);
+        List<String> after = files();
+        assertEquals(3, after.size());
+        assertTrue(after.contains(before.get(1)));
+        assertFalse(after.contains(before.get(2)));
+        assertFalse(after.contains(before.get(3)));
+        assertTrue(after.contains("sessions-2022-02.2.json"));
+
+        StudyTracker loaded = new SegmentedStore(DIR).load();
+        assertEquals(3, loaded.getSessions().size());
+        assertTrue(loaded.getSessionsBetween(parse("2022-03-01T00:00"), parse("2022-04-01T00:00")).isEmpty());
+    }
+
+    @Test
+    void testPageInOlderSegments() throws IOException {
+        new SegmentedStore(DIR).save(st);
+
+        SegmentedStore store = new SegmentedStore(DIR);
+        StudyTracker loaded = store.load(YearMonth.of(2022, 3));
+        assertEquals(1, loaded.getSessions().size());
+        assertFalse(store.isLoaded(YearMonth.of(2022, 1)));
+        assertTrue(store.isLoaded(YearMonth.of(2021, 12)));
+
+        List<Session> feb = store.getSessionsBetween(parse("2022-02-01T00:00"), parse("2022-02-28T00:00"));
+        assertEquals(1, feb.size());
+        assertEquals("feb", feb.get(0).getDetails());
+        assertFalse(store.isLoaded(YearMonth.of(2022, 1)));
+        assertEquals(2, loaded.getSessions().size());
+
+        loaded.addSession(new Session("jan 2", parse("2022-01-02T12:40"), parse("2022-01-02T13:40"), null));
+        store.save(loaded);
+        assertTrue(store.isLoaded(YearMonth.of(2022, 1)));
+        assertEquals(4, new SegmentedStore(DIR).load().getSessions().size());
+    }
+
+    @Test
+    void testSessionMovedToAnotherMonth() throws IOException {
+        SegmentedStore store = new SegmentedStore(DIR);
+        store.save(st);
+        Session jan = st.getSessions().get(0);
+        jan.setStart(parse("2021-12-31T23:00"));
+        store.save(st);
+        store.close();
+
+        store = new SegmentedStore(DIR);
+        StudyTracker loaded = store.load();
+        assertEquals(3, loaded.getSessions().size());
+        assertEquals(1, loaded.getSessionsBetween(parse("2021-12-01T00:00"), parse("2022-01-01T00:00")).size());
+        assertTrue(loaded.getSessionsBetween(parse("2022-01-01T00:00"), parse("2022-02-01T00:00")).isEmpty());
+        assertTrue(files().contains("sessions-2021-12.2.json"));
+        assertFalse(files().contains("sessions-2022-01.1.json"));
+
+        Session mar = loaded.getSessionsBetween(parse("2022-03-01T00:00"), parse("2022-04-01T00:00")).get(0);
+        mar.setStart(parse("2022-02-28T09:00"));
+        store.save(loaded);
+        loaded = new SegmentedStore(DIR).load();
+        assertEquals(3, loaded.getSessions().size());
+        assertEquals(2, loaded.getSessionsBetween(parse("2022-02-01T00:00"), parse("2022-03-01T00:00")).size());
+    }
+
+    @Test
+    void testSaveOtherTrackerReplacesStore() throws IOException {
+        new SegmentedStore(DIR).save(st);
+        Files.write(Paths.get(DIR, "sessions-2022-05.9.json.tmp"), new byte[0]);
+
+        StudyTracker other = new StudyTracker();
+        other.addSession(new Session("may", parse("2022-05-01T09:00"), parse("2022-05-01T10:00"), null));
+        new SegmentedStore(DIR).save(other);
+        assertEquals(2, files().size());
+        assertTrue(files().contains("sessions-2022-05.2.json"));
+
+        StudyTracker loaded = new SegmentedStore(DIR).load();
+        assertTrue(loaded.getActivities().isEmpty());
+        assertEquals(1, loaded.getSessions().size());
+        assertEquals("may", loaded.getSessions().get(0).getDetails());
+    }
+
+    @Test
+    void testUnreferencedSegmentsDeletedOnLoad() throws IOException {
+        new SegmentedStore(DIR).save(st);
+        Files.write(Paths.get(DIR, "sessions-2022-04.2.json"), "{\"sessions\": []}".getBytes());
+        assertEquals(5, files().size());
+        assertEquals(3, new SegmentedStore(DIR).load().getSessions().size());
+        assertEquals(4, files().size());
+    }
+
+    private List<String> files() throws IOException {
+        List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(DIR))) {
+            for (Path file : files) {
+                names.add(file.getFileName().toString());
+            }
+        }
+        names.sort(null);
+        return names;
+    }
+
+    private void deleteDirectory() throws IOException {
+        Path dir = Paths.get(DIR);
+        if (Files.exists(dir)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+                for (Path file : files) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(dir);
+        }
+    }
+}